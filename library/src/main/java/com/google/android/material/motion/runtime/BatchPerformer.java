@@ -0,0 +1,316 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.MotionRuntime.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Drives every target of a kind of plan from a single instance.
+ * <p>
+ * A BatchPerformer is not a {@link Performer}. Plans name a subclass of {@link Entry} as their
+ * performer class, and the runtime creates one such lightweight Performer per target like any
+ * other. Each Entry forwards its plans to the runtime's single instance of the BatchPerformer
+ * class returned by {@link Entry#getBatchPerformerClass()}, where the target is given an
+ * <em>entry</em> index. Entries are numbered densely from 0, so a subclass can keep per-target
+ * state in primitive arrays indexed by entry and advance all of it in a single {@link
+ * #update(float)} per frame.
+ * <p>
+ * Entries move when others are removed: keep the parallel arrays in step in {@link
+ * #onSwapEntries(int, int)}, and grow them in {@link #onAddEntry(int)}. Entries of a {@link
+ * MotionRuntime#bindTarget(Object, Object) stable key} follow the key to its new target, and are
+ * excluded from {@link #getEntryCount()} while the key is detached.
+ */
+public abstract class BatchPerformer<T> {
+
+  /**
+   * The per-target {@link Performer} of a {@link BatchPerformer}. It is created, moved to new
+   * targets, detached and terminated by the runtime like any other Performer, and keeps its
+   * target's entry in the BatchPerformer in step.
+   *
+   * @param <T> The type of target this performer can act on.
+   */
+  public abstract static class Entry<T> extends Performer<T> {
+
+    private static final int NO_INDEX = -1;
+
+    BatchPerformer<T> batchPerformer;
+    /**
+     * This target's entry index in {@link #batchPerformer}, or {@link #NO_INDEX} if it has none.
+     */
+    int index = NO_INDEX;
+    /**
+     * Whether the batch performer was active when this entry was suspended, so that resuming the
+     * entry only reactivates the batch performer if the entry may still have work to do.
+     */
+    boolean activeWhenSuspended;
+
+    /**
+     * @return The class of the BatchPerformer that drives this Performer's target.
+     */
+    protected abstract Class<? extends BatchPerformer<T>> getBatchPerformerClass();
+
+    @Override
+    protected final void addPlan(Plan<T> plan) {
+      batchPerformer.commitPlan(this, plan);
+    }
+
+    @Override
+    protected final void onTargetChanged(T oldTarget, T newTarget) {
+      if (oldTarget == null) {
+        // the stable key was detached, and is now bound again
+        batchPerformer.resumeEntry(this);
+      }
+    }
+
+    @Override
+    protected final void onDetach() {
+      batchPerformer.suspendEntry(this);
+    }
+
+    @Override
+    protected final void onTerminate() {
+      batchPerformer.removeEntry(this);
+    }
+  }
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private Entry[] entries = new Entry[INITIAL_CAPACITY];
+  /**
+   * Live entries are stored in [0, liveCount), followed by the suspended entries of detached
+   * stable keys.
+   */
+  private int liveCount;
+  private int suspendedCount;
+
+  private boolean updating;
+  private final List<Entry> pendingRemovals = new ArrayList<>();
+  private final List<Entry> pendingSuspensions = new ArrayList<>();
+
+  MotionRuntime runtime;
+  boolean active;
+
+  /**
+   * Provides a {@link Plan} for the target of the entry. The BatchPerformer is expected to execute
+   * this plan.
+   */
+  protected abstract void addPlan(int entry, Plan<T> plan);
+
+  /**
+   * Called by the {@link MotionRuntime} on each frame while this BatchPerformer is active, which
+   * it is from the time it is given a plan until it returns {@link MotionRuntime#IDLE}.
+   *
+   * @param deltaTimeMs The elapsed time in milliseconds since the last update.
+   * @return The {@link State} of this BatchPerformer after this update.
+   */
+  @State
+  protected abstract int update(float deltaTimeMs);
+
+  /**
+   * Invoked when a target gets its entry, which is then the highest entry. Grow the arrays that
+   * hold per-entry state here, and initialize the entry's state.
+   */
+  protected void onAddEntry(int entry) {
+  }
+
+  /**
+   * Invoked when two entries exchange their indices. Swap their per-entry state here.
+   */
+  protected void onSwapEntries(int first, int second) {
+  }
+
+  /**
+   * Invoked before an entry is dropped because its target was removed or its {@link Entry}
+   * class was cancelled. The entry is always the highest one. Release its per-entry state here.
+   */
+  protected void onRemoveEntry(int entry) {
+  }
+
+  /**
+   * @return The number of live entries, which are numbered from 0.
+   */
+  protected final int getEntryCount() {
+    return liveCount;
+  }
+
+  /**
+   * @param <Type> Convenience to avoid casting, for when the caller knows the type of the
+   * target.
+   * @return The target of the entry.
+   */
+  protected final <Type extends T> Type getEntryTarget(int entry) {
+    //noinspection unchecked
+    return (Type) entries[entry].getTarget();
+  }
+
+  /**
+   * Adds the plan to the entry, creating the entry if needed, and activates this BatchPerformer.
+   */
+  final void commitPlan(Entry<T> entry, Plan<T> plan) {
+    if (entry.index == Entry.NO_INDEX) {
+      addEntry(entry);
+    }
+    addPlan(entry.index, plan);
+    runtime.setBatchPerformerActive(this, true);
+  }
+
+  private void addEntry(Entry<T> entry) {
+    int count = liveCount + suspendedCount;
+    if (count == entries.length) {
+      entries = Arrays.copyOf(entries, count * 2);
+    }
+    entries[count] = entry;
+    entry.index = count;
+    suspendedCount++;
+    onAddEntry(count);
+    resume(count);
+  }
+
+  /**
+   * Drops the entry, if it has one. Deferred until the end of an ongoing update.
+   */
+  final void removeEntry(Entry<T> entry) {
+    if (entry.index == Entry.NO_INDEX) {
+      return;
+    }
+    if (updating) {
+      pendingRemovals.add(entry);
+      return;
+    }
+
+    int index = entry.index;
+    if (index < liveCount) {
+      index = suspend(index);
+    }
+    int last = liveCount + suspendedCount - 1;
+    swap(index, last);
+    onRemoveEntry(last);
+    entries[last] = null;
+    entry.index = Entry.NO_INDEX;
+    suspendedCount--;
+
+    if (liveCount == 0) {
+      runtime.setBatchPerformerActive(this, false);
+    }
+  }
+
+  /**
+   * Excludes the entry from updates until {@link #resumeEntry(Entry)}. Deferred until the end of
+   * an ongoing update.
+   */
+  final void suspendEntry(Entry<T> entry) {
+    if (entry.index == Entry.NO_INDEX || entry.index >= liveCount) {
+      return;
+    }
+    if (updating) {
+      pendingSuspensions.add(entry);
+      return;
+    }
+    entry.activeWhenSuspended = active;
+    suspend(entry.index);
+    if (liveCount == 0) {
+      runtime.setBatchPerformerActive(this, false);
+    }
+  }
+
+  /**
+   * Includes a suspended entry in updates again. This BatchPerformer is only reactivated if it was
+   * active when the entry was suspended.
+   */
+  final void resumeEntry(Entry<T> entry) {
+    pendingSuspensions.remove(entry);
+    if (entry.index == Entry.NO_INDEX || entry.index < liveCount) {
+      return;
+    }
+    resume(entry.index);
+    if (entry.activeWhenSuspended) {
+      runtime.setBatchPerformerActive(this, true);
+    }
+  }
+
+  /**
+   * Calls {@link #update(float)}, then applies the removals and suspensions requested during it.
+   */
+  @State
+  final int performUpdate(float deltaTimeMs) {
+    @State int state;
+    updating = true;
+    try {
+      state = update(deltaTimeMs);
+    } finally {
+      updating = false;
+    }
+
+    if (!pendingRemovals.isEmpty()) {
+      for (int i = 0, count = pendingRemovals.size(); i < count; i++) {
+        //noinspection unchecked
+        removeEntry(pendingRemovals.get(i));
+      }
+      pendingRemovals.clear();
+    }
+    if (!pendingSuspensions.isEmpty()) {
+      for (int i = 0, count = pendingSuspensions.size(); i < count; i++) {
+        //noinspection unchecked
+        suspendEntry(pendingSuspensions.get(i));
+      }
+      pendingSuspensions.clear();
+    }
+    return liveCount == 0 ? MotionRuntime.IDLE : state;
+  }
+
+  /**
+   * Moves a live entry to the end of the live entries and suspends it.
+   *
+   * @return The new index of the entry.
+   */
+  private int suspend(int index) {
+    int last = liveCount - 1;
+    swap(index, last);
+    liveCount--;
+    suspendedCount++;
+    return last;
+  }
+
+  /**
+   * Moves a suspended entry to the start of the suspended entries and resumes it.
+   *
+   * @return The new index of the entry.
+   */
+  private int resume(int index) {
+    int first = liveCount;
+    swap(index, first);
+    liveCount++;
+    suspendedCount--;
+    return first;
+  }
+
+  private void swap(int first, int second) {
+    if (first == second) {
+      return;
+    }
+    Entry entry = entries[first];
+    entries[first] = entries[second];
+    entries[second] = entry;
+    entries[first].index = first;
+    entries[second].index = second;
+
+    onSwapEntries(first, second);
+  }
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import android.support.annotation.Nullable;
+
+import com.google.android.material.motion.runtime.PlanFeatures.BinarySerializablePlan;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.android.material.motion.runtime.BinaryPlanWriter.UTF_8;
+
+/**
+ * Reads {@link BinarySerializablePlan Plans} from the compact binary format written by {@link
+ * BinaryPlanWriter}.
+ * <p>
+ * Plans are decoded one record at a time, so a reader can stream through a large spec without
+ * holding every plan in memory. Records whose id is not known to the {@link PlanRegistry} are
+ * skipped, as are any trailing fields that a plan does not consume.
+ */
+public class BinaryPlanReader {
+
+  /**
+   * The smallest plan record: a one-byte id, a one-byte version and the record length.
+   */
+  private static final int MIN_RECORD_BYTES = 6;
+  /**
+   * The most elements allocated up front for a length read from a stream, whose remaining size is
+   * unknown. Longer arrays grow as their elements arrive.
+   */
+  private static final int MAX_UNCHECKED_ELEMENTS = 8192;
+
+  private final PlanRegistry registry;
+  private final Source source;
+
+  /**
+   * Creates a reader that consumes the bytes between the buffer's position and limit. The given
+   * buffer's position is not modified.
+   */
+  public BinaryPlanReader(PlanRegistry registry, ByteBuffer buffer) {
+    this.registry = registry;
+    this.source = new ByteBufferSource(buffer.duplicate().order(ByteOrder.BIG_ENDIAN));
+  }
+
+  /**
+   * Creates a reader that consumes the given stream. The caller remains responsible for closing
+   * the stream.
+   */
+  public BinaryPlanReader(PlanRegistry registry, InputStream in) {
+    this.registry = registry;
+    this.source = new StreamSource(in);
+  }
+
+  /**
+   * Reads a list of plans written by {@link BinaryPlanWriter#writePlans(List)}. Plans with an
+   * unknown id are omitted from the result.
+   */
+  public <T> List<Plan<T>> readPlans() throws IOException {
+    int count = readVarInt();
+    checkLength(count, MIN_RECORD_BYTES);
+    List<Plan<T>> plans = new ArrayList<>(Math.min(count, MAX_UNCHECKED_ELEMENTS));
+    for (int i = 0; i < count; i++) {
+      Plan<T> plan = readPlan();
+      if (plan != null) {
+        plans.add(plan);
+      }
+    }
+    return plans;
+  }
+
+  /**
+   * Reads a single plan record written by {@link BinaryPlanWriter#writePlan(Plan)}.
+   *
+   * @return The decoded plan, or null if the record's id is not registered.
+   */
+  @Nullable
+  public <T> Plan<T> readPlan() throws IOException {
+    int id = readVarInt();
+    int version = readVarInt();
+    int length = readInt();
+    if (length < 0) {
+      throw new IOException("Corrupt plan record with length " + length + ".");
+    }
+    long end = source.position() + length;
+
+    Plan<T> plan = registry.newPlan(id);
+    if (plan != null) {
+      if (!(plan instanceof BinarySerializablePlan)) {
+        throw new IOException(
+          plan.getClass().getName() + " does not implement BinarySerializablePlan.");
+      }
+      ((BinarySerializablePlan) plan).fromBinary(this, version);
+    }
+
+    long remaining = end - source.position();
+    if (remaining < 0) {
+      throw new IOException("Plan with id " + id + " read past the end of its record.");
+    }
+    source.skip(remaining);
+    return plan;
+  }
+
+  /**
+   * @return Whether there are more bytes to read.
+   */
+  public boolean hasRemaining() throws IOException {
+    return source.hasRemaining();
+  }
+
+  /**
+   * @return The number of bytes consumed so far.
+   */
+  public long position() {
+    return source.position();
+  }
+
+  public boolean readBoolean() throws IOException {
+    return source.readByte() != 0;
+  }
+
+  public byte readByte() throws IOException {
+    return source.readByte();
+  }
+
+  public int readInt() throws IOException {
+    return source.readInt();
+  }
+
+  /**
+   * Reads an int written by {@link BinaryPlanWriter#writeVarInt(int)}.
+   */
+  public int readVarInt() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte b = source.readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed var int.");
+  }
+
+  public long readLong() throws IOException {
+    long high = source.readInt();
+    long low = source.readInt() & 0xFFFFFFFFL;
+    return (high << 32) | low;
+  }
+
+  public float readFloat() throws IOException {
+    return Float.intBitsToFloat(source.readInt());
+  }
+
+  public double readDouble() throws IOException {
+    return Double.longBitsToDouble(readLong());
+  }
+
+  /**
+   * Reads a nullable string written by {@link BinaryPlanWriter#writeString(String)}.
+   */
+  @Nullable
+  public String readString() throws IOException {
+    // the length is written one larger, so that 0 means null
+    int length = readVarInt() - 1;
+    if (length == -1) {
+      return null;
+    }
+    checkLength(length, 1);
+    return new String(readBytes(length), UTF_8);
+  }
+
+  public float[] readFloatArray() throws IOException {
+    int length = readVarInt();
+    checkLength(length, 4);
+    float[] values = new float[initialCapacity(length)];
+    for (int i = 0; i < length; i++) {
+      if (i == values.length) {
+        values = Arrays.copyOf(values, Math.min(length, i * 2));
+      }
+      values[i] = Float.intBitsToFloat(source.readInt());
+    }
+    return values;
+  }
+
+  private byte[] readBytes(int length) throws IOException {
+    byte[] bytes = new byte[initialCapacity(length)];
+    source.readFully(bytes);
+    while (bytes.length < length) {
+      int read = bytes.length;
+      bytes = Arrays.copyOf(bytes, Math.min(length, read * 2));
+      byte[] chunk = new byte[bytes.length - read];
+      source.readFully(chunk);
+      System.arraycopy(chunk, 0, bytes, read, chunk.length);
+    }
+    return bytes;
+  }
+
+  /**
+   * Throws if a length read from the input is negative, or longer than the remaining bytes.
+   */
+  private void checkLength(int length, int elementBytes) throws IOException {
+    if (length < 0) {
+      throw new IOException("Corrupt length " + length + ".");
+    }
+    long remaining = source.remaining();
+    if (remaining >= 0 && (long) length * elementBytes > remaining) {
+      throw new IOException(
+        "Length " + length + " exceeds the " + remaining + " remaining bytes.");
+    }
+  }
+
+  /**
+   * @return The capacity to allocate for a checked length. Lengths read from a stream can not be
+   * checked against its size, so they are not trusted with a large allocation.
+   */
+  private int initialCapacity(int length) {
+    return source.remaining() >= 0 ? length : Math.min(length, MAX_UNCHECKED_ELEMENTS);
+  }
+
+  public void readFully(byte[] bytes) throws IOException {
+    source.readFully(bytes);
+  }
+
+  /**
+   * Skips over the given number of bytes.
+   */
+  public void skip(long count) throws IOException {
+    source.skip(count);
+  }
+
+  /**
+   * A source of big-endian bytes that tracks how many bytes it has consumed.
+   */
+  private abstract static class Source {
+
+    abstract byte readByte() throws IOException;
+
+    abstract int readInt() throws IOException;
+
+    abstract void readFully(byte[] bytes) throws IOException;
+
+    abstract void skip(long count) throws IOException;
+
+    abstract boolean hasRemaining() throws IOException;
+
+    /**
+     * @return The number of bytes left, or -1 if it is unknown.
+     */
+    abstract long remaining();
+
+    abstract long position();
+  }
+
+  private static class ByteBufferSource extends Source {
+
+    private final ByteBuffer buffer;
+    private final int start;
+
+    ByteBufferSource(ByteBuffer buffer) {
+      this.buffer = buffer;
+      this.start = buffer.position();
+    }
+
+    @Override
+    byte readByte() throws IOException {
+      try {
+        return buffer.get();
+      } catch (BufferUnderflowException e) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    int readInt() throws IOException {
+      try {
+        return buffer.getInt();
+      } catch (BufferUnderflowException e) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    void readFully(byte[] bytes) throws IOException {
+      try {
+        buffer.get(bytes);
+      } catch (BufferUnderflowException e) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    void skip(long count) throws IOException {
+      if (count > buffer.remaining()) {
+        throw new EOFException();
+      }
+      buffer.position(buffer.position() + (int) count);
+    }
+
+    @Override
+    boolean hasRemaining() {
+      return buffer.hasRemaining();
+    }
+
+    @Override
+    long remaining() {
+      return buffer.remaining();
+    }
+
+    @Override
+    long position() {
+      return buffer.position() - start;
+    }
+  }
+
+  private static class StreamSource extends Source {
+
+    private final InputStream in;
+    private long position;
+
+    StreamSource(InputStream in) {
+      this.in = in.markSupported() ? in : new BufferedInputStream(in);
+    }
+
+    @Override
+    byte readByte() throws IOException {
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException();
+      }
+      position++;
+      return (byte) b;
+    }
+
+    @Override
+    int readInt() throws IOException {
+      int b1 = in.read();
+      int b2 = in.read();
+      int b3 = in.read();
+      int b4 = in.read();
+      if ((b1 | b2 | b3 | b4) < 0) {
+        throw new EOFException();
+      }
+      position += 4;
+      return (b1 << 24) | (b2 << 16) | (b3 << 8) | b4;
+    }
+
+    @Override
+    void readFully(byte[] bytes) throws IOException {
+      int offset = 0;
+      while (offset < bytes.length) {
+        int read = in.read(bytes, offset, bytes.length - offset);
+        if (read < 0) {
+          throw new EOFException();
+        }
+        offset += read;
+      }
+      position += bytes.length;
+    }
+
+    @Override
+    void skip(long count) throws IOException {
+      long remaining = count;
+      while (remaining > 0) {
+        long skipped = in.skip(remaining);
+        if (skipped <= 0) {
+          if (in.read() < 0) {
+            throw new EOFException();
+          }
+          skipped = 1;
+        }
+        remaining -= skipped;
+      }
+      position += count;
+    }
+
+    @Override
+    boolean hasRemaining() throws IOException {
+      in.mark(1);
+      int b = in.read();
+      in.reset();
+      return b >= 0;
+    }
+
+    @Override
+    long remaining() {
+      return -1;
+    }
+
+    @Override
+    long position() {
+      return position;
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.PlanFeatures.BinarySerializablePlan;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes {@link BinarySerializablePlan Plans} into the compact binary format read by {@link
+ * BinaryPlanReader}.
+ * <p>
+ * Each plan is written as a record of its registered id, its {@link
+ * BinarySerializablePlan#getBinaryVersion() version}, the length of its fields and the fields
+ * themselves. All multi-byte values are big-endian.
+ */
+public class BinaryPlanWriter {
+
+  static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private final PlanRegistry registry;
+
+  private byte[] buffer = new byte[INITIAL_CAPACITY];
+  private int size;
+
+  public BinaryPlanWriter(PlanRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Writes a list of plans, prefixed by its size. Read it back with {@link
+   * BinaryPlanReader#readPlans()}.
+   */
+  public void writePlans(List<? extends Plan<?>> plans) throws IOException {
+    writeVarInt(plans.size());
+    for (int i = 0, count = plans.size(); i < count; i++) {
+      writePlan(plans.get(i));
+    }
+  }
+
+  /**
+   * Writes a single plan record. Read it back with {@link BinaryPlanReader#readPlan()}.
+   *
+   * @param plan a plan that implements {@link BinarySerializablePlan} and whose class was
+   * registered with this writer's {@link PlanRegistry}.
+   */
+  public void writePlan(Plan<?> plan) throws IOException {
+    if (!(plan instanceof BinarySerializablePlan)) {
+      throw new IllegalArgumentException(
+        plan.getClass().getName() + " does not implement BinarySerializablePlan.");
+    }
+    int id = registry.getId(plan.getClass());
+    if (id < 0) {
+      throw new IllegalArgumentException(
+        plan.getClass().getName() + " is not registered with the PlanRegistry.");
+    }
+    BinarySerializablePlan serializablePlan = (BinarySerializablePlan) plan;
+
+    writeVarInt(id);
+    writeVarInt(serializablePlan.getBinaryVersion());
+
+    // Reserve the length and fill it in once the fields have been written.
+    int lengthPosition = size;
+    writeInt(0);
+    serializablePlan.toBinary(this);
+    int length = size - lengthPosition - 4;
+    putInt(lengthPosition, length);
+  }
+
+  public void writeBoolean(boolean value) {
+    writeByte(value ? 1 : 0);
+  }
+
+  public void writeByte(int value) {
+    ensureCapacity(1);
+    buffer[size++] = (byte) value;
+  }
+
+  public void writeInt(int value) {
+    ensureCapacity(4);
+    putInt(size, value);
+    size += 4;
+  }
+
+  /**
+   * Writes a non-negative int in as few bytes as possible.
+   */
+  public void writeVarInt(int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Var ints must be non-negative.");
+    }
+    ensureCapacity(5);
+    while ((value & ~0x7F) != 0) {
+      buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[size++] = (byte) value;
+  }
+
+  public void writeLong(long value) {
+    writeInt((int) (value >>> 32));
+    writeInt((int) value);
+  }
+
+  public void writeFloat(float value) {
+    writeInt(Float.floatToIntBits(value));
+  }
+
+  public void writeDouble(double value) {
+    writeLong(Double.doubleToLongBits(value));
+  }
+
+  /**
+   * Writes a nullable string as UTF-8.
+   */
+  public void writeString(String value) {
+    if (value == null) {
+      writeVarInt(0);
+      return;
+    }
+    byte[] bytes = value.getBytes(UTF_8);
+    writeVarInt(bytes.length + 1);
+    writeBytes(bytes, 0, bytes.length);
+  }
+
+  public void writeFloatArray(float[] values) {
+    writeVarInt(values.length);
+    ensureCapacity(values.length * 4);
+    for (float value : values) {
+      putInt(size, Float.floatToIntBits(value));
+      size += 4;
+    }
+  }
+
+  public void writeBytes(byte[] bytes, int offset, int length) {
+    ensureCapacity(length);
+    System.arraycopy(bytes, offset, buffer, size, length);
+    size += length;
+  }
+
+  /**
+   * @return The number of bytes written so far.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Discards everything written so far so that this writer can be reused.
+   */
+  public void reset() {
+    size = 0;
+  }
+
+  /**
+   * @return A copy of the bytes written so far.
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buffer, size);
+  }
+
+  /**
+   * Copies the bytes written so far to the given stream.
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(buffer, 0, size);
+  }
+
+  private void putInt(int position, int value) {
+    buffer[position] = (byte) (value >>> 24);
+    buffer[position + 1] = (byte) (value >>> 16);
+    buffer[position + 2] = (byte) (value >>> 8);
+    buffer[position + 3] = (byte) value;
+  }
+
+  private void ensureCapacity(int extra) {
+    int required = size + extra;
+    if (required > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import android.support.v4.util.SimpleArrayMap;
+
+import com.google.android.material.motion.runtime.Performer.PerformerInstantiationException;
+import com.google.android.material.motion.runtime.PerformerFeatures.ComposablePerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.ComposablePerforming.BulkPlanEmitter;
+import com.google.android.material.motion.runtime.PerformerFeatures.ContinuousPerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.ManualPerforming;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A plan tree compiled into a flat list of commit operations, each pairing a primitive plan with
+ * the class of the performer that executes it.
+ * <p>
+ * Compiling expands every plan whose performer is {@link ComposablePerforming}, and neither
+ * {@link ManualPerforming} nor {@link ContinuousPerforming}, into the plans it emits, recursively.
+ * {@link MotionRuntime#addProgram(CommitProgram, Object)} then commits the remaining primitive
+ * plans directly, so the composite performers are never created on any target and the tree is
+ * expanded only once however many targets it is added to.
+ * <p>
+ * The composite performers used while compiling are initialized with a null target, so they must
+ * not use their target when expanding a plan, and the plans they emit must depend on nothing but
+ * the plans they are given. A program is immutable and may be added to any number of targets and
+ * runtimes.
+ *
+ * @param <T> The type of target the program's plans can be applied to.
+ */
+public final class CommitProgram<T> {
+
+  private final Class<?>[] performerClasses;
+  private final int[] performerClassIds;
+  private final Plan<?>[] plans;
+
+  private CommitProgram(Class<?>[] performerClasses, Plan<?>[] plans) {
+    this.performerClasses = performerClasses;
+    this.plans = plans;
+    performerClassIds = new int[performerClasses.length];
+    for (int i = 0; i < performerClasses.length; i++) {
+      performerClassIds[i] = MotionRuntime.getPerformerClassId(performerClasses[i]);
+    }
+  }
+
+  /**
+   * Compiles a plan tree into a program.
+   *
+   * @param plan the root {@link Plan} of the tree. It is copied, as by {@link
+   * MotionRuntime#addPlan(Plan, Object)}.
+   * @throws IllegalStateException if the tree is nested deeper than {@link
+   * MotionRuntime#DEFAULT_MAX_EMIT_DEPTH}.
+   */
+  public static <T> CommitProgram<T> compile(Plan<T> plan) {
+    Compiler<T> compiler = new Compiler<>();
+    compiler.expand(MotionRuntime.copyForCommit(plan));
+
+    int count = compiler.plans.size();
+    return new CommitProgram<>(
+      compiler.performerClasses.toArray(new Class<?>[count]),
+      compiler.plans.toArray(new Plan<?>[count]));
+  }
+
+  /**
+   * @return The number of commit operations in the program.
+   */
+  public int size() {
+    return plans.length;
+  }
+
+  Class<? extends Performer<T>> getPerformerClass(int index) {
+    //noinspection unchecked
+    return (Class<? extends Performer<T>>) performerClasses[index];
+  }
+
+  int getPerformerClassId(int index) {
+    return performerClassIds[index];
+  }
+
+  Plan<T> getPlan(int index) {
+    //noinspection unchecked
+    return (Plan<T>) plans[index];
+  }
+
+  /**
+   * Expands plans through detached composite performers, recording the primitive plans.
+   */
+  private static final class Compiler<T> {
+
+    private final List<Class<?>> performerClasses = new ArrayList<>();
+    private final List<Plan<?>> plans = new ArrayList<>();
+    private final SimpleArrayMap<Class<?>, Performer<T>> compositePerformers =
+      new SimpleArrayMap<>();
+    private int depth;
+
+    private void expand(Plan<T> plan) {
+      Class<? extends Performer<T>> performerClass = plan.getPerformerClass();
+      if (!TargetScope.onlyEmitsPlans(performerClass)) {
+        performerClasses.add(performerClass);
+        plans.add(plan);
+        return;
+      }
+
+      if (depth >= MotionRuntime.DEFAULT_MAX_EMIT_DEPTH) {
+        throw new IllegalStateException(
+          "Plan tree exceeded the maximum depth of " + MotionRuntime.DEFAULT_MAX_EMIT_DEPTH
+            + ". Do composable performers emit each other's plans in a cycle?");
+      }
+      Performer<T> performer = getCompositePerformer(performerClass);
+      depth++;
+      try {
+        performer.addPlan(plan);
+      } finally {
+        depth--;
+      }
+    }
+
+    private Performer<T> getCompositePerformer(Class<? extends Performer<T>> performerClass) {
+      Performer<T> performer = compositePerformers.get(performerClass);
+      if (performer != null) {
+        return performer;
+      }
+
+      //noinspection TryWithIdenticalCatches
+      try {
+        performer = performerClass.newInstance();
+      } catch (InstantiationException e) {
+        throw new PerformerInstantiationException(performerClass, e);
+      } catch (IllegalAccessException e) {
+        throw new PerformerInstantiationException(performerClass, e);
+      }
+      performer.initialize(null);
+
+      //noinspection unchecked
+      ((ComposablePerforming<T>) performer).setPlanEmitter(new BulkPlanEmitter<T>() {
+        @Override
+        public void emit(Plan<T> plan) {
+          expand(plan);
+        }
+
+        @Override
+        public void emitAll(Collection<? extends Plan<T>> plans) {
+          for (Plan<T> plan : plans) {
+            expand(plan);
+          }
+        }
+      });
+
+      compositePerformers.put(performerClass, performer);
+      return performer;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.MotionRuntime.State;
+import com.google.android.material.motion.runtime.PerformerFeatures.ComponentPerforming;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * The active {@link ComponentPerforming} performers of one performer class, stored densely so
+ * that the whole class is updated in a single pass.
+ */
+final class ComponentStore {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private ComponentPerforming[] performers = new ComponentPerforming[INITIAL_CAPACITY];
+  private TargetScope[] scopes = new TargetScope[INITIAL_CAPACITY];
+  private int count;
+  private final IdentityHashMap<ComponentPerforming, Integer> indices = new IdentityHashMap<>();
+
+  /**
+   * Whether {@link #update(float)} is iterating. Removed performers then leave a gap, which is
+   * closed once the iteration is done.
+   */
+  private boolean updating;
+  private boolean hasGaps;
+
+  /**
+   * Adds an active performer and the scope it belongs to.
+   *
+   * @return Whether the performer was added, rather than already present.
+   */
+  boolean add(ComponentPerforming performer, TargetScope scope) {
+    if (indices.containsKey(performer)) {
+      return false;
+    }
+    if (count == performers.length) {
+      performers = Arrays.copyOf(performers, count * 2);
+      scopes = Arrays.copyOf(scopes, count * 2);
+    }
+    performers[count] = performer;
+    scopes[count] = scope;
+    indices.put(performer, count);
+    count++;
+    return true;
+  }
+
+  /**
+   * Removes a performer.
+   *
+   * @return Whether the performer was present.
+   */
+  boolean remove(ComponentPerforming performer) {
+    Integer index = indices.remove(performer);
+    if (index == null) {
+      return false;
+    }
+    if (updating) {
+      performers[index] = null;
+      scopes[index] = null;
+      hasGaps = true;
+      return true;
+    }
+
+    int last = count - 1;
+    if (index != last) {
+      performers[index] = performers[last];
+      scopes[index] = scopes[last];
+      indices.put(performers[index], index);
+    }
+    performers[last] = null;
+    scopes[last] = null;
+    count--;
+    return true;
+  }
+
+  /**
+   * Updates every performer whose scope is attached. Performers that become idle are removed, and
+   * their scopes notified. Performers added during the update are first updated on the next
+   * frame.
+   */
+  void update(float deltaTimeMs) {
+    updating = true;
+    try {
+      for (int i = 0, updateCount = count; i < updateCount; i++) {
+        ComponentPerforming performer = performers[i];
+        if (performer == null || scopes[i].detached) {
+          continue;
+        }
+        @State int state = performer.update(deltaTimeMs);
+        if (state == MotionRuntime.IDLE && performers[i] == performer) {
+          TargetScope scope = scopes[i];
+          indices.remove(performer);
+          performers[i] = null;
+          scopes[i] = null;
+          hasGaps = true;
+          scope.onComponentIdle();
+        }
+      }
+    } finally {
+      updating = false;
+    }
+
+    if (hasGaps) {
+      compact();
+    }
+  }
+
+  /**
+   * Closes the gaps left by performers removed during {@link #update(float)}, keeping the order
+   * of the others.
+   */
+  private void compact() {
+    int size = 0;
+    for (int i = 0; i < count; i++) {
+      if (performers[i] != null) {
+        if (i != size) {
+          performers[size] = performers[i];
+          scopes[size] = scopes[i];
+          indices.put(performers[size], size);
+        }
+        size++;
+      }
+    }
+    Arrays.fill(performers, size, count, null);
+    Arrays.fill(scopes, size, count, null);
+    count = size;
+    hasGaps = false;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import android.support.annotation.Nullable;
+import android.support.v4.util.LruCache;
+
+import com.google.android.material.motion.runtime.PlanFeatures.CacheablePlan;
+
+import java.util.List;
+
+/**
+ * A bounded LRU cache of the plans that {@link CacheablePlan cacheable plans} expanded into,
+ * keyed by plan class and {@link CacheablePlan#getExpansionKey() expansion key}.
+ */
+final class ExpansionCache {
+
+  private final LruCache<Key, List<Plan<?>>> cache;
+
+  ExpansionCache(int maxSize) {
+    cache = new LruCache<>(maxSize);
+  }
+
+  /**
+   * @return The cached expansion of the plan, or null if it has not been cached.
+   */
+  @Nullable
+  <T> List<Plan<T>> get(Plan<T> plan) {
+    //noinspection unchecked
+    return (List<Plan<T>>) (List<?>) cache.get(new Key(plan));
+  }
+
+  /**
+   * Caches the expansion of the plan.
+   */
+  <T> void put(Plan<T> plan, List<Plan<T>> expansion) {
+    //noinspection unchecked
+    cache.put(new Key(plan), (List<Plan<?>>) (List<?>) expansion);
+  }
+
+  int hitCount() {
+    return cache.hitCount();
+  }
+
+  int missCount() {
+    return cache.missCount();
+  }
+
+  void evictAll() {
+    cache.evictAll();
+  }
+
+  private static final class Key {
+
+    private final Class<?> planClass;
+    private final Object expansionKey;
+
+    private Key(Plan<?> plan) {
+      this.planClass = plan.getClass();
+      this.expansionKey = ((CacheablePlan) plan).getExpansionKey();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return planClass == key.planClass && expansionKey.equals(key.expansionKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * planClass.hashCode() + expansionKey.hashCode();
+    }
+  }
+}
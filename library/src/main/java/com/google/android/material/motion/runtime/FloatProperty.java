@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+/**
+ * A float-valued property of a target, such as a View's translation or alpha, that performers
+ * read and write without boxing.
+ * <p>
+ * Properties are compared by identity, so declare each one once, for example as a constant.
+ *
+ * @param <T> The type of target that has this property.
+ */
+public abstract class FloatProperty<T> {
+
+  private final String name;
+
+  public FloatProperty(String name) {
+    this.name = name;
+  }
+
+  /**
+   * @return The name of this property, for debugging.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return The current value of this property on the target.
+   */
+  public abstract float get(T target);
+
+  /**
+   * Sets the value of this property on the target.
+   */
+  public abstract void set(T target, float value);
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -21,7 +21,7 @@ import android.util.Log;
 /**
  * An implementation of {@link Tracing} which logs directly to logcat.
  */
-public class LogcatTracer implements Tracing {
+public class LogcatTracer implements TargetTracing {
 
   private static final String TAG = "LogcatTracer";
 
@@ -44,4 +44,9 @@ public class LogcatTracer implements Tracing {
   public void onCreatePerformer(Performer performer, Object target) {
     Log.v(TAG, String.format("didCreatePerformer: %s for: %s", performer, target));
   }
+
+  @Override
+  public void onRemoveTarget(Object target) {
+    Log.v(TAG, String.format("didRemoveTarget: %s", target));
+  }
 }
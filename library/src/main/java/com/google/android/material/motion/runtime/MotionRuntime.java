@@ -17,19 +17,37 @@
 package com.google.android.material.motion.runtime;
 
 import android.support.annotation.IntDef;
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 import android.support.v4.util.SimpleArrayMap;
 import android.util.Log;
+import android.util.SparseArray;
 
 import com.google.android.material.motion.runtime.ChoreographerCompat.FrameCallback;
+import com.google.android.material.motion.runtime.Performer.PerformerInstantiationException;
+import com.google.android.material.motion.runtime.PerformerFeatures.ComponentPerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.ComposablePerforming.PlanEmitter;
 import com.google.android.material.motion.runtime.PerformerFeatures.ContinuousPerforming;
 import com.google.android.material.motion.runtime.PerformerFeatures.ManualPerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.RecyclablePerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.StatefulPerforming;
+import com.google.android.material.motion.runtime.PlanFeatures.CacheablePlan;
+import com.google.android.material.motion.runtime.PlanFeatures.ImmutablePlan;
 
+import java.io.IOException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
@@ -96,19 +114,103 @@ public class MotionRuntime {
    */
   static final int CONTINUOUS_DETAILED_STATE_FLAG = 1 << 1;
 
+  /**
+   * The default maximum depth of nested {@link PlanEmitter plan emissions}.
+   */
+  public static final int DEFAULT_MAX_EMIT_DEPTH = 32;
+
+  /**
+   * The default number of {@link CacheablePlan} expansions kept by the runtime.
+   */
+  public static final int DEFAULT_EXPANSION_CACHE_SIZE = 64;
+
+  /**
+   * The default time spent committing {@link PlanBatch plan batches} per frame.
+   */
+  public static final float DEFAULT_BATCH_FRAME_BUDGET_MS = 4f;
+
+  /**
+   * The default number of stopped {@link RecyclablePerforming} performers pooled per class.
+   */
+  public static final int DEFAULT_PERFORMER_POOL_SIZE = 8;
+
+  /**
+   * The default number of detached stable keys kept by the runtime. See {@link
+   * #setDetachedKeyLimit(int)}.
+   */
+  public static final int DEFAULT_DETACHED_KEY_LIMIT = 32;
+
   @VisibleForTesting
   ChoreographerCompat choreographer = ChoreographerCompat.getInstance();
 
   private final CopyOnWriteArraySet<StateListener> listeners = new CopyOnWriteArraySet<>();
   private final ManualPerformingFrameCallback manualPerformingFrameCallback =
     new ManualPerformingFrameCallback();
+  private final BatchCommitFrameCallback batchCommitFrameCallback =
+    new BatchCommitFrameCallback();
 
-  private final SimpleArrayMap<Object, TargetScope> targets = new SimpleArrayMap<>();
+  /**
+   * Target scopes keyed by target identity. An identity table hashes in O(1) without calling the
+   * target's {@link Object#hashCode()} or {@link Object#equals(Object)}, which may be expensive or
+   * change as the target is mutated.
+   */
+  private final IdentityHashMap<Object, TargetScope> targets = new IdentityHashMap<>();
+  /**
+   * Target scopes bound to caller-supplied stable keys. See {@link #bindTarget(Object, Object)}.
+   */
+  private final HashMap<Object, TargetScope> keyedScopes = new HashMap<>();
+  /**
+   * The scopes of detached stable keys, least recently detached first.
+   */
+  private final LinkedHashSet<TargetScope> detachedScopes = new LinkedHashSet<>();
+  private int detachedKeyLimit = DEFAULT_DETACHED_KEY_LIMIT;
   private final Set<TargetScope> activeManualPerformerTargets = new HashSet<>();
   private final Set<TargetScope> activeContinuousPerformerTargets = new HashSet<>();
 
+  /**
+   * Scopes whose state changed while state changes were deferred. See {@link
+   * #beginDeferringStateChanges()}.
+   */
+  private final Set<TargetScope> pendingStateTargets = new LinkedHashSet<>();
+  private int deferStateChangesDepth;
+  private int detailedStateBeforeDeferral;
+
   private final List<Tracing> tracers = new ArrayList<>();
 
+  private int maxEmitDepth = DEFAULT_MAX_EMIT_DEPTH;
+  private int emitDepth;
+
+  @Nullable
+  private ExpansionCache expansionCache = new ExpansionCache(DEFAULT_EXPANSION_CACHE_SIZE);
+
+  private final ArrayDeque<PlanBatch> pendingBatches = new ArrayDeque<>();
+  private long batchFrameBudgetNanos = (long) (DEFAULT_BATCH_FRAME_BUDGET_MS * 1000000);
+
+  /**
+   * Dense ids for performer classes, assigned in the order the classes are first used by any
+   * runtime. They are shared by all runtimes so that a plan can cache the id of its performer
+   * class.
+   */
+  private static final IdentityHashMap<Class<?>, Integer> performerClassIds =
+    new IdentityHashMap<>();
+  /**
+   * Stopped {@link RecyclablePerforming} performers, keyed by performer class id.
+   */
+  private final SparseArray<ArrayDeque<Performer>> performerPools = new SparseArray<>();
+  private int performerPoolSize = DEFAULT_PERFORMER_POOL_SIZE;
+  /**
+   * The shared instance of each {@link BatchPerformer} class, keyed by performer class id.
+   */
+  private final SparseArray<BatchPerformer> batchPerformers = new SparseArray<>();
+  private int activeBatchPerformerCount;
+  /**
+   * The active {@link ComponentPerforming} performers of each class, keyed by performer class id.
+   */
+  private final SparseArray<ComponentStore> componentStores = new SparseArray<>();
+
+  private final SimpleArrayMap<String, Integer> nameHandles = new SimpleArrayMap<>();
+  private final List<String> internedNames = new ArrayList<>();
+
   /**
    * @return The current {@link State} of the runtime.
    */
@@ -125,7 +227,7 @@ public class MotionRuntime {
    */
   private int getDetailedState() {
     int state = 0;
-    if (!activeManualPerformerTargets.isEmpty()) {
+    if (!activeManualPerformerTargets.isEmpty() || activeBatchPerformerCount > 0) {
       state |= MANUAL_DETAILED_STATE_FLAG;
     }
     if (!activeContinuousPerformerTargets.isEmpty()) {
@@ -158,13 +260,153 @@ public class MotionRuntime {
    * @param <T> The type of target this plan can be applied to.
    */
   public <T> void addPlan(Plan<T> plan, T target) {
-    getTargetScope(target).commitPlan(plan.clone(), target);
+    getTargetScope(target).commitPlan(copyForCommit(plan), target);
+  }
+
+  /**
+   * Adds a plan to the runtime for each of the targets. This is equivalent to calling {@link
+   * #addPlan(Plan, Object)} for each target, except that the runtime's {@link State} changes at
+   * most once, and that an {@link ImmutablePlan} is shared by all targets instead of being
+   * copied for each.
+   *
+   * @param plan the {@link Plan} to add to the runtime.
+   * @param targets the targets on which the plan will operate.
+   * @param <T> The type of target this plan can be applied to.
+   */
+  public <T> void addPlanToAll(Plan<T> plan, Collection<? extends T> targets) {
+    beginDeferringStateChanges();
+    try {
+      for (T target : targets) {
+        getTargetScope(target).commitPlan(copyForCommit(plan), target);
+      }
+    } finally {
+      endDeferringStateChanges();
+    }
+  }
+
+  /**
+   * Adds the primitive plans of a compiled plan tree to the runtime, in the order in which they
+   * were emitted. This is equivalent to adding the tree's root plan, except that no composite
+   * performers are created and {@link Tracing tracers} are only notified of the primitive plans.
+   *
+   * @param program the {@link CommitProgram} to add to the runtime.
+   * @param target the target on which the program's plans will operate.
+   * @param <T> The type of target the program's plans can be applied to.
+   * @see CommitProgram#compile(Plan)
+   */
+  public <T> void addProgram(CommitProgram<T> program, T target) {
+    getTargetScope(target).commitProgram(program, target);
+  }
+
+  /**
+   * Adds a batch of plans to the runtime. As many plans as fit in {@link
+   * #setBatchFrameBudgetMs(float) the frame budget} are committed immediately, and the rest on
+   * the following frames.
+   *
+   * @param batch the {@link PlanBatch} to add to the runtime.
+   * @throws IllegalStateException if the batch was already added to a runtime.
+   */
+  public void addBatch(PlanBatch batch) {
+    batch.markAdded();
+    boolean idle = pendingBatches.isEmpty();
+    pendingBatches.add(batch);
+    if (idle) {
+      commitPendingBatches();
+    }
+  }
+
+  /**
+   * Sets the time spent committing {@link PlanBatch plan batches} per frame. At least one plan is
+   * committed per frame, however small the budget.
+   */
+  public void setBatchFrameBudgetMs(float budgetMs) {
+    if (budgetMs < 0) {
+      throw new IllegalArgumentException("The batch frame budget must not be negative.");
+    }
+    batchFrameBudgetNanos = (long) (budgetMs * 1000000);
+  }
+
+  /**
+   * Commits pending batches in order until they are done or the frame budget is spent, then
+   * schedules the remainder for the next frame.
+   */
+  private void commitPendingBatches() {
+    long deadlineNanos = System.nanoTime() + batchFrameBudgetNanos;
+    List<PlanBatch> committedBatches = null;
+    boolean committedAny = false;
+
+    beginDeferringStateChanges();
+    try {
+      while (!pendingBatches.isEmpty()) {
+        PlanBatch batch = pendingBatches.peek();
+        while (batch.hasRemaining()) {
+          if (committedAny && System.nanoTime() >= deadlineNanos) {
+            choreographer.postFrameCallback(batchCommitFrameCallback);
+            return;
+          }
+          commitNextOrDrop(batch);
+          committedAny = true;
+        }
+
+        pendingBatches.poll();
+        if (!batch.isCancelled()) {
+          if (committedBatches == null) {
+            committedBatches = new ArrayList<>();
+          }
+          committedBatches.add(batch);
+        }
+      }
+    } finally {
+      endDeferringStateChanges();
+
+      if (committedBatches != null) {
+        for (PlanBatch batch : committedBatches) {
+          batch.notifyCommitted();
+        }
+      }
+    }
+  }
+
+  /**
+   * Commits the next plan of the batch at the head of the pending queue. If that throws, the
+   * batch is cancelled and dropped so that the batches queued behind it are still committed.
+   */
+  private void commitNextOrDrop(PlanBatch batch) {
+    boolean committed = false;
+    try {
+      batch.commitNext(this);
+      committed = true;
+    } finally {
+      if (!committed) {
+        batch.cancel();
+        pendingBatches.poll();
+        if (!pendingBatches.isEmpty()) {
+          choreographer.postFrameCallback(batchCommitFrameCallback);
+        }
+      }
+    }
+  }
+
+  void commitBatchEntry(Plan<?> plan, @Nullable String name, Object target) {
+    TargetScope<Object> targetScope = getTargetScope(target);
+    if (name == null) {
+      //noinspection unchecked
+      targetScope.commitPlan((Plan<Object>) plan, target);
+    } else {
+      //noinspection unchecked
+      targetScope.commitAddNamedPlan((NamedPlan<Object>) plan, name, target);
+    }
   }
 
   /**
    * Adds a {@link NamedPlan} to the runtime. When this method is invoked, a {@link NamedPlan}
    * with the same name and target is removed from the runtime before the plan is eventually
    * added.
+   * <p>
+   * If both plans are fulfilled by the same {@link NamedPerformer}, the old plan is instead
+   * replaced through {@link NamedPerformer#replacePlan(NamedPlan, String)}. If the plans are
+   * {@link Object#equals(Object) equal}, nothing happens. Plans that are re-added often, such as
+   * on every drag event, should implement {@link Object#equals(Object)} to benefit from this.
    *
    * @param plan the {@link NamedPlan} to add to the runtime.
    * @param name the name by which this plan can be identified.
@@ -172,10 +414,64 @@ public class MotionRuntime {
    * @param <T> The type of target this plan can be applied to.
    */
   public <T> void addNamedPlan(NamedPlan<T> plan, String name, T target) {
-    if (name == null || name.isEmpty()) {
-      throw new IllegalArgumentException("A NamedPlan must have a non-empty name.");
+    checkName(name);
+    getTargetScope(target).commitAddNamedPlan(copyForCommit(plan), name, target);
+  }
+
+  /**
+   * Adds a {@link NamedPlan} to the runtime, identified by a handle returned from {@link
+   * #internName(String)}. Behaves exactly like {@link #addNamedPlan(NamedPlan, String, Object)}
+   * without looking up the name.
+   *
+   * @param plan the {@link NamedPlan} to add to the runtime.
+   * @param nameHandle the handle of the name by which this plan can be identified.
+   * @param target the target on which the plan will operate.
+   * @param <T> The type of target this plan can be applied to.
+   */
+  public <T> void addNamedPlan(NamedPlan<T> plan, int nameHandle, T target) {
+    checkNameHandle(nameHandle);
+    getTargetScope(target).commitAddNamedPlan(copyForCommit(plan), nameHandle, target);
+  }
+
+  /**
+   * Adds a {@link NamedPlan} to the runtime for each of the targets. This is equivalent to
+   * calling {@link #addNamedPlan(NamedPlan, String, Object)} for each target, except that the
+   * runtime's {@link State} changes at most once, and that an {@link ImmutablePlan} is shared by
+   * all targets instead of being copied for each.
+   *
+   * @param plan the {@link NamedPlan} to add to the runtime.
+   * @param name the name by which this plan can be identified.
+   * @param targets the targets on which the plan will operate.
+   * @param <T> The type of target this plan can be applied to.
+   */
+  public <T> void addNamedPlanToAll(
+    NamedPlan<T> plan, String name, Collection<? extends T> targets) {
+    checkName(name);
+    beginDeferringStateChanges();
+    try {
+      for (T target : targets) {
+        getTargetScope(target).commitAddNamedPlan(copyForCommit(plan), name, target);
+      }
+    } finally {
+      endDeferringStateChanges();
     }
-    getTargetScope(target).commitAddNamedPlan(plan.clone(), name, target);
+  }
+
+  /**
+   * @return A copy of the plan to commit, or the plan itself if it is an {@link ImmutablePlan}.
+   */
+  static <T> Plan<T> copyForCommit(Plan<T> plan) {
+    // cached on the original first, so that its copies need no lookup
+    getPerformerClassId(plan);
+    return plan instanceof ImmutablePlan ? plan : plan.clone();
+  }
+
+  /**
+   * @return A copy of the plan to commit, or the plan itself if it is an {@link ImmutablePlan}.
+   */
+  static <T> NamedPlan<T> copyForCommit(NamedPlan<T> plan) {
+    getPerformerClassId(plan);
+    return plan instanceof ImmutablePlan ? plan : plan.clone();
   }
 
   /**
@@ -186,10 +482,344 @@ public class MotionRuntime {
    * @param <T> The type of target this plan can be applied to.
    */
   public <T> void removeNamedPlan(String name, T target) {
+    checkName(name);
+    //noinspection unchecked
+    TargetScope<T> targetScope = targets.get(target);
+    if (targetScope != null) {
+      targetScope.commitRemoveNamedPlan(name, target);
+    }
+  }
+
+  /**
+   * Removes a {@link NamedPlan} from the runtime, identified by a handle returned from {@link
+   * #internName(String)}.
+   *
+   * @param nameHandle the handle of the name by which the named plan can be identified.
+   * @param target the target on which the named plan was added.
+   * @param <T> The type of target this plan can be applied to.
+   */
+  public <T> void removeNamedPlan(int nameHandle, T target) {
+    checkNameHandle(nameHandle);
+    //noinspection unchecked
+    TargetScope<T> targetScope = targets.get(target);
+    if (targetScope != null) {
+      targetScope.commitRemoveNamedPlan(nameHandle, target);
+    }
+  }
+
+  /**
+   * Interns a {@link NamedPlan} name, returning a compact handle for it. Passing the handle to
+   * {@link #addNamedPlan(NamedPlan, int, Object)} and {@link #removeNamedPlan(int, Object)} avoids
+   * hashing and comparing the name on every commit.
+   * <p>
+   * Interning the same name always returns the same handle. Handles are only valid for the
+   * runtime that returned them. Interned names are never released, so only intern names from a
+   * bounded set. Names passed as strings to the other methods are not interned.
+   *
+   * @param name the name by which plans can be identified.
+   * @return The handle for the name.
+   */
+  public int internName(String name) {
+    checkName(name);
+    Integer nameHandle = nameHandles.get(name);
+    if (nameHandle == null) {
+      nameHandle = internedNames.size();
+      internedNames.add(name);
+      nameHandles.put(name, nameHandle);
+    }
+    return nameHandle;
+  }
+
+  /**
+   * @return The handle the name was interned to, or -1 if it has not been interned.
+   */
+  int findNameHandle(String name) {
+    Integer nameHandle = nameHandles.get(name);
+    return nameHandle == null ? -1 : nameHandle;
+  }
+
+  /**
+   * @return The name that was interned to the given handle.
+   */
+  String getInternedName(int nameHandle) {
+    return internedNames.get(nameHandle);
+  }
+
+  static void checkName(String name) {
     if (name == null || name.isEmpty()) {
       throw new IllegalArgumentException("A NamedPlan must have a non-empty name.");
     }
-    getTargetScope(target).commitRemoveNamedPlan(name, target);
+  }
+
+  private void checkNameHandle(int nameHandle) {
+    if (nameHandle < 0 || nameHandle >= internedNames.size()) {
+      throw new IllegalArgumentException("Unknown name handle " + nameHandle + ".");
+    }
+  }
+
+  /**
+   * Removes a target from the runtime. Its performers are {@link Performer#onTerminate()
+   * terminated}, its plans and is-active tokens are dropped, and the runtime no longer holds any
+   * reference to it. Adding a plan to the target afterwards starts over with a new scope.
+   *
+   * @param target the target to remove.
+   * @return Whether the runtime knew the target.
+   */
+  public <T> boolean removeTarget(T target) {
+    TargetScope targetScope = targets.remove(target);
+    if (targetScope == null) {
+      return false;
+    }
+    if (targetScope.key != null) {
+      keyedScopes.remove(targetScope.key);
+    }
+    targetScope.release();
+
+    // notify tracers
+    for (Tracing tracer : tracers) {
+      if (tracer instanceof TargetTracing) {
+        ((TargetTracing) tracer).onRemoveTarget(target);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Binds a target to a stable key, such as a list item's id, so that the target's plans and
+   * performers belong to the key rather than to the target object.
+   * <p>
+   * When a key is bound to a new target, its performers move to that target through {@link
+   * Performer#onTargetChanged(Object, Object)} and keep running, and plans added to the new
+   * target reach them. When the target was bound to another key before, that key is detached: its
+   * performers are suspended until the key is bound to a target again, or removed once more than
+   * {@link #setDetachedKeyLimit(int) the limit} of keys are detached. This keeps animations with
+   * their item when a RecyclerView rebinds its views.
+   * <p>
+   * If the key is new and the target already has plans, the target's scope becomes the key's.
+   * Otherwise any plans the target had without a key are removed, as by {@link
+   * #removeTarget(Object)}.
+   *
+   * @param key the stable key. Compared with {@link Object#equals(Object)}.
+   * @param target the target to bind to the key.
+   */
+  public <T> void bindTarget(Object key, T target) {
+    //noinspection unchecked
+    TargetScope<T> keyedScope = keyedScopes.get(key);
+    //noinspection unchecked
+    TargetScope<T> targetScope = targets.get(target);
+    if (keyedScope != null && keyedScope == targetScope) {
+      return;
+    }
+
+    if (targetScope != null) {
+      if (targetScope.key != null) {
+        // the target moves away from the key it was bound to
+        targets.remove(target);
+        targetScope.detach();
+        detachedScopes.add(targetScope);
+      } else if (keyedScope == null) {
+        // the target's scope becomes the key's
+        targetScope.key = key;
+        targetScope.boundTarget = target;
+        keyedScopes.put(key, targetScope);
+        return;
+      } else {
+        removeTarget(target);
+      }
+    }
+
+    if (keyedScope == null) {
+      keyedScope = new TargetScope<>(this);
+      keyedScope.key = key;
+      keyedScopes.put(key, keyedScope);
+    } else if (keyedScope.detached) {
+      detachedScopes.remove(keyedScope);
+    } else {
+      targets.remove(keyedScope.boundTarget);
+    }
+    targets.put(target, keyedScope);
+    keyedScope.attach(target);
+    trimDetachedScopes();
+  }
+
+  /**
+   * Detaches a stable key from its target, as happens when its target is bound to another key.
+   * The key's performers are suspended until it is bound to a target again, or removed once more
+   * than {@link #setDetachedKeyLimit(int) the limit} of keys are detached.
+   *
+   * @param key the stable key passed to {@link #bindTarget(Object, Object)}.
+   */
+  public void unbindTarget(Object key) {
+    TargetScope keyedScope = keyedScopes.get(key);
+    if (keyedScope != null && !keyedScope.detached) {
+      targets.remove(keyedScope.boundTarget);
+      keyedScope.detach();
+      detachedScopes.add(keyedScope);
+      trimDetachedScopes();
+    }
+  }
+
+  /**
+   * Sets the number of detached stable keys kept by the runtime. Once more keys are detached, the
+   * least recently detached keys are removed as by {@link #removeKey(Object)}, so that a long list
+   * does not keep a scope for every item it has shown. A limit of 0 removes keys as soon as they
+   * are detached.
+   */
+  public void setDetachedKeyLimit(int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("The detached key limit must not be negative.");
+    }
+    detachedKeyLimit = limit;
+    trimDetachedScopes();
+  }
+
+  private void trimDetachedScopes() {
+    while (detachedScopes.size() > detachedKeyLimit) {
+      Iterator<TargetScope> iterator = detachedScopes.iterator();
+      TargetScope detachedScope = iterator.next();
+      iterator.remove();
+      keyedScopes.remove(detachedScope.key);
+      detachedScope.release();
+    }
+  }
+
+  /**
+   * Removes a stable key and its plans and performers from the runtime, whether or not it is
+   * bound to a target. Performers are terminated as by {@link #removeTarget(Object)}.
+   *
+   * @param key the stable key passed to {@link #bindTarget(Object, Object)}.
+   * @return Whether the runtime knew the key.
+   */
+  public boolean removeKey(Object key) {
+    TargetScope keyedScope = keyedScopes.get(key);
+    if (keyedScope == null) {
+      return false;
+    }
+    if (!keyedScope.detached) {
+      return removeTarget(keyedScope.boundTarget);
+    }
+    keyedScopes.remove(key);
+    detachedScopes.remove(keyedScope);
+    keyedScope.release();
+    return true;
+  }
+
+  /**
+   * Removes each of the targets from the runtime, as by {@link #removeTarget(Object)}, changing
+   * the runtime's {@link State} at most once.
+   *
+   * @param targets the targets to remove.
+   */
+  public <T> void removeTargets(Collection<? extends T> targets) {
+    beginDeferringStateChanges();
+    try {
+      for (T target : targets) {
+        removeTarget(target);
+      }
+    } finally {
+      endDeferringStateChanges();
+    }
+  }
+
+  /**
+   * Terminates every performer of the given class on every target, dropping the named plans and
+   * is-active tokens they hold. Their targets are kept, and a later plan for the class creates a
+   * new performer.
+   *
+   * @param performerClass the class of the performers to terminate.
+   */
+  public void cancelPerformers(Class<? extends Performer> performerClass) {
+    int id = getPerformerClassId(performerClass);
+
+    // copied, since terminating performers may add targets
+    Object[] entries = targets.entrySet().toArray();
+    Object[] keyedScopes = this.keyedScopes.values().toArray();
+    beginDeferringStateChanges();
+    try {
+      for (Object entry : entries) {
+        //noinspection unchecked
+        Map.Entry<Object, TargetScope> targetEntry = (Map.Entry<Object, TargetScope>) entry;
+        //noinspection unchecked
+        targetEntry.getValue().cancelPerformer(id, targetEntry.getKey());
+      }
+      for (Object keyedScope : keyedScopes) {
+        TargetScope targetScope = (TargetScope) keyedScope;
+        if (targetScope.detached) {
+          //noinspection unchecked
+          targetScope.cancelPerformer(id, targetScope.boundTarget);
+        }
+      }
+    } finally {
+      endDeferringStateChanges();
+    }
+  }
+
+  /**
+   * Captures the named plans and {@link StatefulPerforming performer state} of the given targets
+   * into a compact snapshot. Restore it with {@link #restoreState(RuntimeSnapshot, Map,
+   * PlanRegistry)}, for example after a configuration change.
+   *
+   * @param targets the targets to capture, keyed by an id that is stable across the snapshot and
+   * the restore, such as a View id.
+   * @param registry the registry the named plans' classes are registered with. Named plans that
+   * are not registered are not captured.
+   * @return The snapshot.
+   */
+  public RuntimeSnapshot saveState(Map<String, ?> targets, PlanRegistry registry)
+    throws IOException {
+    List<String> keys = new ArrayList<>();
+    List<TargetScope> scopes = new ArrayList<>();
+    for (Map.Entry<String, ?> entry : targets.entrySet()) {
+      TargetScope scope = this.targets.get(entry.getValue());
+      if (scope != null) {
+        keys.add(entry.getKey());
+        scopes.add(scope);
+      }
+    }
+
+    BinaryPlanWriter writer = new BinaryPlanWriter(registry);
+    BinaryPlanWriter scopeWriter = new BinaryPlanWriter(registry);
+    writer.writeVarInt(keys.size());
+    for (int i = 0, count = keys.size(); i < count; i++) {
+      scopeWriter.reset();
+      scopes.get(i).saveState(scopeWriter, registry);
+
+      writer.writeString(keys.get(i));
+      writer.writeVarInt(scopeWriter.size());
+      writer.writeBytes(scopeWriter.toByteArray(), 0, scopeWriter.size());
+    }
+    return new RuntimeSnapshot(writer.toByteArray());
+  }
+
+  /**
+   * Restores a snapshot created by {@link #saveState(Map, PlanRegistry)}. Each target's named
+   * plans are handed to its performers in one batch, after which {@link StatefulPerforming}
+   * performers receive their saved state. The runtime's state changes at most once.
+   *
+   * @param snapshot the snapshot to restore.
+   * @param targets the targets to restore onto, keyed by the same ids used to save the snapshot.
+   * Saved targets without a matching key are skipped.
+   * @param registry the registry the named plans' classes are registered with.
+   */
+  public void restoreState(RuntimeSnapshot snapshot, Map<String, ?> targets, PlanRegistry registry)
+    throws IOException {
+    BinaryPlanReader reader = new BinaryPlanReader(registry, ByteBuffer.wrap(snapshot.getBytes()));
+    beginDeferringStateChanges();
+    try {
+      for (int i = 0, count = reader.readVarInt(); i < count; i++) {
+        String key = reader.readString();
+        int length = reader.readVarInt();
+
+        Object target = targets.get(key);
+        if (target == null) {
+          reader.skip(length);
+          continue;
+        }
+        getTargetScope(target).restoreState(reader, target, registry);
+      }
+    } finally {
+      endDeferringStateChanges();
+    }
   }
 
   /**
@@ -238,8 +868,260 @@ public class MotionRuntime {
    * changed.
    */
   void setTargetState(TargetScope target, int targetDetailedState) {
+    if (deferStateChangesDepth > 0) {
+      pendingStateTargets.add(target);
+      return;
+    }
+
+    int oldDetailedState = getDetailedState();
+    applyTargetState(target, targetDetailedState);
+
+    int newDetailedState = getDetailedState();
+    if (oldDetailedState != newDetailedState) {
+      onDetailedStateChange(oldDetailedState, newDetailedState);
+    }
+  }
+
+  /**
+   * Sets the maximum depth of nested {@link PlanEmitter plan emissions}, that is how many
+   * composable performers may emit plans from within another emission. Exceeding it usually
+   * means that composable performers emit each other's plans in a cycle.
+   */
+  public void setMaxEmitDepth(int maxEmitDepth) {
+    if (maxEmitDepth < 1) {
+      throw new IllegalArgumentException("The maximum emit depth must be at least 1.");
+    }
+    this.maxEmitDepth = maxEmitDepth;
+  }
+
+  /**
+   * Sets the number of {@link CacheablePlan} expansions kept by the runtime. The least recently
+   * used expansions are discarded first. Changing the size discards every cached expansion, and a
+   * size of 0 disables caching.
+   */
+  public void setExpansionCacheSize(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("The expansion cache size must not be negative.");
+    }
+    expansionCache = size == 0 ? null : new ExpansionCache(size);
+  }
+
+  /**
+   * Discards every cached {@link CacheablePlan} expansion, for example after the plans a
+   * composable performer emits have changed.
+   */
+  public void clearExpansionCache() {
+    if (expansionCache != null) {
+      expansionCache.evictAll();
+    }
+  }
+
+  /**
+   * @return The dense id of the performer class, assigning the next free id if the class has not
+   * been used before. Target scopes index their performers by this id.
+   */
+  static synchronized int getPerformerClassId(Class<?> performerClass) {
+    Integer id = performerClassIds.get(performerClass);
+    if (id == null) {
+      id = performerClassIds.size();
+      performerClassIds.put(performerClass, id);
+    }
+    return id;
+  }
+
+  /**
+   * @return The dense id of the plan's performer class, cached on the plan so that committing the
+   * plan or its copies again does not look the class up.
+   */
+  static int getPerformerClassId(Plan<?> plan) {
+    Class<?> performerClass = plan.getPerformerClass();
+    if (plan.cachedPerformerClass != performerClass) {
+      plan.cachedPerformerClassId = getPerformerClassId(performerClass);
+      plan.cachedPerformerClass = performerClass;
+    }
+    return plan.cachedPerformerClassId;
+  }
+
+  /**
+   * @return The runtime's single instance of the {@link BatchPerformer} class, created on first
+   * use.
+   */
+  <T> BatchPerformer<T> getBatchPerformer(
+    Class<? extends BatchPerformer<T>> batchPerformerClass) {
+    int id = getPerformerClassId(batchPerformerClass);
+    //noinspection unchecked
+    BatchPerformer<T> batchPerformer = batchPerformers.get(id);
+    if (batchPerformer != null) {
+      return batchPerformer;
+    }
+
+    //noinspection TryWithIdenticalCatches
+    try {
+      batchPerformer = batchPerformerClass.newInstance();
+    } catch (InstantiationException e) {
+      throw new PerformerInstantiationException(batchPerformerClass, e);
+    } catch (IllegalAccessException e) {
+      throw new PerformerInstantiationException(batchPerformerClass, e);
+    }
+    batchPerformer.runtime = this;
+    batchPerformers.put(id, batchPerformer);
+
+    // notify tracers
+    for (Tracing tracer : tracers) {
+      if (tracer instanceof BatchTracing) {
+        ((BatchTracing) tracer).onCreateBatchPerformer(batchPerformer);
+      }
+    }
+    return batchPerformer;
+  }
+
+  /**
+   * @return The store of the active performers of the {@link ComponentPerforming} class id.
+   */
+  ComponentStore getComponentStore(int performerClassId) {
+    ComponentStore componentStore = componentStores.get(performerClassId);
+    if (componentStore == null) {
+      componentStore = new ComponentStore();
+      componentStores.put(performerClassId, componentStore);
+    }
+    return componentStore;
+  }
+
+  /**
+   * Adds the batch performer to, or removes it from, the performers updated on each frame.
+   */
+  void setBatchPerformerActive(BatchPerformer batchPerformer, boolean active) {
+    if (batchPerformer.active == active) {
+      return;
+    }
     int oldDetailedState = getDetailedState();
+    batchPerformer.active = active;
+    activeBatchPerformerCount += active ? 1 : -1;
+    if (deferStateChangesDepth > 0) {
+      return;
+    }
+
+    int newDetailedState = getDetailedState();
+    if (oldDetailedState != newDetailedState) {
+      onDetailedStateChange(oldDetailedState, newDetailedState);
+    }
+  }
+
+  /**
+   * Sets the number of stopped {@link RecyclablePerforming} performers kept per performer class
+   * for reuse by new targets. Pooled performers beyond the new size are discarded, and a size of 0
+   * disables pooling.
+   */
+  public void setPerformerPoolSize(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("The performer pool size must not be negative.");
+    }
+    performerPoolSize = size;
+    for (int i = 0, count = performerPools.size(); i < count; i++) {
+      ArrayDeque<Performer> pool = performerPools.valueAt(i);
+      while (pool.size() > size) {
+        pool.removeLast();
+      }
+    }
+  }
+
+  /**
+   * Resets a stopped performer and pools it, if it is recyclable and its class's pool has room.
+   */
+  void recyclePerformer(int performerClassId, Performer performer) {
+    if (!(performer instanceof RecyclablePerforming)) {
+      return;
+    }
+    ArrayDeque<Performer> pool = performerPools.get(performerClassId);
+    if (pool == null) {
+      if (performerPoolSize == 0) {
+        return;
+      }
+      pool = new ArrayDeque<>();
+      performerPools.put(performerClassId, pool);
+    }
+    if (pool.size() >= performerPoolSize) {
+      return;
+    }
+    ((RecyclablePerforming) performer).onRecycle();
+    performer.clearTarget();
+    pool.addLast(performer);
+  }
+
+  /**
+   * @return A pooled performer of the class id, or null if there is none.
+   */
+  @Nullable
+  Performer obtainPooledPerformer(int performerClassId) {
+    ArrayDeque<Performer> pool = performerPools.get(performerClassId);
+    return pool == null ? null : pool.pollLast();
+  }
+
+  @Nullable
+  ExpansionCache getExpansionCache() {
+    return expansionCache;
+  }
+
+  /**
+   * Called before a {@link PlanEmitter} commits plans.
+   *
+   * @throws IllegalStateException if the emission is nested deeper than {@link
+   * #setMaxEmitDepth(int)}.
+   */
+  void beginEmit() {
+    if (emitDepth >= maxEmitDepth) {
+      throw new IllegalStateException(
+        "Plan emission exceeded the maximum depth of " + maxEmitDepth
+          + ". Do composable performers emit each other's plans in a cycle?");
+    }
+    emitDepth++;
+  }
+
+  /**
+   * Called after a {@link PlanEmitter} has committed plans.
+   */
+  void endEmit() {
+    emitDepth--;
+  }
+
+  /**
+   * Defers {@link #setTargetState(TargetScope, int)} until the matching call to {@link
+   * #endDeferringStateChanges()}. Calls may be nested.
+   * <p>
+   * This keeps the active target sets stable while they are iterated, and lets a batch of commits
+   * raise at most one {@link State} change.
+   */
+  void beginDeferringStateChanges() {
+    if (deferStateChangesDepth++ == 0) {
+      detailedStateBeforeDeferral = getDetailedState();
+    }
+  }
+
+  /**
+   * Applies the state of every scope that changed since the outermost call to {@link
+   * #beginDeferringStateChanges()}.
+   */
+  void endDeferringStateChanges() {
+    deferStateChangesDepth--;
+    if (deferStateChangesDepth > 0) {
+      return;
+    }
 
+    // batch performers change the detailed state immediately, so compare with its value when the
+    // deferral began
+    int oldDetailedState = detailedStateBeforeDeferral;
+    for (TargetScope target : pendingStateTargets) {
+      applyTargetState(target, target.getDetailedState());
+    }
+    pendingStateTargets.clear();
+
+    int newDetailedState = getDetailedState();
+    if (oldDetailedState != newDetailedState) {
+      onDetailedStateChange(oldDetailedState, newDetailedState);
+    }
+  }
+
+  private void applyTargetState(TargetScope target, int targetDetailedState) {
     if (isSet(targetDetailedState, MANUAL_DETAILED_STATE_FLAG)) {
       activeManualPerformerTargets.add(target);
     } else {
@@ -251,11 +1133,6 @@ public class MotionRuntime {
     } else {
       activeContinuousPerformerTargets.remove(target);
     }
-
-    int newDetailedState = getDetailedState();
-    if (oldDetailedState != newDetailedState) {
-      onDetailedStateChange(oldDetailedState, newDetailedState);
-    }
   }
 
   private void onDetailedStateChange(int oldDetailedState, int newDetailedState) {
@@ -306,9 +1183,23 @@ public class MotionRuntime {
     return (detailedState & flag) != 0;
   }
 
+  /**
+   * A {@link FrameCallback} that continues committing pending {@link PlanBatch plan batches}.
+   */
+  private class BatchCommitFrameCallback extends FrameCallback {
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+      commitPendingBatches();
+    }
+  }
+
   /**
    * A {@link FrameCallback} that calls {@link ManualPerforming#update(float)} on each frame for
    * every active {@link ManualPerforming manual performer}.
+   * <p>
+   * Plans committed by performers during the frame take effect immediately, but the state
+   * changes they cause are deferred until every target has been updated.
    */
   private class ManualPerformingFrameCallback extends FrameCallback {
 
@@ -328,9 +1219,23 @@ public class MotionRuntime {
       double frameTimeMs = frameTimeNanos / 1000;
       choreographer.postFrameCallback(this);
 
-      for (TargetScope activeTarget : activeManualPerformerTargets) {
+      beginDeferringStateChanges();
+      try {
         float deltaTimeMs = lastTimeMs == 0.0 ? 0f : (float) (frameTimeMs - lastTimeMs);
-        activeTarget.update(deltaTimeMs);
+        for (TargetScope activeTarget : activeManualPerformerTargets) {
+          activeTarget.update(deltaTimeMs);
+        }
+        for (int i = 0; i < componentStores.size(); i++) {
+          componentStores.valueAt(i).update(deltaTimeMs);
+        }
+        for (int i = 0; i < batchPerformers.size(); i++) {
+          BatchPerformer batchPerformer = batchPerformers.valueAt(i);
+          if (batchPerformer.active && batchPerformer.performUpdate(deltaTimeMs) == IDLE) {
+            setBatchPerformerActive(batchPerformer, false);
+          }
+        }
+      } finally {
+        endDeferringStateChanges();
       }
 
       lastTimeMs = frameTimeMs;
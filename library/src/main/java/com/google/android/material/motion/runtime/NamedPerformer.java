@@ -36,4 +36,20 @@ public abstract class NamedPerformer<T> extends Performer<T> {
    * @param name the name by which this plan was identified.
    */
   public abstract void removePlan(String name);
+
+  /**
+   * Replaces the {@link NamedPlan} identified by the given name with a new plan. Invoked instead
+   * of {@link #removePlan(String)} and {@link #addPlan(NamedPlan, String)} when a named plan is
+   * added with a name this Performer already holds.
+   * <p>
+   * The default implementation removes the old plan and adds the new one. Override this method to
+   * update the existing state in place instead.
+   *
+   * @param plan the plan which replaces the existing plan.
+   * @param name the name by which both plans are identified.
+   */
+  public void replacePlan(NamedPlan<T> plan, String name) {
+    removePlan(name);
+    addPlan(plan, name);
+  }
 }
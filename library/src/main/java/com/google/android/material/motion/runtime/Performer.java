@@ -40,8 +40,7 @@ public abstract class Performer<T> {
    */
   public static class PerformerInstantiationException extends RuntimeException {
 
-    public PerformerInstantiationException(
-      Class<? extends Performer> klass, Exception cause) {
+    public PerformerInstantiationException(Class<?> klass, Exception cause) {
       super(
         "Unable to instantiate Performer "
           + klass.getName()
@@ -69,6 +68,57 @@ public abstract class Performer<T> {
   protected void onInitialize(T target) {
   }
 
+  /**
+   * Moves this Performer to a new target, keeping its state.
+   */
+  final void rebind(T target) {
+    T oldTarget = this.target;
+    this.target = target;
+    onTargetChanged(oldTarget, target);
+  }
+
+  /**
+   * Drops this Performer's target, so that a pooled Performer does not keep it reachable.
+   */
+  final void clearTarget() {
+    target = null;
+  }
+
+  /**
+   * Invoked when the stable key this Performer's target scope is bound to moves to a new target,
+   * with {@link MotionRuntime#bindTarget(Object, Object)}. The Performer keeps its plans and state
+   * and should continue its work on the new target, for example by applying its current values
+   * to it.
+   */
+  protected void onTargetChanged(T oldTarget, T newTarget) {
+  }
+
+  /**
+   * Invoked when the stable key this Performer's target scope is bound to is detached from its
+   * target, because the target was bound to another key or the key was unbound. The target may
+   * already show another item, so stop writing to it here, for example by pausing animations.
+   * <p>
+   * The Performer keeps its plans and state, but its target is null and it receives no updates
+   * until the key is bound again, when {@link #onTargetChanged(Object, Object)} is invoked with a
+   * null old target. Its is-active tokens are released, and its plan emitter ignores plans in the
+   * meantime, so a Performer that resumes work must generate new tokens.
+   */
+  protected void onDetach() {
+  }
+
+  /**
+   * Invoked when the runtime stops this Performer, because its target was removed with {@link
+   * MotionRuntime#removeTarget(Object)} or its class was cancelled with {@link
+   * MotionRuntime#cancelPerformers(Class)}. The Performer receives no further plans or updates,
+   * and its is-active tokens and plan emitter no longer have any effect. Stop any ongoing work and
+   * release resources here.
+   * <p>
+   * A {@link PerformerFeatures.RecyclablePerforming} Performer may afterwards be reused for
+   * another target.
+   */
+  protected void onTerminate() {
+  }
+
   /**
    * Provides a {@link Plan} to this Performer. The Performer is expected to execute this plan.
    */
@@ -19,6 +19,9 @@ import android.support.annotation.VisibleForTesting;
 
 import com.google.android.material.motion.runtime.MotionRuntime.State;
 
+import java.io.IOException;
+import java.util.Collection;
+
 /**
  * Defines the APIs that a {@link Performer} can implement.
  */
@@ -93,6 +96,19 @@ public final class PerformerFeatures {
     int update(float deltaTimeMs);
   }
 
+  /**
+   * A {@link ManualPerforming} Performer implements this interface in order to be updated together
+   * with every other active Performer of its class, rather than together with the other
+   * Performers of its target.
+   * <p>
+   * The runtime stores the active Performers of each such class in one dense array and updates
+   * them in a single pass per class, after the targets' other manual performers. With many
+   * Performer classes on screen, this runs the same update code back to back over many
+   * Performers instead of interleaving it with other classes.
+   */
+  public interface ComponentPerforming extends ManualPerforming {
+  }
+
   /**
    * A Performer implements this interface in order to commit new {@link Plan Plans}.
    * <p>
@@ -117,8 +133,72 @@ public final class PerformerFeatures {
 
       /**
        * Emit a new plan. The plan will immediately be added to the backing runtime.
+       * <p>
+       * Unlike {@link MotionRuntime#addPlan(Plan, Object)}, the plan is not copied, so it must not
+       * be modified after it has been emitted.
        */
       void emit(Plan<T> plan);
     }
+
+    /**
+     * A {@link PlanEmitter} that can also emit many plans at once. The emitters supplied by the
+     * {@link MotionRuntime} implement this interface; performers should check for it with {@code
+     * instanceof} and fall back to {@link PlanEmitter#emit(Plan)} otherwise.
+     *
+     * @param <T> This emitter will only accept plans that can be applied to this type of
+     * target.
+     */
+    interface BulkPlanEmitter<T> extends PlanEmitter<T> {
+
+      /**
+       * Emit several new plans at once. The plans will immediately be added to the backing runtime
+       * in iteration order, and the runtime's {@link MotionRuntime.State} changes at most once.
+       * <p>
+       * The plans are not copied, so they must not be modified after they have been emitted.
+       */
+      void emitAll(Collection<? extends Plan<T>> plans);
+    }
+  }
+
+  /**
+   * A Performer implements this interface in order to carry its state across a {@link
+   * MotionRuntime#saveState(java.util.Map, PlanRegistry) snapshot} and {@link
+   * MotionRuntime#restoreState(RuntimeSnapshot, java.util.Map, PlanRegistry) restore}, for example
+   * to continue an in-flight animation after a configuration change.
+   * <p>
+   * On restore, the state is given to the Performer after the target's named plans have been
+   * added to it.
+   */
+  public interface StatefulPerforming {
+
+    /**
+     * Called by the {@link MotionRuntime} to record this Performer's state.
+     */
+    void saveState(BinaryPlanWriter writer) throws IOException;
+
+    /**
+     * Called by the {@link MotionRuntime} to restore state recorded by {@link
+     * #saveState(BinaryPlanWriter)}.
+     */
+    void restoreState(BinaryPlanReader reader) throws IOException;
+  }
+
+  /**
+   * A Performer implements this interface in order to be reused for other targets once the
+   * runtime stops it, rather than being discarded. See {@link
+   * MotionRuntime#setPerformerPoolSize(int)}.
+   * <p>
+   * A recycled Performer is later {@link Performer#initialize(Object) initialized} with a new
+   * target and given a new is-active token generator and plan emitter, as if it had just been
+   * created.
+   */
+  public interface RecyclablePerforming {
+
+    /**
+     * Called by the {@link MotionRuntime} after {@link Performer#onTerminate()}, before this
+     * Performer is pooled. Reset every field to its initial value and drop all references to
+     * plans, the previous target, and objects handed out by the runtime.
+     */
+    void onRecycle();
   }
 }
@@ -16,6 +16,7 @@
 
 package com.google.android.material.motion.runtime;
 
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
 /**
@@ -23,7 +24,8 @@ import android.support.annotation.VisibleForTesting;
  * to fulfill itself.
  * <p>
  * Plans are {@link Cloneable}, and by default {@link #clone()} makes a shallow copy. If your Plan
- * contains mutable Object references, override {@link #clone()} to make a deep copy.
+ * contains mutable Object references, override {@link #clone()} to make a deep copy. Plans that
+ * implement {@link PlanFeatures.ImmutablePlan} are never copied by the runtime.
  * <p>
  * The {@link PlanFeatures} interfaces define optional APIs.
  *
@@ -39,6 +41,15 @@ public abstract class Plan<T> implements Cloneable {
    */
   protected abstract Class<? extends Performer<T>> getPerformerClass();
 
+  /**
+   * The performer class last returned by {@link #getPerformerClass()}, and its {@link
+   * MotionRuntime#getPerformerClassId(Plan) id}. Cached by the runtime and kept by {@link
+   * #clone()}.
+   */
+  @Nullable
+  Class<?> cachedPerformerClass;
+  int cachedPerformerClassId;
+
   /**
    * By default this implementation makes a shallow copy. If your Plan contains mutable Object
    * references, override this method to make a deep copy.
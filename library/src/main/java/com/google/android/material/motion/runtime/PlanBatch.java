@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An ordered batch of plans that a {@link MotionRuntime} commits over as many frames as needed,
+ * spending at most {@link MotionRuntime#setBatchFrameBudgetMs(float)} per frame.
+ * <p>
+ * Plans are committed in the order they were added to the batch, and batches are committed in
+ * the order they were added to the runtime, so the plans for any one target land in order.
+ * Plans added directly to the runtime are not ordered with pending batches.
+ * <p>
+ * Plans are copied when they are added to the batch, as by {@link MotionRuntime#addPlan(Plan,
+ * Object)}. A batch can be added to a runtime once.
+ */
+public final class PlanBatch {
+
+  /**
+   * Receives the completion of a batch.
+   */
+  public interface Listener {
+
+    /**
+     * Invoked once every plan in the batch has been committed. Not invoked for cancelled batches.
+     */
+    void onBatchCommitted(PlanBatch batch);
+  }
+
+  private final List<Object> targets = new ArrayList<>();
+  private final List<Plan<?>> plans = new ArrayList<>();
+  private final List<String> names = new ArrayList<>();
+  @Nullable
+  private final Listener listener;
+
+  private int committedCount;
+  private boolean added;
+  private boolean cancelled;
+
+  public PlanBatch() {
+    this(null);
+  }
+
+  /**
+   * @param listener the listener to notify once the batch has been committed.
+   */
+  public PlanBatch(@Nullable Listener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Adds a plan to the batch.
+   *
+   * @param plan the {@link Plan} to add.
+   * @param target the target on which the plan will operate.
+   * @param <T> The type of target this plan can be applied to.
+   */
+  public <T> PlanBatch add(Plan<T> plan, T target) {
+    return add(MotionRuntime.copyForCommit(plan), null, target);
+  }
+
+  /**
+   * Adds a {@link NamedPlan} to the batch. It replaces any plan with the same name and target
+   * when it is committed, as by {@link MotionRuntime#addNamedPlan(NamedPlan, String, Object)}.
+   *
+   * @param plan the {@link NamedPlan} to add.
+   * @param name the name by which this plan can be identified.
+   * @param target the target on which the plan will operate.
+   * @param <T> The type of target this plan can be applied to.
+   */
+  public <T> PlanBatch addNamed(NamedPlan<T> plan, String name, T target) {
+    MotionRuntime.checkName(name);
+    return add(MotionRuntime.copyForCommit(plan), name, target);
+  }
+
+  private PlanBatch add(Plan<?> plan, @Nullable String name, Object target) {
+    if (added) {
+      throw new IllegalStateException("Plans can't be added to a batch once it was committed.");
+    }
+    targets.add(target);
+    plans.add(plan);
+    names.add(name);
+    return this;
+  }
+
+  /**
+   * @return The number of plans in the batch.
+   */
+  public int size() {
+    return plans.size();
+  }
+
+  /**
+   * @return The number of plans committed so far.
+   */
+  public int getCommittedCount() {
+    return committedCount;
+  }
+
+  /**
+   * @return Whether every plan in the batch has been committed.
+   */
+  public boolean isCommitted() {
+    return added && !cancelled && committedCount == plans.size();
+  }
+
+  /**
+   * Stops committing the batch. Plans that were already committed remain in the runtime, and the
+   * listener is not notified.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * @return Whether {@link #cancel()} was called.
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  void markAdded() {
+    if (added) {
+      throw new IllegalStateException("A batch can only be added to a runtime once.");
+    }
+    added = true;
+  }
+
+  boolean hasRemaining() {
+    return !cancelled && committedCount < plans.size();
+  }
+
+  /**
+   * Commits the next plan of the batch to the runtime.
+   */
+  void commitNext(MotionRuntime runtime) {
+    int index = committedCount++;
+    runtime.commitBatchEntry(plans.get(index), names.get(index), targets.get(index));
+  }
+
+  void notifyCommitted() {
+    if (listener != null) {
+      listener.onBatchCommitted(this);
+    }
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import android.support.annotation.Nullable;
+
+import com.google.android.material.motion.runtime.PlanFeatures.BinarySerializablePlan;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * A read-only collection of {@link BinarySerializablePlan Plans} keyed by name, usually loaded
+ * from a memory-mapped file.
+ * <p>
+ * Opening a bundle only reads its index. Each plan is decoded from the mapped bytes when it is
+ * requested with {@link #getPlan(String)}, so a large catalog of motion specs costs neither
+ * startup time nor heap until its plans are used.
+ * <p>
+ * Bundles are created with a {@link Writer}.
+ */
+public class PlanBundle {
+
+  /**
+   * "MMPB".
+   */
+  private static final int MAGIC = 0x4D4D5042;
+  private static final int FORMAT_VERSION = 1;
+  /**
+   * The smallest index entry: a one-character name, its length, the offset and the length.
+   */
+  private static final int MIN_INDEX_ENTRY_BYTES = 10;
+
+  private final PlanRegistry registry;
+  private final ByteBuffer data;
+
+  /**
+   * Sorted so that lookups can binary search.
+   */
+  private final String[] names;
+  private final int[] offsets;
+  private final int[] lengths;
+
+  /**
+   * Memory-maps the given file and reads its index.
+   */
+  public static PlanBundle open(File file, PlanRegistry registry) throws IOException {
+    FileInputStream in = new FileInputStream(file);
+    try {
+      FileChannel channel = in.getChannel();
+      return open(channel, 0, channel.size(), registry);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Memory-maps a region of the given channel and reads its index. Use this to open bundles that
+   * are stored uncompressed inside an APK, with the offset and length of the asset's file
+   * descriptor.
+   * <p>
+   * The channel may be closed once this method returns.
+   */
+  public static PlanBundle open(
+    FileChannel channel, long offset, long length, PlanRegistry registry) throws IOException {
+    return new PlanBundle(channel.map(MapMode.READ_ONLY, offset, length), registry);
+  }
+
+  /**
+   * Reads the index of a bundle stored between the buffer's position and limit. The given buffer
+   * is not modified.
+   */
+  public PlanBundle(ByteBuffer buffer, PlanRegistry registry) throws IOException {
+    this.registry = registry;
+
+    BinaryPlanReader reader = new BinaryPlanReader(registry, buffer);
+    if (reader.readInt() != MAGIC) {
+      throw new IOException("Not a plan bundle.");
+    }
+    int version = reader.readInt();
+    if (version != FORMAT_VERSION) {
+      throw new IOException("Unsupported plan bundle version " + version + ".");
+    }
+
+    int count = reader.readVarInt();
+    long remaining = buffer.remaining() - reader.position();
+    if (count < 0 || count > remaining / MIN_INDEX_ENTRY_BYTES) {
+      throw new IOException("Corrupt plan bundle: " + count + " plans in " + remaining + " bytes.");
+    }
+    names = new String[count];
+    offsets = new int[count];
+    lengths = new int[count];
+    for (int i = 0; i < count; i++) {
+      names[i] = reader.readString();
+      offsets[i] = reader.readInt();
+      lengths[i] = reader.readInt();
+      if (names[i] == null) {
+        throw new IOException("Corrupt plan bundle: plan " + i + " has no name.");
+      }
+    }
+
+    ByteBuffer data = buffer.duplicate();
+    data.position(buffer.position() + (int) reader.position());
+    this.data = data.slice();
+
+    for (int i = 0; i < count; i++) {
+      if (offsets[i] < 0 || lengths[i] < 0 || (long) offsets[i] + lengths[i] > this.data.limit()) {
+        throw new IOException("Corrupt plan bundle: plan " + names[i] + " is out of bounds.");
+      }
+    }
+  }
+
+  /**
+   * @return The number of plans in this bundle.
+   */
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * @return The names of the plans in this bundle, in sorted order.
+   */
+  public List<String> getNames() {
+    return Collections.unmodifiableList(Arrays.asList(names));
+  }
+
+  /**
+   * @return Whether this bundle has a plan with the given name.
+   */
+  public boolean contains(String name) {
+    return Arrays.binarySearch(names, name) >= 0;
+  }
+
+  /**
+   * Decodes the plan with the given name. Every call decodes a new instance.
+   *
+   * @return The plan, or null if this bundle has no plan with the given name or the plan's id is
+   * not registered.
+   */
+  @Nullable
+  public <T> Plan<T> getPlan(String name) throws IOException {
+    int index = Arrays.binarySearch(names, name);
+    if (index < 0) {
+      return null;
+    }
+
+    ByteBuffer record = data.duplicate();
+    record.position(offsets[index]);
+    record.limit(offsets[index] + lengths[index]);
+    return new BinaryPlanReader(registry, record).readPlan();
+  }
+
+  /**
+   * Writes plans into the format read by {@link PlanBundle}.
+   */
+  public static class Writer {
+
+    private final PlanRegistry registry;
+    private final TreeMap<String, Plan<?>> plans = new TreeMap<>();
+
+    public Writer(PlanRegistry registry) {
+      this.registry = registry;
+    }
+
+    /**
+     * Adds a plan to the bundle, replacing any plan previously added with the same name.
+     */
+    public Writer add(String name, Plan<?> plan) {
+      if (name == null) {
+        throw new IllegalArgumentException("Bundled plans must have a name.");
+      }
+      plans.put(name, plan);
+      return this;
+    }
+
+    /**
+     * Writes the bundle to the given stream.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+      BinaryPlanWriter data = new BinaryPlanWriter(registry);
+      List<String> names = new ArrayList<>(plans.keySet());
+      int[] offsets = new int[names.size()];
+      int[] lengths = new int[names.size()];
+      for (int i = 0; i < names.size(); i++) {
+        offsets[i] = data.size();
+        data.writePlan(plans.get(names.get(i)));
+        lengths[i] = data.size() - offsets[i];
+      }
+
+      BinaryPlanWriter index = new BinaryPlanWriter(registry);
+      index.writeInt(MAGIC);
+      index.writeInt(FORMAT_VERSION);
+      index.writeVarInt(names.size());
+      for (int i = 0; i < names.size(); i++) {
+        index.writeString(names.get(i));
+        index.writeInt(offsets[i]);
+        index.writeInt(lengths[i]);
+      }
+
+      index.writeTo(out);
+      data.writeTo(out);
+    }
+  }
+}
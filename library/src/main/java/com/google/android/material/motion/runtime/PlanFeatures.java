@@ -19,6 +19,12 @@ import android.support.annotation.VisibleForTesting;
 import android.util.JsonReader;
 import android.util.JsonWriter;
 
+import com.google.android.material.motion.runtime.PerformerFeatures.ComposablePerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.ContinuousPerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.ManualPerforming;
+
+import java.io.IOException;
+
 /**
  * Defines the APIs that a {@link Plan} can implement.
  */
@@ -50,4 +56,75 @@ public final class PlanFeatures {
      */
     void fromJson(JsonReader reader);
   }
+
+  /**
+   * Plans should implement this interface if they want to support the compact binary format.
+   * <p>
+   * Binary serializable plans must be registered with a {@link PlanRegistry} under a stable id
+   * before they can be written with a {@link BinaryPlanWriter} or read with a {@link
+   * BinaryPlanReader}.
+   * <p>
+   * Each plan record carries the version returned by {@link #getBinaryVersion()}. When adding
+   * fields, append them to the end of the record and bump the version. Readers are given the
+   * version the record was written with, and any trailing fields they do not know about are
+   * skipped.
+   */
+  public interface BinarySerializablePlan {
+
+    /**
+     * @return The version of the fields written by {@link #toBinary(BinaryPlanWriter)}.
+     */
+    int getBinaryVersion();
+
+    /**
+     * Serializes the Plan's fields into binary.
+     *
+     * @param writer Writer to record the serialized fields to.
+     */
+    void toBinary(BinaryPlanWriter writer) throws IOException;
+
+    /**
+     * Deserializes the Plan from binary and populates this Plan's fields.
+     *
+     * @param reader Reader to consume the serialized fields from.
+     * @param version The version the fields were written with.
+     */
+    void fromBinary(BinaryPlanReader reader, int version) throws IOException;
+  }
+
+  /**
+   * Plans should implement this interface if they are never modified once constructed, and hold
+   * no mutable state.
+   * <p>
+   * The runtime copies every plan it is given, so that callers and performers can't affect each
+   * other through a shared plan. Immutable plans are shared instead, which saves a copy per
+   * commit and, with {@link MotionRuntime#addPlanToAll(Plan, java.util.Collection)}, per target.
+   */
+  public interface ImmutablePlan {
+  }
+
+  /**
+   * Plans whose {@link ComposablePerforming composable performer} always expands them into the
+   * same plans should implement this interface to have their expansion cached.
+   * <p>
+   * The first time a cacheable plan is added with {@link MotionRuntime#addPlan(Plan, Object)},
+   * the plans its performer emits from {@link Performer#addPlan(Plan)} are recorded. Later
+   * additions of a plan of the same class and an equal {@link #getExpansionKey() expansion key}
+   * skip the performer and add copies of the recorded plans instead, on any target.
+   * <p>
+   * This is only correct if the performer does nothing but emit plans when a plan is added, and
+   * the plans it emits depend on nothing but the expansion key. Plans whose performer is also
+   * {@link ManualPerforming} or {@link ContinuousPerforming} are never cached.
+   *
+   * @see MotionRuntime#setExpansionCacheSize(int)
+   */
+  public interface CacheablePlan {
+
+    /**
+     * @return A key that determines the plans this plan expands into. Must implement {@link
+     * Object#equals(Object)} and {@link Object#hashCode()}, and must not change once the plan
+     * has been added.
+     */
+    Object getExpansionKey();
+  }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import android.support.annotation.Nullable;
+import android.support.v4.util.SimpleArrayMap;
+import android.util.SparseArray;
+
+import com.google.android.material.motion.runtime.PlanFeatures.BinarySerializablePlan;
+import com.google.android.material.motion.runtime.PlanFeatures.SerializablePlan;
+
+/**
+ * A registry that maps stable ids to {@link BinarySerializablePlan} and {@link SerializablePlan}
+ * classes.
+ * <p>
+ * Ids are written into serialized data in place of class names, so an id must never be reused
+ * for a different plan class once data has been written with it.
+ */
+public class PlanRegistry {
+
+  /**
+   * Thrown when there is an instantiation failure. Make sure that your {@link Plan}'s class name
+   * exists, is public, and has an empty constructor that is public.
+   */
+  public static class PlanInstantiationException extends RuntimeException {
+
+    public PlanInstantiationException(Class<? extends Plan> klass, Exception cause) {
+      super(
+        "Unable to instantiate Plan "
+          + klass.getName()
+          + ": make sure class name exists, is public, and has an empty constructor that is "
+          + "public",
+        cause);
+    }
+  }
+
+  private final SparseArray<Class<? extends Plan>> classes = new SparseArray<>();
+  private final SimpleArrayMap<Class<? extends Plan>, Integer> ids = new SimpleArrayMap<>();
+
+  /**
+   * Registers a plan class under the given stable id.
+   *
+   * @param id the stable id, must be non-negative.
+   * @param planClass the plan class, must implement {@link BinarySerializablePlan} or {@link
+   * SerializablePlan}.
+   */
+  public void register(int id, Class<? extends Plan> planClass) {
+    if (id < 0) {
+      throw new IllegalArgumentException("Plan ids must be non-negative.");
+    }
+    if (!BinarySerializablePlan.class.isAssignableFrom(planClass)
+      && !SerializablePlan.class.isAssignableFrom(planClass)) {
+      throw new IllegalArgumentException(
+        planClass.getName() + " does not implement BinarySerializablePlan or SerializablePlan.");
+    }
+    Class<? extends Plan> existingClass = classes.get(id);
+    if (existingClass != null && existingClass != planClass) {
+      throw new IllegalArgumentException(
+        "Id " + id + " is already registered to " + existingClass.getName() + ".");
+    }
+    Integer existingId = ids.get(planClass);
+    if (existingId != null && existingId != id) {
+      throw new IllegalArgumentException(
+        planClass.getName() + " is already registered with id " + existingId + ".");
+    }
+
+    classes.put(id, planClass);
+    ids.put(planClass, id);
+  }
+
+  /**
+   * @return The id the plan class was registered with, or -1 if it was not registered.
+   */
+  public int getId(Class<? extends Plan> planClass) {
+    Integer id = ids.get(planClass);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * @return The plan class registered with the id, or null if none was registered.
+   */
+  @Nullable
+  public Class<? extends Plan> getPlanClass(int id) {
+    return classes.get(id);
+  }
+
+  /**
+   * Creates a new instance of the plan class registered with the id.
+   *
+   * @return The new plan, or null if no plan class was registered with the id.
+   */
+  @Nullable
+  <T> Plan<T> newPlan(int id) {
+    Class<? extends Plan> planClass = classes.get(id);
+    if (planClass == null) {
+      return null;
+    }
+
+    //noinspection TryWithIdenticalCatches
+    try {
+      //noinspection unchecked
+      return planClass.newInstance();
+    } catch (InstantiationException e) {
+      throw new PlanInstantiationException(planClass, e);
+    } catch (IllegalAccessException e) {
+      throw new PlanInstantiationException(planClass, e);
+    }
+  }
+}
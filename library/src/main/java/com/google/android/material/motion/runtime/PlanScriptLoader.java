@@ -0,0 +1,403 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import android.support.annotation.Nullable;
+import android.util.JsonReader;
+
+import com.google.android.material.motion.runtime.ChoreographerCompat.FrameCallback;
+import com.google.android.material.motion.runtime.PlanFeatures.SerializablePlan;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Loads a plan script into a {@link MotionRuntime} without blocking the thread the runtime runs
+ * on.
+ * <p>
+ * A plan script is a sequence of {@link Entry entries}, each of which names a target, an optional
+ * plan name and a plan. The script is decoded on a worker thread, and decoded entries are
+ * committed to the runtime in batches of at most {@link #setMaxPlansPerFrame(int)} plans, one
+ * batch per frame. The {@link Listener} is notified after each batch, so a screen can start
+ * animating before the whole script has loaded.
+ * <p>
+ * The worker thread decodes at most {@link #DECODED_FRAMES_AHEAD} frames' worth of entries ahead
+ * of the commits. It then stops, and decoding resumes on the executor once the runtime's thread
+ * has committed them.
+ * <p>
+ * Create a loader and call {@link #start(Executor)} from the runtime's thread.
+ *
+ * @param <T> The type of target the script's plans can be applied to.
+ */
+public class PlanScriptLoader<T> {
+
+  /**
+   * Resolves the target keys used in a plan script into target objects.
+   */
+  public interface TargetResolver<T> {
+
+    /**
+     * @return The target for the given key, or null if entries for this key should be skipped.
+     */
+    @Nullable
+    T resolve(String targetKey);
+  }
+
+  /**
+   * Produces the entries of a plan script. Called on the worker thread.
+   */
+  public interface Source<T> {
+
+    /**
+     * @return The next entry, or null if the script has ended.
+     */
+    @Nullable
+    Entry<T> next() throws IOException;
+  }
+
+  /**
+   * Receives the progress of a loader. Called on the runtime's thread.
+   */
+  public interface Listener {
+
+    /**
+     * Invoked after each batch of plans has been committed.
+     *
+     * @param committedCount the total number of plans committed so far.
+     */
+    void onProgress(int committedCount);
+
+    /**
+     * Invoked once every plan in the script has been committed.
+     *
+     * @param committedCount the total number of plans committed.
+     */
+    void onComplete(int committedCount);
+
+    /**
+     * Invoked if the script could not be decoded, or one of its plans could not be committed.
+     * Plans committed before the failure remain in the runtime, and the loader stops.
+     */
+    void onError(Exception e);
+  }
+
+  /**
+   * A single entry of a plan script.
+   */
+  public static class Entry<T> {
+
+    final String targetKey;
+    @Nullable
+    final String name;
+    final Plan<T> plan;
+
+    /**
+     * @param targetKey the key passed to the {@link TargetResolver}.
+     * @param name the name to add the plan with, or null to add the plan without a name.
+     * @param plan the plan. Must be a {@link NamedPlan} if a name is given.
+     */
+    public Entry(String targetKey, @Nullable String name, Plan<T> plan) {
+      if (name != null && !(plan instanceof NamedPlan)) {
+        throw new IllegalArgumentException("Only a NamedPlan can be given a name.");
+      }
+      this.targetKey = targetKey;
+      this.name = name;
+      this.plan = plan;
+    }
+  }
+
+  /**
+   * The default maximum number of plans committed per frame.
+   */
+  public static final int DEFAULT_MAX_PLANS_PER_FRAME = 64;
+
+  /**
+   * The number of frames' worth of plans that are decoded ahead of the commits.
+   */
+  public static final int DECODED_FRAMES_AHEAD = 2;
+
+  private final MotionRuntime runtime;
+  private final Source<T> source;
+  private final TargetResolver<T> resolver;
+  private final Listener listener;
+
+  private final LinkedBlockingQueue<Entry<T>> decoded = new LinkedBlockingQueue<>();
+  private final CommitFrameCallback commitFrameCallback = new CommitFrameCallback();
+  private final Runnable decodeRunnable = new Runnable() {
+    @Override
+    public void run() {
+      decode();
+    }
+  };
+
+  private volatile boolean cancelled;
+  /**
+   * Whether the decode runnable was given to the executor and has not returned yet. Only set by
+   * the runtime's thread, and only cleared by the decode runnable.
+   */
+  private volatile boolean decoding;
+  private volatile boolean decodingFinished;
+  private volatile Exception error;
+
+  private Executor executor;
+
+  private int maxPlansPerFrame = DEFAULT_MAX_PLANS_PER_FRAME;
+  private int committedCount;
+  private boolean started;
+
+  public PlanScriptLoader(
+    MotionRuntime runtime, Source<T> source, TargetResolver<T> resolver, Listener listener) {
+    this.runtime = runtime;
+    this.source = source;
+    this.resolver = resolver;
+    this.listener = listener;
+  }
+
+  /**
+   * Sets the maximum number of plans committed per frame.
+   */
+  public void setMaxPlansPerFrame(int maxPlansPerFrame) {
+    if (maxPlansPerFrame < 1) {
+      throw new IllegalArgumentException("At least one plan must be committed per frame.");
+    }
+    this.maxPlansPerFrame = maxPlansPerFrame;
+  }
+
+  /**
+   * Starts decoding the script on the given executor. Must be called on the runtime's thread.
+   */
+  public void start(Executor executor) {
+    if (started) {
+      throw new IllegalStateException("PlanScriptLoader already started.");
+    }
+    started = true;
+
+    this.executor = executor;
+    decoding = true;
+    executor.execute(decodeRunnable);
+    runtime.choreographer.postFrameCallback(commitFrameCallback);
+  }
+
+  /**
+   * Stops decoding and committing the script. Plans that were already committed remain in the
+   * runtime. The listener is not notified after cancellation.
+   */
+  public void cancel() {
+    cancelled = true;
+    runtime.choreographer.removeFrameCallback(commitFrameCallback);
+    decoded.clear();
+  }
+
+  /**
+   * @return Whether {@link #cancel()} was called.
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Decodes entries until the script ends or enough entries are waiting to be committed.
+   */
+  private void decode() {
+    int maxDecoded = maxPlansPerFrame * DECODED_FRAMES_AHEAD;
+    //noinspection TryWithIdenticalCatches
+    try {
+      while (!cancelled && error == null && decoded.size() < maxDecoded) {
+        Entry<T> entry = source.next();
+        if (entry == null) {
+          decodingFinished = true;
+          break;
+        }
+        decoded.add(entry);
+      }
+    } catch (IOException e) {
+      error = e;
+      decodingFinished = true;
+    } catch (RuntimeException e) {
+      error = e;
+      decodingFinished = true;
+    } finally {
+      decoding = false;
+    }
+  }
+
+  private void commit(Entry<T> entry) {
+    T target = resolver.resolve(entry.targetKey);
+    if (target == null) {
+      return;
+    }
+
+    if (entry.name != null) {
+      //noinspection unchecked
+      runtime.addNamedPlan((NamedPlan<T>) entry.plan, entry.name, target);
+    } else {
+      runtime.addPlan(entry.plan, target);
+    }
+    committedCount++;
+  }
+
+  /**
+   * Creates a source that reads entries written by {@link #writeEntry(BinaryPlanWriter, String,
+   * String, Plan)} until the reader has no bytes remaining.
+   */
+  public static <T> Source<T> binarySource(final BinaryPlanReader reader) {
+    return new Source<T>() {
+      @Nullable
+      @Override
+      public Entry<T> next() throws IOException {
+        while (reader.hasRemaining()) {
+          String targetKey = reader.readString();
+          String name = reader.readString();
+          Plan<T> plan = reader.readPlan();
+          if (plan != null) {
+            return new Entry<>(targetKey, name, plan);
+          }
+        }
+        return null;
+      }
+    };
+  }
+
+  /**
+   * Writes a single entry in the format read by {@link #binarySource(BinaryPlanReader)}.
+   */
+  public static void writeEntry(
+    BinaryPlanWriter writer, String targetKey, @Nullable String name, Plan<?> plan)
+    throws IOException {
+    writer.writeString(targetKey);
+    writer.writeString(name);
+    writer.writePlan(plan);
+  }
+
+  /**
+   * Creates a source that reads a JSON array of entries. Each entry is an object with a {@code
+   * "target"} key, an optional {@code "name"} key, a {@code "type"} key holding the plan's id in
+   * the registry and a {@code "plan"} key that is passed to {@link
+   * SerializablePlan#fromJson(JsonReader)}. The {@code "type"} key must precede the {@code "plan"}
+   * key.
+   */
+  public static <T> Source<T> jsonSource(final JsonReader reader, final PlanRegistry registry) {
+    return new Source<T>() {
+      private boolean begun;
+
+      @Nullable
+      @Override
+      public Entry<T> next() throws IOException {
+        if (!begun) {
+          reader.beginArray();
+          begun = true;
+        }
+
+        while (reader.hasNext()) {
+          String targetKey = null;
+          String name = null;
+          Plan<T> plan = null;
+          int type = -1;
+
+          reader.beginObject();
+          while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (key.equals("target")) {
+              targetKey = reader.nextString();
+            } else if (key.equals("name")) {
+              name = reader.nextString();
+            } else if (key.equals("type")) {
+              type = reader.nextInt();
+            } else if (key.equals("plan")) {
+              plan = type < 0 ? null : registry.<T>newPlan(type);
+              if (plan instanceof SerializablePlan) {
+                ((SerializablePlan) plan).fromJson(reader);
+              } else {
+                plan = null;
+                reader.skipValue();
+              }
+            } else {
+              reader.skipValue();
+            }
+          }
+          reader.endObject();
+
+          if (targetKey != null && plan != null) {
+            return new Entry<>(targetKey, name, plan);
+          }
+        }
+
+        reader.endArray();
+        return null;
+      }
+    };
+  }
+
+  /**
+   * Commits a batch of decoded entries on each frame until the script has been fully committed.
+   */
+  private class CommitFrameCallback extends FrameCallback {
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+      if (cancelled) {
+        return;
+      }
+
+      int batchCount = 0;
+      RuntimeException commitError = null;
+      runtime.beginDeferringStateChanges();
+      try {
+        Entry<T> entry;
+        while (batchCount < maxPlansPerFrame && (entry = decoded.poll()) != null) {
+          commit(entry);
+          batchCount++;
+        }
+      } catch (RuntimeException e) {
+        commitError = e;
+      } finally {
+        runtime.endDeferringStateChanges();
+      }
+
+      if (batchCount > 0) {
+        listener.onProgress(committedCount);
+      }
+
+      if (commitError != null) {
+        // Stop the decoder too; it checks the error before decoding each entry.
+        error = commitError;
+        decoded.clear();
+        listener.onError(commitError);
+        return;
+      }
+
+      // The decoder clears decoding after it sets decodingFinished, so read them in this order.
+      if (!decoding && !decodingFinished) {
+        decoding = true;
+        executor.execute(decodeRunnable);
+      }
+
+      // Read the flag before checking the queue so that entries added before it was set are not
+      // missed.
+      boolean finished = decodingFinished;
+      if (finished && decoded.isEmpty()) {
+        if (error != null) {
+          listener.onError(error);
+        } else {
+          listener.onComplete(committedCount);
+        }
+      } else {
+        runtime.choreographer.postFrameCallback(this);
+      }
+    }
+  }
+}
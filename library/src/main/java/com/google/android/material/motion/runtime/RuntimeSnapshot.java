@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import com.google.android.material.motion.runtime.PerformerFeatures.StatefulPerforming;
+import com.google.android.material.motion.runtime.PlanFeatures.BinarySerializablePlan;
+
+import java.util.Map;
+
+/**
+ * A compact snapshot of a {@link MotionRuntime}'s named plans and {@link StatefulPerforming
+ * performer state}, created by {@link MotionRuntime#saveState(Map, PlanRegistry)}.
+ * <p>
+ * Only named plans that implement {@link BinarySerializablePlan} and are registered with the
+ * {@link PlanRegistry} are captured. Snapshots are {@link Parcelable}, so they can be stored in
+ * an Activity's saved instance state.
+ */
+public final class RuntimeSnapshot implements Parcelable {
+
+  public static final Creator<RuntimeSnapshot> CREATOR = new Creator<RuntimeSnapshot>() {
+    @Override
+    public RuntimeSnapshot createFromParcel(Parcel source) {
+      return new RuntimeSnapshot(source.createByteArray());
+    }
+
+    @Override
+    public RuntimeSnapshot[] newArray(int size) {
+      return new RuntimeSnapshot[size];
+    }
+  };
+
+  private final byte[] bytes;
+
+  RuntimeSnapshot(byte[] bytes) {
+    this.bytes = bytes;
+  }
+
+  /**
+   * Recreates a snapshot from the bytes returned by {@link #toByteArray()}.
+   */
+  public static RuntimeSnapshot fromByteArray(byte[] bytes) {
+    return new RuntimeSnapshot(bytes.clone());
+  }
+
+  /**
+   * @return The snapshot in its byte form.
+   */
+  public byte[] toByteArray() {
+    return bytes.clone();
+  }
+
+  byte[] getBytes() {
+    return bytes;
+  }
+
+  @Override
+  public int describeContents() {
+    return 0;
+  }
+
+  @Override
+  public void writeToParcel(Parcel dest, int flags) {
+    dest.writeByteArray(bytes);
+  }
+}
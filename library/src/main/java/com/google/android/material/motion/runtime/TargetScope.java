@@ -16,20 +16,33 @@
 
 package com.google.android.material.motion.runtime;
 
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 import android.support.v4.util.SimpleArrayMap;
+import android.util.SparseArray;
 
 import com.google.android.material.motion.runtime.MotionRuntime.State;
 import com.google.android.material.motion.runtime.Performer.PerformerInstantiationException;
+import com.google.android.material.motion.runtime.PerformerFeatures.ComponentPerforming;
 import com.google.android.material.motion.runtime.PerformerFeatures.ComposablePerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.ComposablePerforming.BulkPlanEmitter;
 import com.google.android.material.motion.runtime.PerformerFeatures.ComposablePerforming.PlanEmitter;
 import com.google.android.material.motion.runtime.PerformerFeatures.ContinuousPerforming;
 import com.google.android.material.motion.runtime.PerformerFeatures.ContinuousPerforming.IsActiveToken;
 import com.google.android.material.motion.runtime.PerformerFeatures.ContinuousPerforming.IsActiveTokenGenerator;
 import com.google.android.material.motion.runtime.PerformerFeatures.ManualPerforming;
-
+import com.google.android.material.motion.runtime.PerformerFeatures.RecyclablePerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.StatefulPerforming;
+import com.google.android.material.motion.runtime.PlanFeatures.BinarySerializablePlan;
+import com.google.android.material.motion.runtime.PlanFeatures.CacheablePlan;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import static com.google.android.material.motion.runtime.MotionRuntime.CONTINUOUS_DETAILED_STATE_FLAG;
@@ -43,14 +56,72 @@ import static com.google.android.material.motion.runtime.MotionRuntime.MANUAL_DE
  */
 class TargetScope<T> {
 
-  private final SimpleArrayMap<Class<? extends Performer<T>>, Performer<T>> cache = new SimpleArrayMap<>();
-  private final SimpleArrayMap<String, NamedPerformer<T>> namedCache = new SimpleArrayMap<>();
+  private static final int NO_HANDLE = Integer.MIN_VALUE;
+
+  /**
+   * This scope's performers, keyed by {@link MotionRuntime#getPerformerClassId(Class) performer
+   * class id}. Sparse, so a scope only holds entries for the classes it has used.
+   */
+  private SparseArray<Performer> performers = new SparseArray<>(1);
+  /**
+   * The liveness of each of this scope's performers, keyed like {@link #performers}.
+   */
+  private SparseArray<Liveness> performerLiveness = new SparseArray<>(1);
+  /**
+   * Named performers and plans, keyed by {@link MotionRuntime#internName(String) name handle}, or
+   * by local handle for names the runtime has not interned.
+   */
+  private final SparseArray<NamedPerformer<T>> namedCache = new SparseArray<>();
+  private final SparseArray<NamedPlan<T>> namedPlans = new SparseArray<>();
+  /**
+   * Negative handles of the names of this scope's named plans that the runtime has not interned.
+   * They are released together with their plans, so names built at runtime do not accumulate.
+   */
+  private final SimpleArrayMap<String, Integer> localHandles = new SimpleArrayMap<>();
+  private final SparseArray<String> localNames = new SparseArray<>();
+  private int nextLocalHandle = -1;
 
   private final Set<ManualPerforming> activeManualPerformers = new HashSet<>();
+  /**
+   * Manual performers activated while {@link #update(float)} iterates {@link
+   * #activeManualPerformers}. They join the active set once the iteration is done.
+   */
+  private final List<ManualPerforming> pendingManualPerformers = new ArrayList<>();
+  /**
+   * Manual performers cancelled while {@link #update(float)} iterates {@link
+   * #activeManualPerformers}. They leave the active set once the iteration is done.
+   */
+  private final List<ManualPerforming> cancelledManualPerformers = new ArrayList<>();
+  /**
+   * The number of this scope's {@link ComponentPerforming} performers that are active. The
+   * runtime updates them, rather than this scope.
+   */
+  private int activeComponentCount;
+  private boolean updating;
+  private boolean released;
+
+  /**
+   * The stable key this scope is bound to, if any, and the target bound to that key, which is
+   * null while the scope is detached. See {@link MotionRuntime#bindTarget(Object, Object)}.
+   */
+  @Nullable
+  Object key;
+  @Nullable
+  T boundTarget;
+  boolean detached;
 
   private final SimpleArrayMap<ContinuousPerforming, Set<IsActiveToken>>
     activeContinuousPerformers = new SimpleArrayMap<>();
 
+  /**
+   * The performer whose emitted plans are being recorded as the expansion of a {@link
+   * CacheablePlan}, and the plans recorded so far.
+   */
+  @Nullable
+  private Performer<T> recordingPerformer;
+  @Nullable
+  private List<Plan<T>> recordedExpansion;
+
   private final MotionRuntime runtime;
 
   TargetScope(MotionRuntime runtime) {
@@ -58,8 +129,12 @@ class TargetScope<T> {
   }
 
   void commitPlan(Plan<T> plan, T target) {
-    Performer<T> performer = commitPlanInternal(plan, target);
-    performer.addPlan(plan);
+    if (plan instanceof CacheablePlan && onlyEmitsPlans(plan.getPerformerClass())) {
+      commitCacheablePlan(plan, target);
+    } else {
+      Performer<T> performer = commitPlanInternal(plan, target);
+      performer.addPlan(plan);
+    }
 
     // notify tracers
     for (Tracing tracer : runtime.getTracers()) {
@@ -67,14 +142,132 @@ class TargetScope<T> {
     }
   }
 
+  /**
+   * Commits a {@link CacheablePlan}, either by committing copies of its cached expansion or by
+   * adding it to its performer and recording the plans it emits.
+   */
+  private void commitCacheablePlan(Plan<T> plan, T target) {
+    ExpansionCache expansionCache = runtime.getExpansionCache();
+    List<Plan<T>> expansion = expansionCache == null ? null : expansionCache.get(plan);
+    if (expansion != null) {
+      runtime.beginEmit();
+      runtime.beginDeferringStateChanges();
+      try {
+        for (Plan<T> expandedPlan : expansion) {
+          commitPlan(MotionRuntime.copyForCommit(expandedPlan), target);
+        }
+      } finally {
+        runtime.endDeferringStateChanges();
+        runtime.endEmit();
+      }
+      return;
+    }
+
+    Performer<T> performer = commitPlanInternal(plan, target);
+    if (expansionCache == null) {
+      performer.addPlan(plan);
+      return;
+    }
+
+    Performer<T> previousPerformer = recordingPerformer;
+    List<Plan<T>> previousExpansion = recordedExpansion;
+    expansion = new ArrayList<>();
+    recordingPerformer = performer;
+    recordedExpansion = expansion;
+    try {
+      performer.addPlan(plan);
+    } finally {
+      recordingPerformer = previousPerformer;
+      recordedExpansion = previousExpansion;
+    }
+    expansionCache.put(plan, expansion);
+  }
+
+  /**
+   * @return Whether the performer class is expected to do nothing but emit plans, so that its
+   * expansion of a plan can be cached or compiled.
+   */
+  static boolean onlyEmitsPlans(Class<?> performerClass) {
+    return ComposablePerforming.class.isAssignableFrom(performerClass)
+      && !ManualPerforming.class.isAssignableFrom(performerClass)
+      && !ContinuousPerforming.class.isAssignableFrom(performerClass);
+  }
+
+  /**
+   * Commits each operation of the program in order, with a single deferred state change.
+   */
+  void commitProgram(CommitProgram<T> program, T target) {
+    runtime.beginDeferringStateChanges();
+    try {
+      for (int i = 0, count = program.size(); i < count; i++) {
+        Plan<T> plan = MotionRuntime.copyForCommit(program.getPlan(i));
+        Performer<T> performer = commitPlanInternal(
+          program.getPerformerClass(i), program.getPerformerClassId(i), target);
+        performer.addPlan(plan);
+
+        // notify tracers
+        for (Tracing tracer : runtime.getTracers()) {
+          tracer.onAddPlan(plan, target);
+        }
+      }
+    } finally {
+      runtime.endDeferringStateChanges();
+    }
+  }
+
+  /**
+   * Adds a named plan by name, without interning the name in the runtime.
+   */
   void commitAddNamedPlan(NamedPlan<T> plan, String name, T target) {
-    // remove first
-    commitRemoveNamedPlan(name, target);
+    int handle = findHandle(name);
+    if (handle == NO_HANDLE) {
+      handle = nextLocalHandle--;
+      localHandles.put(name, handle);
+      localNames.put(handle, name);
+    }
+    commitAddNamedPlan(plan, handle, target);
+  }
+
+  void commitAddNamedPlan(NamedPlan<T> plan, int handle, T target) {
+    if (handle >= 0 && !localHandles.isEmpty()) {
+      adoptInternedHandle(handle);
+    }
+    NamedPerformer<T> existingPerformer = namedCache.get(handle);
+    if (existingPerformer != null) {
+      // an equal plan is already in place
+      if (plan.equals(namedPlans.get(handle))) {
+        return;
+      }
+
+      // the same performer fulfills both plans, so replace in place
+      if (existingPerformer.getClass() == plan.getPerformerClass()) {
+        commitReplaceNamedPlan(existingPerformer, plan, handle, target);
+        return;
+      }
+
+      // otherwise remove first
+      removeNamedPlan(handle, target);
+    }
 
     // then add
+    String name = getName(handle);
     NamedPerformer<T> performer = commitPlanInternal(plan, target);
     performer.addPlan(plan, name);
-    namedCache.put(name, performer);
+    namedCache.put(handle, performer);
+    namedPlans.put(handle, plan);
+
+    // notify tracers
+    for (Tracing tracer : runtime.getTracers()) {
+      tracer.onAddNamedPlan(plan, name, target);
+    }
+  }
+
+  private void commitReplaceNamedPlan(
+    NamedPerformer<T> performer, NamedPlan<T> plan, int handle, T target) {
+    String name = getName(handle);
+    commitPlanInternal(plan, target);
+    performer.replacePlan(plan, name);
+    namedPlans.put(handle, plan);
 
     // notify tracers
     for (Tracing tracer : runtime.getTracers()) {
@@ -83,10 +276,16 @@ class TargetScope<T> {
   }
 
   private <P extends Performer<T>> P commitPlanInternal(Plan<T> plan, T target) {
-    Performer<T> performer = getPerformer(plan, target);
+    return commitPlanInternal(
+      plan.getPerformerClass(), MotionRuntime.getPerformerClassId(plan), target);
+  }
+
+  private <P extends Performer<T>> P commitPlanInternal(
+    Class<? extends Performer<T>> performerClass, int performerClassId, T target) {
+    Performer<T> performer = getPerformer(performerClass, performerClassId, target);
 
     if (performer instanceof ManualPerforming) {
-      activeManualPerformers.add((ManualPerforming) performer);
+      activateManualPerformer((ManualPerforming) performer, performerClassId);
       notifyTargetStateChanged();
     }
 
@@ -94,9 +293,31 @@ class TargetScope<T> {
     return (P) performer;
   }
 
+  /**
+   * Removes a named plan by name, without interning the name in the runtime.
+   */
   void commitRemoveNamedPlan(String name, T target) {
-    NamedPerformer<T> performer = namedCache.get(name);
+    int handle = findHandle(name);
+    if (handle != NO_HANDLE) {
+      commitRemoveNamedPlan(handle, target);
+    }
+  }
+
+  void commitRemoveNamedPlan(int handle, T target) {
+    if (handle >= 0 && !localHandles.isEmpty()) {
+      adoptInternedHandle(handle);
+    }
+    removeNamedPlan(handle, target);
+    releaseLocalHandle(handle);
+  }
+
+  /**
+   * Removes a named plan without releasing its handle, which the caller may reuse.
+   */
+  private void removeNamedPlan(int handle, T target) {
+    NamedPerformer<T> performer = namedCache.get(handle);
     if (performer != null) {
+      String name = getName(handle);
       performer.removePlan(name);
 
       // notify tracers
@@ -104,20 +325,209 @@ class TargetScope<T> {
         tracer.onRemoveNamedPlan(name, target);
       }
     }
-    namedCache.remove(name);
+    namedCache.remove(handle);
+    namedPlans.remove(handle);
+  }
+
+  /**
+   * @return The runtime's handle of the name if it is interned, otherwise this scope's local
+   * handle of the name, or {@link #NO_HANDLE} if this scope has no plan with the name.
+   */
+  private int findHandle(String name) {
+    int handle = runtime.findNameHandle(name);
+    if (handle >= 0) {
+      if (!localHandles.isEmpty()) {
+        adoptInternedHandle(handle);
+      }
+      return handle;
+    }
+    Integer localHandle = localHandles.get(name);
+    return localHandle == null ? NO_HANDLE : localHandle;
+  }
+
+  /**
+   * Moves the plan of a name that was added by name before the name was interned to the name's
+   * interned handle.
+   */
+  private void adoptInternedHandle(int handle) {
+    Integer localHandle = localHandles.get(runtime.getInternedName(handle));
+    if (localHandle == null) {
+      return;
+    }
+    NamedPerformer<T> performer = namedCache.get(localHandle);
+    if (performer != null) {
+      namedCache.put(handle, performer);
+      namedPlans.put(handle, namedPlans.get(localHandle));
+      namedCache.remove(localHandle);
+      namedPlans.remove(localHandle);
+    }
+    releaseLocalHandle(localHandle);
+  }
+
+  private void releaseLocalHandle(int handle) {
+    if (handle < 0) {
+      String name = localNames.get(handle);
+      if (name != null) {
+        localNames.remove(handle);
+        localHandles.remove(name);
+      }
+      if (localNames.size() == 0) {
+        nextLocalHandle = -1;
+      }
+    }
+  }
+
+  private String getName(int handle) {
+    return handle >= 0 ? runtime.getInternedName(handle) : localNames.get(handle);
+  }
+
+  /**
+   * Writes this scope's serializable named plans and the state of its {@link StatefulPerforming}
+   * performers.
+   */
+  void saveState(BinaryPlanWriter writer, PlanRegistry registry) throws IOException {
+    int planCount = 0;
+    for (int i = 0, count = namedPlans.size(); i < count; i++) {
+      if (isSerializable(namedPlans.valueAt(i), registry)) {
+        planCount++;
+      }
+    }
+    writer.writeVarInt(planCount);
+    for (int i = 0, count = namedPlans.size(); i < count; i++) {
+      NamedPlan<T> plan = namedPlans.valueAt(i);
+      if (isSerializable(plan, registry)) {
+        writer.writeString(getName(namedPlans.keyAt(i)));
+        writer.writePlan(plan);
+      }
+    }
+
+    int performerCount = 0;
+    for (int i = 0, count = performers.size(); i < count; i++) {
+      if (performers.valueAt(i) instanceof StatefulPerforming) {
+        performerCount++;
+      }
+    }
+    writer.writeVarInt(performerCount);
+    BinaryPlanWriter stateWriter = new BinaryPlanWriter(registry);
+    for (int i = 0, count = performers.size(); i < count; i++) {
+      Performer performer = performers.valueAt(i);
+      if (performer instanceof StatefulPerforming) {
+        stateWriter.reset();
+        ((StatefulPerforming) performer).saveState(stateWriter);
+        writer.writeString(performer.getClass().getName());
+        writer.writeVarInt(stateWriter.size());
+        writer.writeBytes(stateWriter.toByteArray(), 0, stateWriter.size());
+      }
+    }
+  }
+
+  /**
+   * Restores named plans and performer state written by {@link #saveState(BinaryPlanWriter,
+   * PlanRegistry)}.
+   * <p>
+   * Named plans are handed straight to their performers rather than going through {@link
+   * #commitAddNamedPlan(NamedPlan, int, Object)}, and the runtime is notified of this scope's
+   * state once at the end.
+   */
+  void restoreState(BinaryPlanReader reader, T target, PlanRegistry registry)
+    throws IOException {
+    for (int i = 0, count = reader.readVarInt(); i < count; i++) {
+      String savedName = reader.readString();
+      MotionRuntime.checkName(savedName);
+      Plan<T> decoded = reader.readPlan();
+      if (!(decoded instanceof NamedPlan)) {
+        continue;
+      }
+      NamedPlan<T> plan = (NamedPlan<T>) decoded;
+
+      int handle = findHandle(savedName);
+      if (handle != NO_HANDLE && namedCache.get(handle) != null) {
+        commitAddNamedPlan(plan, handle, target);
+        continue;
+      }
+      if (handle == NO_HANDLE) {
+        handle = nextLocalHandle--;
+        localHandles.put(savedName, handle);
+        localNames.put(handle, savedName);
+      }
+
+      int performerClassId = MotionRuntime.getPerformerClassId(plan);
+      //noinspection unchecked
+      NamedPerformer<T> performer =
+        (NamedPerformer<T>) getPerformer(plan.getPerformerClass(), performerClassId, target);
+      if (performer instanceof ManualPerforming) {
+        activateManualPerformer((ManualPerforming) performer, performerClassId);
+      }
+      performer.addPlan(plan, savedName);
+      namedCache.put(handle, performer);
+      namedPlans.put(handle, plan);
+
+      for (Tracing tracer : runtime.getTracers()) {
+        tracer.onAddNamedPlan(plan, savedName, target);
+      }
+    }
+
+    for (int i = 0, count = reader.readVarInt(); i < count; i++) {
+      String performerClassName = reader.readString();
+      byte[] state = new byte[reader.readVarInt()];
+      reader.readFully(state);
+
+      for (int j = 0, performerCount = performers.size(); j < performerCount; j++) {
+        Performer performer = performers.valueAt(j);
+        if (performer instanceof StatefulPerforming
+          && performer.getClass().getName().equals(performerClassName)) {
+          ((StatefulPerforming) performer)
+            .restoreState(new BinaryPlanReader(registry, ByteBuffer.wrap(state)));
+        }
+      }
+    }
+
+    notifyTargetStateChanged();
+  }
+
+  private static boolean isSerializable(Plan<?> plan, PlanRegistry registry) {
+    return plan instanceof BinarySerializablePlan && registry.getId(plan.getClass()) >= 0;
   }
 
   void update(float deltaTimeMs) {
     Iterator<ManualPerforming> iterator = activeManualPerformers.iterator();
 
     boolean changed = false;
-    while (iterator.hasNext()) {
-      ManualPerforming performer = iterator.next();
-      @State int state = performer.update(deltaTimeMs);
-      if (state == MotionRuntime.IDLE) {
-        iterator.remove();
-        changed = true;
+    updating = true;
+    try {
+      while (!released && iterator.hasNext()) {
+        ManualPerforming performer = iterator.next();
+        if (!cancelledManualPerformers.isEmpty() && cancelledManualPerformers.contains(performer)) {
+          continue;
+        }
+        @State int state = performer.update(deltaTimeMs);
+        if (released) {
+          // the scope was released, and its active performers cleared, during the update
+          break;
+        }
+        if (state == MotionRuntime.IDLE) {
+          iterator.remove();
+          changed = true;
+        }
       }
+    } finally {
+      updating = false;
+    }
+
+    if (released) {
+      return;
+    }
+
+    if (!cancelledManualPerformers.isEmpty()) {
+      activeManualPerformers.removeAll(cancelledManualPerformers);
+      cancelledManualPerformers.clear();
+      changed = true;
+    }
+
+    if (!pendingManualPerformers.isEmpty()) {
+      activeManualPerformers.addAll(pendingManualPerformers);
+      pendingManualPerformers.clear();
+      changed = true;
     }
 
     if (changed) {
@@ -125,13 +535,213 @@ class TargetScope<T> {
     }
   }
 
+  /**
+   * Adds a performer to the active manual performers, or defers the addition if they are being
+   * iterated.
+   */
+  private void activateManualPerformer(ManualPerforming performer, int performerClassId) {
+    if (performer instanceof ComponentPerforming) {
+      if (runtime.getComponentStore(performerClassId)
+        .add((ComponentPerforming) performer, this)) {
+        activeComponentCount++;
+      }
+      return;
+    }
+    if (updating) {
+      pendingManualPerformers.add(performer);
+    } else {
+      activeManualPerformers.add(performer);
+    }
+  }
+
+  /**
+   * Called by a {@link ComponentStore} when one of this scope's performers becomes idle.
+   */
+  void onComponentIdle() {
+    activeComponentCount--;
+    notifyTargetStateChanged();
+  }
+
+  /**
+   * Terminates the performer created for the class id, if any, and drops its named plans and
+   * is-active tokens.
+   *
+   * @return Whether a performer was terminated.
+   */
+  boolean cancelPerformer(int performerClassId, T target) {
+    //noinspection unchecked
+    Performer<T> performer = performers.get(performerClassId);
+    if (performer == null) {
+      return false;
+    }
+    performers.remove(performerClassId);
+    performerLiveness.get(performerClassId).live = false;
+    performerLiveness.remove(performerClassId);
+
+    for (int i = namedCache.size() - 1; i >= 0; i--) {
+      if (namedCache.valueAt(i) == performer) {
+        int handle = namedCache.keyAt(i);
+        namedCache.removeAt(i);
+        namedPlans.remove(handle);
+
+        // notify tracers
+        String name = getName(handle);
+        for (Tracing tracer : runtime.getTracers()) {
+          tracer.onRemoveNamedPlan(name, target);
+        }
+        releaseLocalHandle(handle);
+      }
+    }
+
+    if (performer instanceof ComponentPerforming) {
+      if (runtime.getComponentStore(performerClassId).remove((ComponentPerforming) performer)) {
+        activeComponentCount--;
+      }
+    } else if (performer instanceof ManualPerforming) {
+      ManualPerforming manualPerformer = (ManualPerforming) performer;
+      pendingManualPerformers.remove(manualPerformer);
+      if (updating) {
+        cancelledManualPerformers.add(manualPerformer);
+      } else {
+        activeManualPerformers.remove(manualPerformer);
+      }
+    }
+
+    if (performer instanceof ContinuousPerforming) {
+      releaseTokens(activeContinuousPerformers.remove(performer));
+    }
+
+    performer.onTerminate();
+    runtime.recyclePerformer(performerClassId, performer);
+    notifyTargetStateChanged();
+    return true;
+  }
+
+  /**
+   * Terminates every performer of this scope and drops all of its plans. The scope must not be
+   * used afterwards. Is-active tokens and plan emitters held by its performers become inert.
+   */
+  void release() {
+    if (released) {
+      return;
+    }
+    released = true;
+
+    SparseArray<Performer> releasedPerformers = performers;
+    performers = new SparseArray<>(0);
+    for (int i = 0, count = performerLiveness.size(); i < count; i++) {
+      performerLiveness.valueAt(i).live = false;
+    }
+    performerLiveness = new SparseArray<>(0);
+    namedCache.clear();
+    namedPlans.clear();
+    localHandles.clear();
+    localNames.clear();
+    activeManualPerformers.clear();
+    pendingManualPerformers.clear();
+    cancelledManualPerformers.clear();
+    activeComponentCount = 0;
+    for (int i = 0, count = releasedPerformers.size(); i < count; i++) {
+      Performer performer = releasedPerformers.valueAt(i);
+      if (performer instanceof ComponentPerforming) {
+        runtime.getComponentStore(releasedPerformers.keyAt(i))
+          .remove((ComponentPerforming) performer);
+      }
+    }
+    for (int i = 0, count = activeContinuousPerformers.size(); i < count; i++) {
+      releaseTokens(activeContinuousPerformers.valueAt(i));
+    }
+    activeContinuousPerformers.clear();
+
+    for (int i = 0, count = releasedPerformers.size(); i < count; i++) {
+      Performer performer = releasedPerformers.valueAt(i);
+      performer.onTerminate();
+      runtime.recyclePerformer(releasedPerformers.keyAt(i), performer);
+    }
+    notifyTargetStateChanged();
+  }
+
+  /**
+   * Binds this scope to a new target, moving every performer to it.
+   */
+  void attach(T target) {
+    T oldTarget = boundTarget;
+    boolean wasDetached = detached;
+    boundTarget = target;
+    detached = false;
+
+    if (oldTarget != target) {
+      for (int i = 0, count = performers.size(); i < count; i++) {
+        //noinspection unchecked
+        performers.valueAt(i).rebind(target);
+      }
+    }
+    if (wasDetached) {
+      // component performers left their stores on detach, and leave again once they are idle
+      for (int i = 0, count = performers.size(); i < count; i++) {
+        Performer performer = performers.valueAt(i);
+        if (performer instanceof ComponentPerforming) {
+          activateManualPerformer((ManualPerforming) performer, performers.keyAt(i));
+        }
+      }
+    }
+    notifyTargetStateChanged();
+  }
+
+  /**
+   * Unbinds this scope from its target. Its performers keep their plans and state but are not
+   * updated, and do not count towards the runtime's state, until the scope is attached again.
+   * <p>
+   * Each performer is notified with {@link Performer#onDetach()} and loses its target, its
+   * is-active tokens are released, and its plan emitter ignores plans while the scope is
+   * detached, so that nothing writes to a target that may already show another item.
+   */
+  void detach() {
+    boundTarget = null;
+    detached = true;
+
+    for (int i = 0, count = performers.size(); i < count; i++) {
+      Performer performer = performers.valueAt(i);
+      if (performer instanceof ComponentPerforming) {
+        if (runtime.getComponentStore(performers.keyAt(i))
+          .remove((ComponentPerforming) performer)) {
+          activeComponentCount--;
+        }
+      }
+    }
+    for (int i = 0, count = activeContinuousPerformers.size(); i < count; i++) {
+      releaseTokens(activeContinuousPerformers.valueAt(i));
+    }
+    activeContinuousPerformers.clear();
+    for (int i = 0, count = performers.size(); i < count; i++) {
+      Performer performer = performers.valueAt(i);
+      performer.onDetach();
+      performer.clearTarget();
+    }
+    notifyTargetStateChanged();
+  }
+
+  private void releaseTokens(@Nullable Set<IsActiveToken> tokens) {
+    if (tokens == null) {
+      return;
+    }
+    for (IsActiveToken token : tokens) {
+      ((Token) token).released = true;
+    }
+    tokens.clear();
+  }
+
   private void notifyTargetStateChanged() {
     runtime.setTargetState(this, getDetailedState());
   }
 
-  private int getDetailedState() {
+  int getDetailedState() {
+    if (detached) {
+      return 0;
+    }
     int state = 0;
-    if (!activeManualPerformers.isEmpty()) {
+    if (!activeManualPerformers.isEmpty() || !pendingManualPerformers.isEmpty()
+      || activeComponentCount > 0) {
       state |= MANUAL_DETAILED_STATE_FLAG;
     }
     if (!activeContinuousPerformers.isEmpty()) {
@@ -140,36 +750,53 @@ class TargetScope<T> {
     return state;
   }
 
-  private Performer<T> getPerformer(Plan<T> plan, T target) {
-    Class<? extends Performer<T>> performerClass = plan.getPerformerClass();
-    Performer<T> performer = cache.get(performerClass);
-
-    if (performer == null) {
-      performer = createPerformer(plan, target);
-      cache.put(performerClass, performer);
+  private Performer<T> getPerformer(
+    Class<? extends Performer<T>> performerClass, int id, T target) {
+    //noinspection unchecked
+    Performer<T> performer = performers.get(id);
+    if (performer != null) {
+      return performer;
     }
 
+    Liveness liveness = new Liveness();
+    performer = createPerformer(performerClass, id, target, liveness);
+    performers.put(id, performer);
+    performerLiveness.put(id, liveness);
+
     return performer;
   }
 
-  private Performer<T> createPerformer(Plan<T> plan, T target) {
-    Class<? extends Performer<T>> performerClass = plan.getPerformerClass();
-
+  /**
+   * Creates a performer, or reuses a pooled {@link RecyclablePerforming} one of the same class,
+   * and initializes it with the target.
+   */
+  private Performer<T> createPerformer(
+    Class<? extends Performer<T>> performerClass, int performerClassId, T target,
+    Liveness liveness) {
     //noinspection TryWithIdenticalCatches
     try {
-      Performer<T> performer = performerClass.newInstance();
+      //noinspection unchecked
+      Performer<T> performer = runtime.obtainPooledPerformer(performerClassId);
+      if (performer == null) {
+        performer = performerClass.newInstance();
+      }
       performer.initialize(target);
 
+      if (performer instanceof BatchPerformer.Entry) {
+        BatchPerformer.Entry<T> entry = (BatchPerformer.Entry<T>) performer;
+        entry.batchPerformer = runtime.getBatchPerformer(entry.getBatchPerformerClass());
+      }
+
       if (performer instanceof ContinuousPerforming) {
         ContinuousPerforming continuousPerformer = (ContinuousPerforming) performer;
         continuousPerformer
-          .setIsActiveTokenGenerator(createIsActiveTokenGenerator(continuousPerformer));
+          .setIsActiveTokenGenerator(createIsActiveTokenGenerator(continuousPerformer, liveness));
       }
 
       if (performer instanceof ComposablePerforming) {
         //noinspection unchecked
         ComposablePerforming<T> composablePerformer = (ComposablePerforming<T>) performer;
-        composablePerformer.setPlanEmitter(createPlanEmitter(performer));
+        composablePerformer.setPlanEmitter(createPlanEmitter(performer, liveness));
       }
 
       for (Tracing tracing : runtime.getTracers()) {
@@ -189,11 +816,21 @@ class TargetScope<T> {
    * ContinuousPerforming}.
    */
   @VisibleForTesting
-  IsActiveTokenGenerator createIsActiveTokenGenerator(
-    final ContinuousPerforming performer) {
+  IsActiveTokenGenerator createIsActiveTokenGenerator(ContinuousPerforming performer) {
+    return createIsActiveTokenGenerator(performer, new Liveness());
+  }
+
+  private IsActiveTokenGenerator createIsActiveTokenGenerator(
+    final ContinuousPerforming performer, final Liveness liveness) {
     return new IsActiveTokenGenerator() {
       @Override
       public IsActiveToken generate() {
+        if (!liveness.live || detached) {
+          Token token = new Token(performer, null);
+          token.released = true;
+          return token;
+        }
+
         final Set<IsActiveToken> tokens;
 
         if (activeContinuousPerformers.containsKey(performer)) {
@@ -203,20 +840,7 @@ class TargetScope<T> {
           activeContinuousPerformers.put(performer, tokens);
         }
 
-        IsActiveToken token = new IsActiveToken() {
-          @Override
-          public void terminate() {
-            boolean modified = tokens.remove(this);
-            if (!modified) {
-              throw new IllegalStateException("IsActiveToken already terminated.");
-            }
-
-            if (tokens.isEmpty()) {
-              activeContinuousPerformers.remove(performer);
-            }
-            notifyTargetStateChanged();
-          }
-        };
+        IsActiveToken token = new Token(performer, tokens);
         tokens.add(token);
 
         notifyTargetStateChanged();
@@ -226,14 +850,96 @@ class TargetScope<T> {
   }
 
   /**
-   * Creates a {@link PlanEmitter} to be assigned to the given performer.
+   * An {@link IsActiveToken} that does nothing once its performer has been cancelled or its scope
+   * released.
+   */
+  private class Token implements IsActiveToken {
+
+    private final ContinuousPerforming performer;
+    @Nullable
+    private final Set<IsActiveToken> tokens;
+    private boolean released;
+
+    private Token(ContinuousPerforming performer, @Nullable Set<IsActiveToken> tokens) {
+      this.performer = performer;
+      this.tokens = tokens;
+    }
+
+    @Override
+    public void terminate() {
+      if (released || tokens == null) {
+        return;
+      }
+
+      boolean modified = tokens.remove(this);
+      if (!modified) {
+        throw new IllegalStateException("IsActiveToken already terminated.");
+      }
+
+      if (tokens.isEmpty()) {
+        activeContinuousPerformers.remove(performer);
+      }
+      notifyTargetStateChanged();
+    }
+  }
+
+  /**
+   * Creates a {@link BulkPlanEmitter} to be assigned to the given performer. The emitter commits
+   * plans straight into this scope, and ignores them while the scope is detached or once the
+   * performer has been cancelled.
    */
-  private PlanEmitter<T> createPlanEmitter(final Performer<T> performer) {
-    return new PlanEmitter<T>() {
+  private BulkPlanEmitter<T> createPlanEmitter(
+    final Performer<T> performer, final Liveness liveness) {
+    return new BulkPlanEmitter<T>() {
       @Override
       public void emit(Plan<T> plan) {
-        runtime.addPlan(plan, performer.getTarget());
+        if (!liveness.live || detached) {
+          return;
+        }
+        record(plan);
+        runtime.beginEmit();
+        try {
+          commitPlan(plan, performer.getTarget());
+        } finally {
+          runtime.endEmit();
+        }
+      }
+
+      @Override
+      public void emitAll(Collection<? extends Plan<T>> plans) {
+        if (!liveness.live || detached) {
+          return;
+        }
+        T target = performer.getTarget();
+        runtime.beginEmit();
+        runtime.beginDeferringStateChanges();
+        try {
+          for (Plan<T> plan : plans) {
+            record(plan);
+            commitPlan(plan, target);
+          }
+        } finally {
+          runtime.endDeferringStateChanges();
+          runtime.endEmit();
+        }
+      }
+
+      private void record(Plan<T> plan) {
+        if (recordingPerformer == performer) {
+          // copied, since the committed plan is handed to its performer
+          recordedExpansion.add(MotionRuntime.copyForCommit(plan));
+        }
       }
     };
   }
+
+  /**
+   * Whether a performer created by this scope is still part of it. Shared by the performer's
+   * is-active token generator and plan emitter, so that they can check it without looking the
+   * performer up, and cleared when the performer is cancelled or the scope released.
+   */
+  private static final class Liveness {
+
+    private boolean live = true;
+  }
 }
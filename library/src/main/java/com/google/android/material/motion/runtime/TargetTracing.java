@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2016 - present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.motion.runtime;
+
+/**
+ * An optional extension of {@link Tracing} for tracers that also observe targets being removed
+ * from the runtime. The runtime only invokes these hooks on tracers that implement this interface.
+ */
+public interface TargetTracing extends Tracing {
+
+  /**
+   * Invoked after a target, and all of its plans and performers, has been removed from the
+   * runtime.
+   *
+   * @param target the object which was removed.
+   */
+  <T> void onRemoveTarget(T target);
+}
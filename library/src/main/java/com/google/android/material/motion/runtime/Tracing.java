@@ -34,7 +34,8 @@ public interface Tracing {
   <T> void onAddPlan(Plan<T> plan, T target);
 
   /**
-   * Invoked after a named plan has been added to the runtime.
+   * Invoked after a named plan has been added to the runtime. When the plan replaces a named plan
+   * with the same name and performer, this is the only notification for the replacement.
    *
    * @param plan the plan which was added.
    * @param name the name by which the plan is identifiable.
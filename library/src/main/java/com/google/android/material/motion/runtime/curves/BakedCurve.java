@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import android.animation.TimeInterpolator;
+
+import com.google.android.material.motion.runtime.physics.PhysicsSolution;
+
+/**
+ * A curve sampled at evenly spaced times, which is played back with one array lookup and one
+ * linear interpolation per value.
+ * <p>
+ * Baking pays for the easing or physics math once, instead of on every frame of every target.
+ * Baked curves are immutable and can be shared between any number of performers.
+ */
+public final class BakedCurve {
+
+  /**
+   * The default time between two samples, in milliseconds.
+   */
+  public static final float DEFAULT_SAMPLE_INTERVAL_MS = 4f;
+
+  final float[] samples;
+  private final float durationMs;
+  private final float samplesPerMs;
+
+  /**
+   * Wraps the samples without copying them. The samples must not change afterwards.
+   */
+  BakedCurve(float[] samples, float durationMs) {
+    if (samples.length < 2) {
+      throw new IllegalArgumentException("A curve needs at least two samples.");
+    }
+    if (durationMs <= 0f) {
+      throw new IllegalArgumentException("The duration must be positive.");
+    }
+    this.samples = samples;
+    this.durationMs = durationMs;
+    this.samplesPerMs = (samples.length - 1) / durationMs;
+  }
+
+  /**
+   * Bakes the interpolator over the duration, with the {@link #DEFAULT_SAMPLE_INTERVAL_MS default
+   * sample interval}.
+   */
+  public static BakedCurve bake(TimeInterpolator interpolator, float durationMs) {
+    return bake(interpolator, durationMs, DEFAULT_SAMPLE_INTERVAL_MS);
+  }
+
+  /**
+   * Bakes the interpolator over the duration. The values go from the interpolation of 0 to the
+   * interpolation of 1.
+   *
+   * @param sampleIntervalMs the longest time between two samples. The samples are spread evenly
+   * so that the last one falls on the duration.
+   */
+  public static BakedCurve bake(
+    TimeInterpolator interpolator, float durationMs, float sampleIntervalMs) {
+    float[] samples = new float[sampleCount(durationMs, sampleIntervalMs)];
+    int last = samples.length - 1;
+    for (int i = 0; i <= last; i++) {
+      samples[i] = interpolator.getInterpolation((float) i / last);
+    }
+    return new BakedCurve(samples, durationMs);
+  }
+
+  /**
+   * Bakes the positions of the solution from time 0 to its settle time, with the {@link
+   * #DEFAULT_SAMPLE_INTERVAL_MS default sample interval}. The last sample is the rest position.
+   */
+  public static BakedCurve bake(PhysicsSolution solution) {
+    return bake(solution, DEFAULT_SAMPLE_INTERVAL_MS);
+  }
+
+  /**
+   * Bakes the positions of the solution from time 0 to its settle time. The last sample is the
+   * rest position.
+   *
+   * @param sampleIntervalMs the longest time between two samples.
+   */
+  public static BakedCurve bake(PhysicsSolution solution, float sampleIntervalMs) {
+    float settleTimeS = solution.getSettleTime();
+    if (Float.isInfinite(settleTimeS)) {
+      throw new IllegalArgumentException("The solution never comes to rest.");
+    }
+    // a solution that is at rest from the start still gets one sample interval
+    float durationMs = Math.max(settleTimeS * 1000f, sampleIntervalMs);
+    float[] samples = new float[sampleCount(durationMs, sampleIntervalMs)];
+    int last = samples.length - 1;
+    for (int i = 0; i < last; i++) {
+      samples[i] = solution.getPosition(durationMs / 1000f * i / last);
+    }
+    samples[last] = solution.getRestPosition();
+    return new BakedCurve(samples, durationMs);
+  }
+
+  private static int sampleCount(float durationMs, float sampleIntervalMs) {
+    if (durationMs <= 0f) {
+      throw new IllegalArgumentException("The duration must be positive.");
+    }
+    if (sampleIntervalMs <= 0f) {
+      throw new IllegalArgumentException("The sample interval must be positive.");
+    }
+    return Math.max(2, (int) Math.ceil(durationMs / sampleIntervalMs) + 1);
+  }
+
+  /**
+   * @return The value at the time, interpolated linearly between the two closest samples. Times
+   * outside of the curve's duration are clamped to it.
+   */
+  public float getValue(float timeMs) {
+    int last = samples.length - 1;
+    if (timeMs <= 0f) {
+      return samples[0];
+    }
+    if (timeMs >= durationMs) {
+      return samples[last];
+    }
+    float position = timeMs * samplesPerMs;
+    int index = Math.min((int) position, last - 1);
+    float fraction = position - index;
+    float start = samples[index];
+    return start + (samples[index + 1] - start) * fraction;
+  }
+
+  /**
+   * @return The time of the last sample, in milliseconds.
+   */
+  public float getDurationMs() {
+    return durationMs;
+  }
+
+  public int getSampleCount() {
+    return samples.length;
+  }
+
+  /**
+   * @return The approximate number of bytes this curve holds on to.
+   */
+  public int getByteCount() {
+    return samples.length * 4;
+  }
+}
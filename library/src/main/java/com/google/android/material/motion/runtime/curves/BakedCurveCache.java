@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.support.annotation.Nullable;
+import android.support.v4.util.LruCache;
+
+/**
+ * A byte-bounded LRU cache of {@link BakedCurve baked curves}, keyed by the {@link CurveKey
+ * parameters} they are baked from, so that animations with the same parameters share one curve.
+ * <p>
+ * Register the cache with {@link android.content.Context#registerComponentCallbacks} to release
+ * its curves when the system runs low on memory. Curves that are playing are kept alive by their
+ * performers; evicting them only means the next identical animation bakes its curve again.
+ * <p>
+ * With a {@link #setDiskCache(DiskCurveCache) disk cache}, misses of {@link CurveKey#isStable()
+ * stable} keys are looked up on disk before they are baked, and newly baked curves are added to
+ * it.
+ */
+public final class BakedCurveCache implements ComponentCallbacks2 {
+
+  /**
+   * The default bound of the cache, in bytes.
+   */
+  public static final int DEFAULT_MAX_BYTES = 256 * 1024;
+
+  private static BakedCurveCache defaultCache;
+
+  private final LruCache<CurveKey, BakedCurve> cache;
+  @Nullable
+  private volatile DiskCurveCache diskCache;
+
+  /**
+   * @param maxBytes the most bytes of samples the cache holds on to. Must be positive.
+   */
+  public BakedCurveCache(int maxBytes) {
+    cache = new LruCache<CurveKey, BakedCurve>(maxBytes) {
+      @Override
+      protected int sizeOf(CurveKey key, BakedCurve curve) {
+        return curve.getByteCount();
+      }
+
+      @Override
+      protected BakedCurve create(CurveKey key) {
+        DiskCurveCache diskCache = BakedCurveCache.this.diskCache;
+        if (diskCache == null || !key.isStable()) {
+          return key.bake();
+        }
+        BakedCurve curve = diskCache.get(key);
+        if (curve == null) {
+          curve = key.bake();
+          diskCache.put(key, curve);
+        }
+        return curve;
+      }
+    };
+  }
+
+  /**
+   * @return The cache that {@link TweenPlan tweens} use unless told otherwise, bounded by {@link
+   * #DEFAULT_MAX_BYTES}.
+   */
+  public static BakedCurveCache getDefault() {
+    if (defaultCache == null) {
+      defaultCache = new BakedCurveCache(DEFAULT_MAX_BYTES);
+    }
+    return defaultCache;
+  }
+
+  /**
+   * Sets the disk cache that misses are looked up in and that baked curves are added to, or null
+   * to only bake curves. The disk cache is not saved by this cache.
+   */
+  public void setDiskCache(@Nullable DiskCurveCache diskCache) {
+    this.diskCache = diskCache;
+  }
+
+  /**
+   * @return The curve of the key, which is baked and cached if it is not cached already.
+   */
+  public BakedCurve get(CurveKey key) {
+    return cache.get(key);
+  }
+
+  /**
+   * @return The number of {@link #get(CurveKey)} calls that found their curve in the cache.
+   */
+  public int getHitCount() {
+    return cache.hitCount();
+  }
+
+  /**
+   * @return The number of {@link #get(CurveKey)} calls that did not find their curve in the cache.
+   */
+  public int getMissCount() {
+    return cache.missCount();
+  }
+
+  /**
+   * @return The number of bytes of samples in the cache.
+   */
+  public int getByteCount() {
+    return cache.size();
+  }
+
+  public int getMaxBytes() {
+    return cache.maxSize();
+  }
+
+  /**
+   * Drops every cached curve.
+   */
+  public void evictAll() {
+    cache.evictAll();
+  }
+
+  /**
+   * Drops every cached curve once the app is in the background, and trims the cache to half of its
+   * bound while the app runs low on memory in the foreground.
+   */
+  @Override
+  public void onTrimMemory(int level) {
+    if (level >= TRIM_MEMORY_BACKGROUND) {
+      cache.evictAll();
+    } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+      cache.trimToSize(cache.maxSize() / 2);
+    }
+  }
+
+  @Override
+  public void onLowMemory() {
+    cache.evictAll();
+  }
+
+  @Override
+  public void onConfigurationChanged(Configuration newConfig) {
+  }
+}
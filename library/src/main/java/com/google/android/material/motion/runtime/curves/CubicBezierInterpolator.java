@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import android.animation.TimeInterpolator;
+
+/**
+ * Eases with the cubic Bézier curve from (0, 0) to (1, 1) through two control points, like
+ * {@code PathInterpolator} on API 21 and above.
+ * <p>
+ * Each call solves the curve for the input numerically, so bake the interpolator into a {@link
+ * BakedCurve} rather than calling it on every frame. Interpolators with the same control points
+ * are equal.
+ */
+public final class CubicBezierInterpolator implements TimeInterpolator {
+
+  /**
+   * The Material standard curve, for elements that move within the screen.
+   */
+  public static final CubicBezierInterpolator FAST_OUT_SLOW_IN =
+    new CubicBezierInterpolator(0.4f, 0f, 0.2f, 1f);
+  /**
+   * The Material deceleration curve, for elements that enter the screen.
+   */
+  public static final CubicBezierInterpolator LINEAR_OUT_SLOW_IN =
+    new CubicBezierInterpolator(0f, 0f, 0.2f, 1f);
+  /**
+   * The Material acceleration curve, for elements that leave the screen.
+   */
+  public static final CubicBezierInterpolator FAST_OUT_LINEAR_IN =
+    new CubicBezierInterpolator(0.4f, 0f, 1f, 1f);
+
+  private static final int NEWTON_ITERATIONS = 8;
+  private static final int BISECTIONS = 24;
+  private static final float EPSILON = 1e-6f;
+
+  final float x1;
+  final float y1;
+  final float x2;
+  final float y2;
+
+  /**
+   * @param x1 the x of the first control point. Must be within [0, 1].
+   * @param y1 the y of the first control point.
+   * @param x2 the x of the second control point. Must be within [0, 1].
+   * @param y2 the y of the second control point.
+   */
+  public CubicBezierInterpolator(float x1, float y1, float x2, float y2) {
+    if (x1 < 0f || x1 > 1f || x2 < 0f || x2 > 1f) {
+      throw new IllegalArgumentException("The control points' x must be within [0, 1].");
+    }
+    this.x1 = x1;
+    this.y1 = y1;
+    this.x2 = x2;
+    this.y2 = y2;
+  }
+
+  @Override
+  public float getInterpolation(float input) {
+    if (input <= 0f) {
+      return 0f;
+    }
+    if (input >= 1f) {
+      return 1f;
+    }
+    return bezier(y1, y2, solve(input));
+  }
+
+  /**
+   * @return The curve parameter whose x is the input.
+   */
+  private float solve(float x) {
+    float t = x;
+    for (int i = 0; i < NEWTON_ITERATIONS; i++) {
+      float error = bezier(x1, x2, t) - x;
+      if (Math.abs(error) < EPSILON) {
+        return t;
+      }
+      float slope = slope(x1, x2, t);
+      if (Math.abs(slope) < EPSILON) {
+        break;
+      }
+      t -= error / slope;
+    }
+
+    // x increases with t, so fall back to bisection where Newton's method does not converge
+    float low = 0f;
+    float high = 1f;
+    t = x;
+    for (int i = 0; i < BISECTIONS; i++) {
+      float error = bezier(x1, x2, t) - x;
+      if (Math.abs(error) < EPSILON) {
+        break;
+      }
+      if (error > 0f) {
+        high = t;
+      } else {
+        low = t;
+      }
+      t = (low + high) / 2f;
+    }
+    return t;
+  }
+
+  private static float bezier(float p1, float p2, float t) {
+    float u = 1f - t;
+    return 3f * u * u * t * p1 + 3f * u * t * t * p2 + t * t * t;
+  }
+
+  private static float slope(float p1, float p2, float t) {
+    float u = 1f - t;
+    return 3f * u * u * p1 + 6f * u * t * (p2 - p1) + 3f * t * t * (1f - p2);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CubicBezierInterpolator)) {
+      return false;
+    }
+    CubicBezierInterpolator other = (CubicBezierInterpolator) o;
+    return x1 == other.x1 && y1 == other.y1 && x2 == other.x2 && y2 == other.y2;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = Float.floatToIntBits(x1);
+    result = 31 * result + Float.floatToIntBits(y1);
+    result = 31 * result + Float.floatToIntBits(x2);
+    result = 31 * result + Float.floatToIntBits(y2);
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "cubic-bezier(" + x1 + ", " + y1 + ", " + x2 + ", " + y2 + ")";
+  }
+}
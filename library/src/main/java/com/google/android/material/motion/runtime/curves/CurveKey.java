@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import android.animation.TimeInterpolator;
+import android.support.annotation.Nullable;
+
+import com.google.android.material.motion.runtime.physics.SpringSolution;
+
+import java.util.Arrays;
+
+/**
+ * The parameters a {@link BakedCurve} is baked from. Keys with equal parameters bake equal
+ * curves, so a {@link BakedCurveCache} can share one curve between them.
+ * <p>
+ * Keys whose parameters are all values, such as those of a {@link CubicBezierInterpolator}, are
+ * {@link #isStable() stable}: their {@link #getStableHash() stable hash} is the same in every
+ * process. Keys of other interpolators compare the interpolators with {@link Object#equals(Object)}.
+ */
+public final class CurveKey {
+
+  private static final int BEZIER_TWEEN = 1;
+  private static final int INTERPOLATOR_TWEEN = 2;
+  private static final int SPRING = 3;
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final int kind;
+  private final float[] parameters;
+  @Nullable
+  private final TimeInterpolator interpolator;
+  private final int hashCode;
+
+  private CurveKey(int kind, float[] parameters, @Nullable TimeInterpolator interpolator) {
+    this.kind = kind;
+    this.parameters = parameters;
+    this.interpolator = interpolator;
+
+    int hashCode = 31 * kind + Arrays.hashCode(parameters);
+    if (interpolator != null) {
+      hashCode = 31 * hashCode + interpolator.hashCode();
+    }
+    this.hashCode = hashCode;
+  }
+
+  /**
+   * @return The key of the curve {@link BakedCurve#bake(TimeInterpolator, float, float)} bakes.
+   */
+  public static CurveKey tween(
+    TimeInterpolator interpolator, float durationMs, float sampleIntervalMs) {
+    if (interpolator instanceof CubicBezierInterpolator) {
+      CubicBezierInterpolator bezier = (CubicBezierInterpolator) interpolator;
+      return new CurveKey(
+        BEZIER_TWEEN,
+        new float[] {bezier.x1, bezier.y1, bezier.x2, bezier.y2, durationMs, sampleIntervalMs},
+        null);
+    }
+    return new CurveKey(
+      INTERPOLATOR_TWEEN, new float[] {durationMs, sampleIntervalMs}, interpolator);
+  }
+
+  /**
+   * @return The key of the curve of a spring from 0 to 1 that starts at rest, which eases any
+   * distance the same way.
+   */
+  public static CurveKey spring(
+    float stiffness, float damping, float restThreshold, float sampleIntervalMs) {
+    return new CurveKey(
+      SPRING, new float[] {stiffness, damping, restThreshold, sampleIntervalMs}, null);
+  }
+
+  /**
+   * @return Whether this key only depends on values, so that its {@link #getStableHash()} is
+   * the same in every process.
+   */
+  public boolean isStable() {
+    return interpolator == null;
+  }
+
+  /**
+   * @return A 64-bit FNV-1a hash of the parameters, which does not change between processes.
+   * @throws IllegalStateException if this key is not {@link #isStable() stable}.
+   */
+  public long getStableHash() {
+    if (!isStable()) {
+      throw new IllegalStateException("Keys of arbitrary interpolators have no stable hash.");
+    }
+    long hash = mix(FNV_OFFSET_BASIS, kind);
+    for (float parameter : parameters) {
+      hash = mix(hash, Float.floatToIntBits(parameter));
+    }
+    return hash;
+  }
+
+  private static long mix(long hash, int value) {
+    for (int shift = 0; shift < 32; shift += 8) {
+      hash ^= (value >>> shift) & 0xff;
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+
+  /**
+   * Bakes the curve this key describes.
+   */
+  BakedCurve bake() {
+    switch (kind) {
+      case BEZIER_TWEEN:
+        return BakedCurve.bake(
+          new CubicBezierInterpolator(parameters[0], parameters[1], parameters[2], parameters[3]),
+          parameters[4], parameters[5]);
+      case INTERPOLATOR_TWEEN:
+        //noinspection ConstantConditions
+        return BakedCurve.bake(interpolator, parameters[0], parameters[1]);
+      default:
+        return BakedCurve.bake(
+          new SpringSolution(1f, 0f, 0f, parameters[0], parameters[1], parameters[2]),
+          parameters[3]);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CurveKey)) {
+      return false;
+    }
+    CurveKey key = (CurveKey) o;
+    return kind == key.kind
+      && Arrays.equals(parameters, key.parameters)
+      && (interpolator == null ? key.interpolator == null : interpolator.equals(key.interpolator));
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+}
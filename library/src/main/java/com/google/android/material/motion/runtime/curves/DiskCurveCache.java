@@ -0,0 +1,266 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A file of {@link BakedCurve baked curves}, keyed by the {@link CurveKey#getStableHash() stable
+ * hash} of their parameters, that outlives the process.
+ * <p>
+ * Opening the cache memory-maps the file and reads its index; the samples of a curve are only
+ * read when it is requested. New curves are kept in memory until the cache is {@link #save()
+ * saved}. Files of another format version, which changes whenever the file layout or the way
+ * curves are baked changes, are ignored and replaced on the next save.
+ * <p>
+ * Give the cache to a {@link BakedCurveCache#setDiskCache(DiskCurveCache) BakedCurveCache} so
+ * that curves baked in an earlier session are reused rather than baked again.
+ */
+public final class DiskCurveCache {
+
+  /**
+   * "MMBC".
+   */
+  private static final int MAGIC = 0x4D4D4243;
+  static final int FORMAT_VERSION = 1;
+
+  private static final int HEADER_BYTES = 12;
+  /**
+   * The hash, the offset of the samples, the sample count, and the duration.
+   */
+  private static final int INDEX_ENTRY_BYTES = 20;
+
+  private final File file;
+  /**
+   * Held while saving, so that saves do not write the temporary file at the same time.
+   */
+  private final Object saveLock = new Object();
+
+  private Index index = Index.EMPTY;
+  private final TreeMap<Long, BakedCurve> pending = new TreeMap<>();
+
+  private DiskCurveCache(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Memory-maps the given file, if it exists, and reads its index. A file that is not a curve
+   * cache of the current format version opens as an empty cache.
+   */
+  @WorkerThread
+  public static DiskCurveCache open(File file) throws IOException {
+    DiskCurveCache cache = new DiskCurveCache(file);
+    if (file.exists()) {
+      cache.index = load(file);
+    }
+    return cache;
+  }
+
+  private static Index load(File file) throws IOException {
+    ByteBuffer buffer;
+    FileInputStream in = new FileInputStream(file);
+    try {
+      FileChannel channel = in.getChannel();
+      buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    } finally {
+      in.close();
+    }
+
+    if (buffer.limit() < HEADER_BYTES
+      || buffer.getInt(0) != MAGIC
+      || buffer.getInt(4) != FORMAT_VERSION) {
+      return Index.EMPTY;
+    }
+    int count = buffer.getInt(8);
+    if (count < 0 || count > (buffer.limit() - HEADER_BYTES) / INDEX_ENTRY_BYTES) {
+      return Index.EMPTY;
+    }
+
+    long[] hashes = new long[count];
+    int[] offsets = new int[count];
+    int[] sampleCounts = new int[count];
+    float[] durations = new float[count];
+    for (int i = 0; i < count; i++) {
+      int entry = HEADER_BYTES + i * INDEX_ENTRY_BYTES;
+      hashes[i] = buffer.getLong(entry);
+      offsets[i] = buffer.getInt(entry + 8);
+      sampleCounts[i] = buffer.getInt(entry + 12);
+      durations[i] = buffer.getFloat(entry + 16);
+      if (sampleCounts[i] < 2
+        || offsets[i] < 0
+        || offsets[i] > buffer.limit() - sampleCounts[i] * 4L
+        || !(durations[i] > 0f)) {
+        // a truncated file
+        return Index.EMPTY;
+      }
+    }
+    return new Index(hashes, offsets, sampleCounts, durations, buffer);
+  }
+
+  /**
+   * @return The curve of the key, read from the file or from the curves put since the last save,
+   * or null if the cache has no curve for the key.
+   * @throws IllegalStateException if the key is not {@link CurveKey#isStable() stable}.
+   */
+  @Nullable
+  public synchronized BakedCurve get(CurveKey key) {
+    long hash = key.getStableHash();
+    BakedCurve curve = pending.get(hash);
+    if (curve != null) {
+      return curve;
+    }
+    int i = Arrays.binarySearch(index.hashes, hash);
+    return i < 0 ? null : index.read(i);
+  }
+
+  /**
+   * Adds a curve to the cache. It is written to the file on the next {@link #save()}.
+   *
+   * @throws IllegalStateException if the key is not {@link CurveKey#isStable() stable}.
+   */
+  public synchronized void put(CurveKey key, BakedCurve curve) {
+    long hash = key.getStableHash();
+    if (Arrays.binarySearch(index.hashes, hash) < 0) {
+      pending.put(hash, curve);
+    }
+  }
+
+  /**
+   * @return The number of curves in the cache, including those that have not been saved.
+   */
+  public synchronized int size() {
+    return index.hashes.length + pending.size();
+  }
+
+  /**
+   * Writes every curve of the cache to the file, if any curve has been put since the last save.
+   * The file is replaced atomically, so a process that dies while saving leaves the previous file
+   * intact. Curves can be read and put while the file is written.
+   */
+  @WorkerThread
+  public void save() throws IOException {
+    synchronized (saveLock) {
+      TreeMap<Long, BakedCurve> curves;
+      Index saved;
+      synchronized (this) {
+        if (pending.isEmpty()) {
+          return;
+        }
+        curves = new TreeMap<>(pending);
+        saved = index;
+      }
+      for (int i = 0; i < saved.hashes.length; i++) {
+        curves.put(saved.hashes[i], saved.read(i));
+      }
+
+      write(curves);
+      Index written = load(file);
+
+      synchronized (this) {
+        index = written;
+        pending.keySet().removeAll(curves.keySet());
+      }
+    }
+  }
+
+  private void write(TreeMap<Long, BakedCurve> curves) throws IOException {
+    File temporary = new File(file.getPath() + ".tmp");
+    DataOutputStream out =
+      new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(curves.size());
+      int offset = HEADER_BYTES + curves.size() * INDEX_ENTRY_BYTES;
+      for (Map.Entry<Long, BakedCurve> entry : curves.entrySet()) {
+        BakedCurve curve = entry.getValue();
+        out.writeLong(entry.getKey());
+        out.writeInt(offset);
+        out.writeInt(curve.samples.length);
+        out.writeFloat(curve.getDurationMs());
+        offset += curve.samples.length * 4;
+      }
+      for (BakedCurve curve : curves.values()) {
+        for (float sample : curve.samples) {
+          out.writeFloat(sample);
+        }
+      }
+    } finally {
+      out.close();
+    }
+
+    if (!temporary.renameTo(file)) {
+      //noinspection ResultOfMethodCallIgnored
+      temporary.delete();
+      throw new IOException("Could not replace " + file + ".");
+    }
+  }
+
+  /**
+   * The index of a file and its mapped contents. Saving replaces the index rather than changing
+   * it, so a saved index can be read without holding the lock of the cache.
+   */
+  private static final class Index {
+
+    static final Index EMPTY = new Index(new long[0], new int[0], new int[0], new float[0], null);
+
+    /**
+     * Sorted so that lookups can binary search.
+     */
+    final long[] hashes;
+    final int[] offsets;
+    final int[] sampleCounts;
+    final float[] durations;
+    @Nullable
+    final ByteBuffer data;
+
+    Index(
+      long[] hashes,
+      int[] offsets,
+      int[] sampleCounts,
+      float[] durations,
+      @Nullable ByteBuffer data) {
+      this.hashes = hashes;
+      this.offsets = offsets;
+      this.sampleCounts = sampleCounts;
+      this.durations = durations;
+      this.data = data;
+    }
+
+    BakedCurve read(int i) {
+      float[] samples = new float[sampleCounts[i]];
+      //noinspection ConstantConditions
+      ByteBuffer record = data.duplicate();
+      record.position(offsets[i]);
+      record.asFloatBuffer().get(samples);
+      return new BakedCurve(samples, durations[i]);
+    }
+  }
+}
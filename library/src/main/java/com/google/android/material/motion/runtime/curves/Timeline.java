@@ -0,0 +1,261 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import android.animation.TimeInterpolator;
+import android.support.annotation.Nullable;
+
+import com.google.android.material.motion.runtime.FloatProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * An immutable set of keyframe tracks, one per {@link FloatProperty}, each stored in primitive
+ * arrays of times and values.
+ * <p>
+ * A track holds its first value before its first keyframe and its last value after its last
+ * keyframe. Between two keyframes, the value is interpolated linearly, or along the {@link
+ * BakedCurve baked} easing of the later keyframe.
+ * <p>
+ * Finding the segment of a time takes a {@link #findSegment(int, float, int) hint}, usually the
+ * segment of the previous frame, which makes playback constant-time per track. Any other time is
+ * found by binary search, so {@link #seek(Object, float) seeking} costs the same anywhere in the
+ * timeline. Timelines are created with a {@link Builder}.
+ *
+ * @param <T> The type of target whose properties this timeline animates.
+ */
+public final class Timeline<T> {
+
+  private final FloatProperty[] properties;
+  private final float[][] times;
+  private final float[][] values;
+  /**
+   * The easing of each segment, indexed by segment, or null for linear segments.
+   */
+  private final BakedCurve[][] easings;
+  private final float durationMs;
+
+  private Timeline(
+    FloatProperty[] properties, float[][] times, float[][] values, BakedCurve[][] easings) {
+    this.properties = properties;
+    this.times = times;
+    this.values = values;
+    this.easings = easings;
+
+    float durationMs = 0f;
+    for (float[] trackTimes : times) {
+      durationMs = Math.max(durationMs, trackTimes[trackTimes.length - 1]);
+    }
+    this.durationMs = durationMs;
+  }
+
+  /**
+   * @return The time of the last keyframe of every track, in milliseconds.
+   */
+  public float getDurationMs() {
+    return durationMs;
+  }
+
+  public int getTrackCount() {
+    return properties.length;
+  }
+
+  /**
+   * @return The property the track animates.
+   */
+  public FloatProperty<? super T> getProperty(int track) {
+    //noinspection unchecked
+    return properties[track];
+  }
+
+  /**
+   * Sets every property of the target to its value at the time, without visiting any other time.
+   */
+  public void seek(T target, float timeMs) {
+    for (int track = 0; track < properties.length; track++) {
+      //noinspection unchecked
+      FloatProperty<T> property = properties[track];
+      property.set(target, getValue(track, findSegment(track, timeMs, 0), timeMs));
+    }
+  }
+
+  /**
+   * @param hint a segment that likely contains the time. The hint and the segment after it are
+   * checked before searching the whole track.
+   * @return The index of the segment, between keyframe {@code segment} and keyframe {@code
+   * segment + 1}, that contains the time. Times outside of the track map to its first or last
+   * segment, and tracks with one keyframe have one segment.
+   */
+  public int findSegment(int track, float timeMs, int hint) {
+    float[] trackTimes = times[track];
+    int last = Math.max(trackTimes.length - 2, 0);
+    if (hint >= 0 && hint <= last && contains(trackTimes, hint, last, timeMs)) {
+      return hint;
+    }
+    int next = hint + 1;
+    if (next >= 0 && next <= last && contains(trackTimes, next, last, timeMs)) {
+      return next;
+    }
+
+    int index = Arrays.binarySearch(trackTimes, timeMs);
+    // a keyframe starts the segment after it, and a missing time falls in the segment before its
+    // insertion point
+    int segment = index >= 0 ? index : -index - 2;
+    return Math.min(Math.max(segment, 0), last);
+  }
+
+  private static boolean contains(float[] trackTimes, int segment, int last, float timeMs) {
+    return (segment == 0 || timeMs >= trackTimes[segment])
+      && (segment == last || timeMs < trackTimes[segment + 1]);
+  }
+
+  /**
+   * @param segment the segment of the time, as returned by {@link #findSegment(int, float, int)}.
+   * @return The track's value at the time.
+   */
+  public float getValue(int track, int segment, float timeMs) {
+    float[] trackTimes = times[track];
+    float[] trackValues = values[track];
+    if (trackTimes.length == 1 || timeMs <= trackTimes[0]) {
+      return trackValues[0];
+    }
+    int end = segment + 1;
+    if (timeMs >= trackTimes[end]) {
+      return trackValues[end];
+    }
+
+    float start = trackTimes[segment];
+    float fraction = (timeMs - start) / (trackTimes[end] - start);
+    BakedCurve easing = easings[track][segment];
+    if (easing != null) {
+      fraction = easing.getValue(fraction * easing.getDurationMs());
+    }
+    float from = trackValues[segment];
+    return from + (trackValues[end] - from) * fraction;
+  }
+
+  /**
+   * Builds a {@link Timeline}.
+   */
+  public static class Builder<T> {
+
+    private final IdentityHashMap<FloatProperty, List<Keyframe>> tracks = new IdentityHashMap<>();
+    private final List<FloatProperty> order = new ArrayList<>();
+    @Nullable
+    private BakedCurveCache curveCache = BakedCurveCache.getDefault();
+
+    /**
+     * Adds a keyframe that is reached linearly from the previous keyframe of its property.
+     */
+    public Builder<T> addKeyframe(FloatProperty<? super T> property, float timeMs, float value) {
+      return addKeyframe(property, timeMs, value, null);
+    }
+
+    /**
+     * Adds a keyframe that is reached from the previous keyframe of its property along the easing,
+     * or linearly if the easing is null. Adding a keyframe at the time of an existing keyframe of
+     * the property replaces it.
+     */
+    public Builder<T> addKeyframe(
+      FloatProperty<? super T> property, float timeMs, float value,
+      @Nullable TimeInterpolator easing) {
+      if (timeMs < 0f) {
+        throw new IllegalArgumentException("Keyframes can not be before time 0.");
+      }
+      List<Keyframe> keyframes = tracks.get(property);
+      if (keyframes == null) {
+        keyframes = new ArrayList<>();
+        tracks.put(property, keyframes);
+        order.add(property);
+      }
+
+      int index = 0;
+      while (index < keyframes.size() && keyframes.get(index).timeMs < timeMs) {
+        index++;
+      }
+      Keyframe keyframe = new Keyframe(timeMs, value, easing);
+      if (index < keyframes.size() && keyframes.get(index).timeMs == timeMs) {
+        keyframes.set(index, keyframe);
+      } else {
+        keyframes.add(index, keyframe);
+      }
+      return this;
+    }
+
+    /**
+     * Sets the cache easings are baked through, or null to always bake new curves. Defaults to
+     * {@link BakedCurveCache#getDefault()}.
+     */
+    public Builder<T> setCurveCache(@Nullable BakedCurveCache curveCache) {
+      this.curveCache = curveCache;
+      return this;
+    }
+
+    public Timeline<T> build() {
+      if (order.isEmpty()) {
+        throw new IllegalStateException("A timeline needs at least one keyframe.");
+      }
+
+      int count = order.size();
+      FloatProperty[] properties = order.toArray(new FloatProperty[count]);
+      float[][] times = new float[count][];
+      float[][] values = new float[count][];
+      BakedCurve[][] easings = new BakedCurve[count][];
+      for (int track = 0; track < count; track++) {
+        List<Keyframe> keyframes = tracks.get(properties[track]);
+        int size = keyframes.size();
+        times[track] = new float[size];
+        values[track] = new float[size];
+        easings[track] = new BakedCurve[Math.max(size - 1, 1)];
+        for (int i = 0; i < size; i++) {
+          Keyframe keyframe = keyframes.get(i);
+          times[track][i] = keyframe.timeMs;
+          values[track][i] = keyframe.value;
+          if (i > 0 && keyframe.easing != null) {
+            float segmentMs = keyframe.timeMs - keyframes.get(i - 1).timeMs;
+            easings[track][i - 1] = bake(keyframe.easing, segmentMs);
+          }
+        }
+      }
+      return new Timeline<>(properties, times, values, easings);
+    }
+
+    private BakedCurve bake(TimeInterpolator easing, float durationMs) {
+      if (curveCache == null) {
+        return BakedCurve.bake(easing, durationMs);
+      }
+      return curveCache.get(
+        CurveKey.tween(easing, durationMs, BakedCurve.DEFAULT_SAMPLE_INTERVAL_MS));
+    }
+  }
+
+  private static final class Keyframe {
+
+    private final float timeMs;
+    private final float value;
+    @Nullable
+    private final TimeInterpolator easing;
+
+    private Keyframe(float timeMs, float value, @Nullable TimeInterpolator easing) {
+      this.timeMs = timeMs;
+      this.value = value;
+      this.easing = easing;
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import android.support.annotation.VisibleForTesting;
+
+import com.google.android.material.motion.runtime.FloatProperty;
+import com.google.android.material.motion.runtime.MotionRuntime;
+import com.google.android.material.motion.runtime.Performer;
+import com.google.android.material.motion.runtime.PerformerFeatures.ComponentPerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.RecyclablePerforming;
+import com.google.android.material.motion.runtime.Plan;
+
+import java.util.Arrays;
+
+/**
+ * Plays a {@link TimelinePlan timeline} on its target.
+ * <p>
+ * The performer keeps the segment each track was last in as a cursor, so a frame usually finds
+ * every track's segment without searching. Jumps, such as seeking or a long frame, fall back to a
+ * binary search. The cursors are kept while the performer is paused, so scrubbing with paused
+ * plans of the same timeline also starts from them.
+ */
+public class TimelinePerformer<T> extends Performer<T>
+  implements ComponentPerforming, RecyclablePerforming {
+
+  private Timeline<T> timeline;
+  @VisibleForTesting
+  int[] cursors = new int[0];
+  private double timeMs;
+  private boolean paused;
+  /**
+   * Whether the target was set to the timeline's values at a paused or final time.
+   */
+  private boolean idle = true;
+
+  @Override
+  protected void addPlan(Plan<T> plan) {
+    TimelinePlan<T> timelinePlan = (TimelinePlan<T>) plan;
+    if (timeline != timelinePlan.timeline) {
+      timeline = timelinePlan.timeline;
+      if (cursors.length < timeline.getTrackCount()) {
+        cursors = new int[timeline.getTrackCount()];
+      } else {
+        Arrays.fill(cursors, 0);
+      }
+    }
+    timeMs = timelinePlan.startTimeMs;
+    paused = timelinePlan.paused;
+    idle = false;
+  }
+
+  @Override
+  public int update(float deltaTimeMs) {
+    if (idle) {
+      return MotionRuntime.IDLE;
+    }
+    if (!paused) {
+      timeMs += deltaTimeMs;
+    }
+    float t = (float) Math.min(timeMs, timeline.getDurationMs());
+
+    T target = getTarget();
+    for (int track = 0, count = timeline.getTrackCount(); track < count; track++) {
+      int segment = timeline.findSegment(track, t, cursors[track]);
+      cursors[track] = segment;
+      //noinspection unchecked
+      FloatProperty<T> property = (FloatProperty<T>) timeline.getProperty(track);
+      property.set(target, timeline.getValue(track, segment, t));
+    }
+
+    if (paused || timeMs >= timeline.getDurationMs()) {
+      idle = true;
+      return MotionRuntime.IDLE;
+    }
+    return MotionRuntime.ACTIVE;
+  }
+
+  /**
+   * @return The time, in milliseconds, that the timeline is at.
+   */
+  public float getTime() {
+    return (float) timeMs;
+  }
+
+  @Override
+  public void onRecycle() {
+    timeline = null;
+    Arrays.fill(cursors, 0);
+    timeMs = 0;
+    paused = false;
+    idle = true;
+  }
+}
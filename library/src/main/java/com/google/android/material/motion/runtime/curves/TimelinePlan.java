@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import com.google.android.material.motion.runtime.Performer;
+import com.google.android.material.motion.runtime.Plan;
+
+/**
+ * Plays a {@link Timeline} on the target, from a start time to its end.
+ * <p>
+ * A {@link #setPaused(boolean) paused} plan sets the target to the timeline's values at the start
+ * time and stops, which scrubs the timeline: adding a paused plan for every position of a slider
+ * costs the same at any time. Adding a plan replaces the timeline that the target is playing.
+ *
+ * @param <T> The type of target this plan can be applied to.
+ */
+public class TimelinePlan<T> extends Plan<T> {
+
+  final Timeline<T> timeline;
+  float startTimeMs;
+  boolean paused;
+
+  public TimelinePlan(Timeline<T> timeline) {
+    this.timeline = timeline;
+  }
+
+  /**
+   * Sets the time, in milliseconds, that playback starts at. Defaults to 0.
+   */
+  public TimelinePlan<T> setStartTime(float startTimeMs) {
+    if (startTimeMs < 0f) {
+      throw new IllegalArgumentException("The start time must not be negative.");
+    }
+    this.startTimeMs = startTimeMs;
+    return this;
+  }
+
+  /**
+   * Sets whether the timeline stays at its start time instead of playing.
+   */
+  public TimelinePlan<T> setPaused(boolean paused) {
+    this.paused = paused;
+    return this;
+  }
+
+  @Override
+  public Class<? extends Performer<T>> getPerformerClass() {
+    //noinspection unchecked
+    return (Class<? extends Performer<T>>) (Class<?>) TimelinePerformer.class;
+  }
+}
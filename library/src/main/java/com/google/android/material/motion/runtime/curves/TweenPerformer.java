@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import com.google.android.material.motion.runtime.FloatProperty;
+import com.google.android.material.motion.runtime.MotionRuntime;
+import com.google.android.material.motion.runtime.Performer;
+import com.google.android.material.motion.runtime.PerformerFeatures.ComponentPerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.RecyclablePerforming;
+import com.google.android.material.motion.runtime.Plan;
+
+import java.util.Arrays;
+
+/**
+ * Plays back the {@link BakedCurve baked curves} of {@link TweenPlan tweens} on the properties of
+ * its target.
+ * <p>
+ * Each frame costs one sample lookup per tweening property. A tween ends, with the property set
+ * to its end value, on the first frame at or after its duration.
+ */
+public class TweenPerformer<T> extends Performer<T>
+  implements ComponentPerforming, RecyclablePerforming {
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  /**
+   * The time, in milliseconds, that this performer has been updated for.
+   */
+  private double timeMs;
+
+  private int tweenCount;
+  private FloatProperty[] properties = new FloatProperty[INITIAL_CAPACITY];
+  private BakedCurve[] curves = new BakedCurve[INITIAL_CAPACITY];
+  private float[] froms = new float[INITIAL_CAPACITY];
+  private float[] tos = new float[INITIAL_CAPACITY];
+  private double[] startTimes = new double[INITIAL_CAPACITY];
+
+  @Override
+  protected void addPlan(Plan<T> plan) {
+    TweenPlan<T> tweenPlan = (TweenPlan<T>) plan;
+    //noinspection unchecked
+    FloatProperty<T> property = (FloatProperty<T>) tweenPlan.property;
+
+    int tween = indexOf(property);
+    if (tween < 0) {
+      tween = addTween(property);
+    }
+    curves[tween] = tweenPlan.bake();
+    froms[tween] = tweenPlan.hasFrom ? tweenPlan.from : property.get(getTarget());
+    tos[tween] = tweenPlan.to;
+    startTimes[tween] = timeMs;
+  }
+
+  @Override
+  public int update(float deltaTimeMs) {
+    timeMs += deltaTimeMs;
+    T target = getTarget();
+
+    for (int i = 0; i < tweenCount; ) {
+      //noinspection unchecked
+      FloatProperty<T> property = properties[i];
+      BakedCurve curve = curves[i];
+      float t = (float) (timeMs - startTimes[i]);
+      if (t >= curve.getDurationMs()) {
+        property.set(target, tos[i]);
+        removeTween(i);
+        continue;
+      }
+      float from = froms[i];
+      property.set(target, from + (tos[i] - from) * curve.getValue(t));
+      i++;
+    }
+
+    return tweenCount > 0 ? MotionRuntime.ACTIVE : MotionRuntime.IDLE;
+  }
+
+  @Override
+  public void onRecycle() {
+    Arrays.fill(properties, 0, tweenCount, null);
+    Arrays.fill(curves, 0, tweenCount, null);
+    tweenCount = 0;
+    timeMs = 0;
+  }
+
+  private int indexOf(FloatProperty property) {
+    for (int i = 0; i < tweenCount; i++) {
+      if (properties[i] == property) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int addTween(FloatProperty property) {
+    if (tweenCount == properties.length) {
+      int capacity = tweenCount * 2;
+      properties = Arrays.copyOf(properties, capacity);
+      curves = Arrays.copyOf(curves, capacity);
+      froms = Arrays.copyOf(froms, capacity);
+      tos = Arrays.copyOf(tos, capacity);
+      startTimes = Arrays.copyOf(startTimes, capacity);
+    }
+    int tween = tweenCount++;
+    properties[tween] = property;
+    return tween;
+  }
+
+  /**
+   * Removes a tween by moving the last tween into its place.
+   */
+  private void removeTween(int tween) {
+    int last = --tweenCount;
+    properties[tween] = properties[last];
+    curves[tween] = curves[last];
+    froms[tween] = froms[last];
+    tos[tween] = tos[last];
+    startTimes[tween] = startTimes[last];
+    properties[last] = null;
+    curves[last] = null;
+  }
+}
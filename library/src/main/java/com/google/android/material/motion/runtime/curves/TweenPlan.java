@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import android.animation.TimeInterpolator;
+import android.support.annotation.Nullable;
+
+import com.google.android.material.motion.runtime.FloatProperty;
+import com.google.android.material.motion.runtime.Performer;
+import com.google.android.material.motion.runtime.Plan;
+
+/**
+ * Eases a {@link FloatProperty} of the target to a value over a duration.
+ * <p>
+ * The interpolator is {@link #bake() baked} into a {@link BakedCurve} the first time the plan is
+ * added, or ahead of time, and the curve is shared by every target the plan and its clones are
+ * added to. Through the {@link #setCurveCache(BakedCurveCache) curve cache}, it is also shared
+ * with every other tween of the same duration and interpolator. Adding a plan for a property that
+ * is being tweened replaces its tween.
+ *
+ * @param <T> The type of target this plan can be applied to.
+ */
+public class TweenPlan<T> extends Plan<T> {
+
+  /**
+   * The default duration, in milliseconds.
+   */
+  public static final float DEFAULT_DURATION_MS = 300f;
+
+  final FloatProperty<? super T> property;
+  final float to;
+  boolean hasFrom;
+  float from;
+  private float durationMs = DEFAULT_DURATION_MS;
+  private TimeInterpolator interpolator = CubicBezierInterpolator.FAST_OUT_SLOW_IN;
+  @Nullable
+  private BakedCurveCache curveCache = BakedCurveCache.getDefault();
+  /**
+   * Shared with the clones of this plan, which are what performers receive, so that the curve is
+   * baked once for the plan and all of its clones. Replaced, rather than cleared, when the
+   * parameters of the curve change.
+   */
+  private CurveHolder curve = new CurveHolder();
+
+  /**
+   * @param property the property of the target to animate.
+   * @param to the value the property ends at.
+   */
+  public TweenPlan(FloatProperty<? super T> property, float to) {
+    this.property = property;
+    this.to = to;
+  }
+
+  /**
+   * Sets the value the property starts at. By default, the tween starts at the property's current
+   * value.
+   */
+  public TweenPlan<T> setFrom(float from) {
+    this.from = from;
+    this.hasFrom = true;
+    return this;
+  }
+
+  /**
+   * Sets the duration, in milliseconds.
+   */
+  public TweenPlan<T> setDuration(float durationMs) {
+    if (durationMs <= 0f) {
+      throw new IllegalArgumentException("The duration must be positive.");
+    }
+    this.durationMs = durationMs;
+    curve = new CurveHolder();
+    return this;
+  }
+
+  /**
+   * Sets the easing. Defaults to {@link CubicBezierInterpolator#FAST_OUT_SLOW_IN}.
+   */
+  public TweenPlan<T> setInterpolator(TimeInterpolator interpolator) {
+    this.interpolator = interpolator;
+    curve = new CurveHolder();
+    return this;
+  }
+
+  /**
+   * Sets the cache the curve is looked up in and baked into, or null to always bake a new curve.
+   * Defaults to {@link BakedCurveCache#getDefault()}.
+   */
+  public TweenPlan<T> setCurveCache(@Nullable BakedCurveCache curveCache) {
+    this.curveCache = curveCache;
+    curve = new CurveHolder();
+    return this;
+  }
+
+  public float getDuration() {
+    return durationMs;
+  }
+
+  public TimeInterpolator getInterpolator() {
+    return interpolator;
+  }
+
+  /**
+   * Bakes the easing into a curve of fractions from 0 to 1 over the duration, unless it already
+   * is.
+   *
+   * @return The baked curve.
+   */
+  public BakedCurve bake() {
+    if (curve.baked == null) {
+      if (curveCache == null) {
+        curve.baked = BakedCurve.bake(interpolator, durationMs);
+      } else {
+        curve.baked = curveCache.get(
+          CurveKey.tween(interpolator, durationMs, BakedCurve.DEFAULT_SAMPLE_INTERVAL_MS));
+      }
+    }
+    return curve.baked;
+  }
+
+  @Override
+  public Class<? extends Performer<T>> getPerformerClass() {
+    //noinspection unchecked
+    return (Class<? extends Performer<T>>) (Class<?>) TweenPerformer.class;
+  }
+
+  private static final class CurveHolder {
+
+    @Nullable
+    BakedCurve baked;
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.physics;
+
+import com.google.android.material.motion.runtime.FloatProperty;
+import com.google.android.material.motion.runtime.MotionRuntime;
+import com.google.android.material.motion.runtime.Performer;
+import com.google.android.material.motion.runtime.PerformerFeatures.ComponentPerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.RecyclablePerforming;
+import com.google.android.material.motion.runtime.Plan;
+
+import java.util.Arrays;
+
+/**
+ * Animates the properties of its target along the {@link PhysicsSolution closed-form solutions}
+ * of {@link AnalyticPlan analytic plans}.
+ * <p>
+ * Each frame evaluates every solution at the time since its plan was added, so a property's
+ * value does not depend on the frame rate or on dropped frames. A solution is dropped, with the
+ * property set to its rest position, on the first frame at or after its settle time, which is
+ * computed once when the plan is added. Adding a plan for a property that is moving replaces its
+ * solution, starting from the property's current position and velocity.
+ */
+public class AnalyticPerformer<T> extends Performer<T>
+  implements ComponentPerforming, RecyclablePerforming {
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  /**
+   * The time, in seconds, that this performer has been updated for.
+   */
+  private double timeS;
+
+  private int motionCount;
+  private FloatProperty[] properties = new FloatProperty[INITIAL_CAPACITY];
+  private PhysicsSolution[] solutions = new PhysicsSolution[INITIAL_CAPACITY];
+  private double[] startTimes = new double[INITIAL_CAPACITY];
+
+  @Override
+  protected void addPlan(Plan<T> plan) {
+    //noinspection unchecked
+    AnalyticPlan<T> analyticPlan = (AnalyticPlan<T>) plan;
+    //noinspection unchecked
+    FloatProperty<T> property = (FloatProperty<T>) analyticPlan.getProperty();
+
+    int motion = indexOf(property);
+    if (motion < 0) {
+      PhysicsSolution solution = analyticPlan.solve(property.get(getTarget()), 0f, false);
+      addMotion(property, solution);
+    } else {
+      float t = (float) (timeS - startTimes[motion]);
+      PhysicsSolution current = solutions[motion];
+      solutions[motion] = analyticPlan.solve(
+        current.getPosition(t), current.getVelocity(t), true);
+      startTimes[motion] = timeS;
+    }
+  }
+
+  @Override
+  public int update(float deltaTimeMs) {
+    timeS += deltaTimeMs / 1000.0;
+    T target = getTarget();
+
+    for (int i = 0; i < motionCount; ) {
+      //noinspection unchecked
+      FloatProperty<T> property = properties[i];
+      PhysicsSolution solution = solutions[i];
+      float t = (float) (timeS - startTimes[i]);
+      if (t >= solution.getSettleTime()) {
+        property.set(target, solution.getRestPosition());
+        removeMotion(i);
+        continue;
+      }
+      property.set(target, solution.getPosition(t));
+      i++;
+    }
+
+    return motionCount > 0 ? MotionRuntime.ACTIVE : MotionRuntime.IDLE;
+  }
+
+  /**
+   * @return The time, in milliseconds, until every property of the target has come to rest, or
+   * {@link Float#POSITIVE_INFINITY} if one never does.
+   */
+  public float getRemainingTimeMs() {
+    double remainingS = 0;
+    for (int i = 0; i < motionCount; i++) {
+      remainingS = Math.max(
+        remainingS, startTimes[i] + solutions[i].getSettleTime() - timeS);
+    }
+    return (float) (remainingS * 1000);
+  }
+
+  @Override
+  public void onRecycle() {
+    Arrays.fill(properties, 0, motionCount, null);
+    Arrays.fill(solutions, 0, motionCount, null);
+    motionCount = 0;
+    timeS = 0;
+  }
+
+  private int indexOf(FloatProperty property) {
+    for (int i = 0; i < motionCount; i++) {
+      if (properties[i] == property) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void addMotion(FloatProperty property, PhysicsSolution solution) {
+    if (motionCount == properties.length) {
+      int capacity = motionCount * 2;
+      properties = Arrays.copyOf(properties, capacity);
+      solutions = Arrays.copyOf(solutions, capacity);
+      startTimes = Arrays.copyOf(startTimes, capacity);
+    }
+    int motion = motionCount++;
+    properties[motion] = property;
+    solutions[motion] = solution;
+    startTimes[motion] = timeS;
+  }
+
+  /**
+   * Removes a motion by moving the last motion into its place.
+   */
+  private void removeMotion(int motion) {
+    int last = --motionCount;
+    properties[motion] = properties[last];
+    solutions[motion] = solutions[last];
+    startTimes[motion] = startTimes[last];
+    properties[last] = null;
+    solutions[last] = null;
+  }
+}
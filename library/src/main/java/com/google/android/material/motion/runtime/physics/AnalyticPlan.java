@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.physics;
+
+import com.google.android.material.motion.runtime.FloatProperty;
+
+/**
+ * A plan that animates one {@link FloatProperty} of its target along a {@link PhysicsSolution},
+ * and whose {@link com.google.android.material.motion.runtime.Plan#getPerformerClass() performer}
+ * is {@link AnalyticPerformer}.
+ *
+ * @param <T> The type of target this plan can be applied to.
+ */
+public interface AnalyticPlan<T> {
+
+  /**
+   * @return The property of the target to animate.
+   */
+  FloatProperty<? super T> getProperty();
+
+  /**
+   * @param position the property's current value.
+   * @param velocity the property's current velocity, in units per second.
+   * @param moving whether the property is being animated by another solution, in which case
+   * {@code velocity} is that solution's velocity rather than zero.
+   * @return The solution that animates the property from now on.
+   */
+  PhysicsSolution solve(float position, float velocity, boolean moving);
+}
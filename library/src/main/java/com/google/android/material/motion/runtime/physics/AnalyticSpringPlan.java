@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.physics;
+
+import com.google.android.material.motion.runtime.FloatProperty;
+import com.google.android.material.motion.runtime.Performer;
+
+/**
+ * A {@link SpringPlan} that is evaluated in closed form by an {@link AnalyticPerformer} rather
+ * than integrated by the {@link SpringPerformer}.
+ * <p>
+ * The spring's position on each frame depends only on the time since the plan was added, so it
+ * is the same at any frame rate, and the spring comes to rest at a time known when the plan is
+ * added.
+ *
+ * @param <T> The type of target this plan can be applied to.
+ */
+public class AnalyticSpringPlan<T> extends SpringPlan<T> implements AnalyticPlan<T> {
+
+  /**
+   * @param property the property of the target to animate.
+   * @param destination the value the property comes to rest at.
+   */
+  public AnalyticSpringPlan(FloatProperty<? super T> property, float destination) {
+    super(property, destination);
+  }
+
+  @Override
+  public FloatProperty<? super T> getProperty() {
+    return property;
+  }
+
+  @Override
+  public PhysicsSolution solve(float position, float velocity, boolean moving) {
+    return new SpringSolution(
+      destination, position, moving ? velocity : initialVelocity, stiffness, damping,
+      restThreshold);
+  }
+
+  @Override
+  public Class<? extends Performer<T>> getPerformerClass() {
+    //noinspection unchecked
+    return (Class<? extends Performer<T>>) (Class<?>) AnalyticPerformer.class;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.physics;
+
+import com.google.android.material.motion.runtime.FloatProperty;
+import com.google.android.material.motion.runtime.Performer;
+import com.google.android.material.motion.runtime.Plan;
+
+/**
+ * Flings a {@link FloatProperty} of the target with an initial velocity that decays under
+ * friction, evaluated in closed form by an {@link AnalyticPerformer}.
+ * <p>
+ * The fling starts at the property's current value, replacing any other motion of the property,
+ * and comes to rest at {@link DecaySolution#getRestPosition()} at a time known when the plan is
+ * added.
+ *
+ * @param <T> The type of target this plan can be applied to.
+ */
+public class DecayPlan<T> extends Plan<T> implements AnalyticPlan<T> {
+
+  /**
+   * The default friction, in 1/s.
+   */
+  public static final float DEFAULT_FRICTION = 4.2f;
+  /**
+   * The default rest threshold, in units of the property.
+   */
+  public static final float DEFAULT_REST_THRESHOLD = 0.001f;
+
+  private final FloatProperty<? super T> property;
+  private final float velocity;
+  private float friction = DEFAULT_FRICTION;
+  private float restThreshold = DEFAULT_REST_THRESHOLD;
+
+  /**
+   * @param property the property of the target to animate.
+   * @param velocity the initial velocity, in units of the property per second.
+   */
+  public DecayPlan(FloatProperty<? super T> property, float velocity) {
+    this.property = property;
+    this.velocity = velocity;
+  }
+
+  /**
+   * Sets the rate at which the velocity decays, in 1/s. Higher values make the fling shorter.
+   */
+  public DecayPlan<T> setFriction(float friction) {
+    if (friction <= 0f) {
+      throw new IllegalArgumentException("The friction must be positive.");
+    }
+    this.friction = friction;
+    return this;
+  }
+
+  /**
+   * Sets the remaining distance and speed below which the fling comes to rest.
+   */
+  public DecayPlan<T> setRestThreshold(float restThreshold) {
+    if (restThreshold <= 0f) {
+      throw new IllegalArgumentException("The rest threshold must be positive.");
+    }
+    this.restThreshold = restThreshold;
+    return this;
+  }
+
+  @Override
+  public FloatProperty<? super T> getProperty() {
+    return property;
+  }
+
+  @Override
+  public PhysicsSolution solve(float position, float velocity, boolean moving) {
+    return new DecaySolution(position, this.velocity, friction, restThreshold);
+  }
+
+  @Override
+  public Class<? extends Performer<T>> getPerformerClass() {
+    //noinspection unchecked
+    return (Class<? extends Performer<T>>) (Class<?>) AnalyticPerformer.class;
+  }
+}
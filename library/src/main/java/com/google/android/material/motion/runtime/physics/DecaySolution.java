@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.physics;
+
+/**
+ * The closed-form solution of a fling that decays under friction proportional to its velocity,
+ * v' = -friction·v.
+ */
+public final class DecaySolution implements PhysicsSolution {
+
+  private final float position;
+  private final float velocity;
+  private final float friction;
+  private final float restPosition;
+  private final float settleTime;
+
+  /**
+   * @param position the position at time 0.
+   * @param velocity the velocity at time 0, in units per second.
+   * @param friction the rate at which the velocity decays, in 1/s. Must be positive.
+   * @param restThreshold the remaining distance and speed below which the fling is at rest. Must
+   * be positive.
+   */
+  public DecaySolution(float position, float velocity, float friction, float restThreshold) {
+    if (friction <= 0f) {
+      throw new IllegalArgumentException("The friction must be positive.");
+    }
+    if (restThreshold <= 0f) {
+      throw new IllegalArgumentException("The rest threshold must be positive.");
+    }
+    this.position = position;
+    this.velocity = velocity;
+    this.friction = friction;
+    restPosition = position + velocity / friction;
+
+    // the speed is |v0|·e^(-ft) and the remaining distance is the speed divided by f
+    double speed = Math.abs(velocity);
+    double distance = speed / friction;
+    double slowest = Math.max(speed, distance);
+    settleTime = slowest < restThreshold
+      ? 0f : (float) (Math.log(slowest / restThreshold) / friction);
+  }
+
+  @Override
+  public float getPosition(float timeS) {
+    return restPosition - velocity / friction * (float) Math.exp(-friction * timeS);
+  }
+
+  @Override
+  public float getVelocity(float timeS) {
+    return velocity * (float) Math.exp(-friction * timeS);
+  }
+
+  @Override
+  public float getSettleTime() {
+    return settleTime;
+  }
+
+  @Override
+  public float getRestPosition() {
+    return restPosition;
+  }
+}
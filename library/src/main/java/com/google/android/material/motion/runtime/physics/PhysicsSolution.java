@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.physics;
+
+/**
+ * The closed-form solution of a one-dimensional motion, which can be evaluated at any time
+ * without simulating the time before it.
+ * <p>
+ * Times are in seconds from the start of the motion.
+ */
+public interface PhysicsSolution {
+
+  /**
+   * @return The position at the time.
+   */
+  float getPosition(float timeS);
+
+  /**
+   * @return The velocity, in units per second, at the time.
+   */
+  float getVelocity(float timeS);
+
+  /**
+   * @return The time from which the motion is within its rest threshold of {@link
+   * #getRestPosition()} and slower than the threshold for good, or {@link Float#POSITIVE_INFINITY}
+   * if it never comes to rest.
+   */
+  float getSettleTime();
+
+  /**
+   * @return The position the motion comes to rest at.
+   */
+  float getRestPosition();
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.physics;
+
+import android.util.SparseIntArray;
+
+import com.google.android.material.motion.runtime.BatchPerformer;
+import com.google.android.material.motion.runtime.FloatProperty;
+import com.google.android.material.motion.runtime.MotionRuntime;
+import com.google.android.material.motion.runtime.Plan;
+
+import java.util.Arrays;
+
+/**
+ * Simulates every moving {@link SpringPlan spring} of a runtime. Spring plans name {@link Entry}
+ * as their performer.
+ * <p>
+ * The springs of all targets are stored in parallel primitive arrays and integrated in one loop
+ * per frame, with semi-implicit Euler steps of at most {@link #STEP_MS}. A target's property is
+ * only written when its spring has moved. Springs that come to rest are dropped.
+ */
+public class SpringPerformer<T> extends BatchPerformer<T> {
+
+  /**
+   * The per-target performer of spring plans, which hands them to the runtime's {@link
+   * SpringPerformer}.
+   */
+  public static class Entry<T> extends BatchPerformer.Entry<T> {
+
+    @Override
+    protected Class<? extends BatchPerformer<T>> getBatchPerformerClass() {
+      //noinspection unchecked
+      return (Class<? extends BatchPerformer<T>>) (Class<?>) SpringPerformer.class;
+    }
+  }
+
+  /**
+   * The longest integration step, in milliseconds. Longer frames take several steps.
+   */
+  public static final float STEP_MS = 4f;
+  /**
+   * The longest frame that is simulated, in milliseconds, so that a stalled frame does not take
+   * an unbounded number of steps.
+   */
+  public static final float MAX_FRAME_MS = 64f;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final int NO_SPRING = -1;
+
+  /**
+   * Each entry's id, which unlike the entry's index does not change while the entry exists.
+   */
+  private int[] entryIds = new int[INITIAL_CAPACITY];
+  private final SparseIntArray entryIndices = new SparseIntArray();
+  private int nextEntryId;
+  /**
+   * The first of each entry's springs, which are doubly linked through {@link #nextSprings} and
+   * {@link #previousSprings}. An entry has few springs, so they are found by walking the list
+   * without boxing a key.
+   */
+  private int[] entryFirstSprings = new int[INITIAL_CAPACITY];
+
+  private int springCount;
+  private int[] springEntryIds = new int[INITIAL_CAPACITY];
+  private int[] nextSprings = new int[INITIAL_CAPACITY];
+  private int[] previousSprings = new int[INITIAL_CAPACITY];
+  private FloatProperty[] properties = new FloatProperty[INITIAL_CAPACITY];
+  private float[] positions = new float[INITIAL_CAPACITY];
+  private float[] velocities = new float[INITIAL_CAPACITY];
+  private float[] destinations = new float[INITIAL_CAPACITY];
+  private float[] stiffnesses = new float[INITIAL_CAPACITY];
+  private float[] dampings = new float[INITIAL_CAPACITY];
+  private float[] restThresholds = new float[INITIAL_CAPACITY];
+
+  @Override
+  protected void onAddEntry(int entry) {
+    if (entry == entryIds.length) {
+      entryIds = Arrays.copyOf(entryIds, entry * 2);
+      entryFirstSprings = Arrays.copyOf(entryFirstSprings, entry * 2);
+    }
+    int id = nextEntryId++;
+    entryIds[entry] = id;
+    entryIndices.put(id, entry);
+    entryFirstSprings[entry] = NO_SPRING;
+  }
+
+  @Override
+  protected void onSwapEntries(int first, int second) {
+    int id = entryIds[first];
+    entryIds[first] = entryIds[second];
+    entryIds[second] = id;
+    entryIndices.put(entryIds[first], first);
+    entryIndices.put(entryIds[second], second);
+
+    int firstSpring = entryFirstSprings[first];
+    entryFirstSprings[first] = entryFirstSprings[second];
+    entryFirstSprings[second] = firstSpring;
+  }
+
+  @Override
+  protected void onRemoveEntry(int entry) {
+    // the entry's springs are dropped on the next update
+    entryIndices.delete(entryIds[entry]);
+  }
+
+  @Override
+  protected void addPlan(int entry, Plan<T> plan) {
+    SpringPlan<T> springPlan = (SpringPlan<T>) plan;
+    //noinspection unchecked
+    FloatProperty<T> property = (FloatProperty<T>) springPlan.property;
+    int spring = findSpring(entry, property);
+    if (spring == NO_SPRING) {
+      T target = getEntryTarget(entry);
+      spring = addSpring(entry, property);
+      positions[spring] = property.get(target);
+      velocities[spring] = springPlan.initialVelocity;
+    }
+    destinations[spring] = springPlan.destination;
+    stiffnesses[spring] = springPlan.stiffness;
+    dampings[spring] = springPlan.damping;
+    restThresholds[spring] = springPlan.restThreshold;
+  }
+
+  @Override
+  protected int update(float deltaTimeMs) {
+    float frameMs = Math.min(deltaTimeMs, MAX_FRAME_MS);
+    int steps = (int) Math.ceil(frameMs / STEP_MS);
+    float stepS = steps == 0 ? 0f : frameMs / steps / 1000f;
+    int liveEntryCount = getEntryCount();
+    boolean moving = false;
+
+    for (int i = 0; i < springCount; ) {
+      int entry = entryIndices.get(springEntryIds[i], -1);
+      if (entry < 0) {
+        removeSpring(i);
+        continue;
+      }
+      if (entry >= liveEntryCount) {
+        // the entry is suspended
+        i++;
+        continue;
+      }
+
+      float position = positions[i];
+      float velocity = velocities[i];
+      float destination = destinations[i];
+      float stiffness = stiffnesses[i];
+      float damping = dampings[i];
+      for (int step = 0; step < steps; step++) {
+        float acceleration = -stiffness * (position - destination) - damping * velocity;
+        velocity += acceleration * stepS;
+        position += velocity * stepS;
+      }
+
+      T target = getEntryTarget(entry);
+      //noinspection unchecked
+      FloatProperty<T> property = properties[i];
+      float restThreshold = restThresholds[i];
+      if (Math.abs(position - destination) < restThreshold
+        && Math.abs(velocity) < restThreshold) {
+        property.set(target, destination);
+        removeSpring(i);
+        continue;
+      }
+
+      if (position != positions[i]) {
+        positions[i] = position;
+        property.set(target, position);
+      }
+      velocities[i] = velocity;
+      moving = true;
+      i++;
+    }
+
+    return moving ? MotionRuntime.ACTIVE : MotionRuntime.IDLE;
+  }
+
+  /**
+   * @return The number of springs that have not come to rest, including those of suspended
+   * entries.
+   */
+  public int getSpringCount() {
+    return springCount;
+  }
+
+  private int findSpring(int entry, FloatProperty property) {
+    for (int spring = entryFirstSprings[entry]; spring != NO_SPRING; spring = nextSprings[spring]) {
+      if (properties[spring] == property) {
+        return spring;
+      }
+    }
+    return NO_SPRING;
+  }
+
+  private int addSpring(int entry, FloatProperty property) {
+    if (springCount == springEntryIds.length) {
+      int capacity = springCount * 2;
+      springEntryIds = Arrays.copyOf(springEntryIds, capacity);
+      nextSprings = Arrays.copyOf(nextSprings, capacity);
+      previousSprings = Arrays.copyOf(previousSprings, capacity);
+      properties = Arrays.copyOf(properties, capacity);
+      positions = Arrays.copyOf(positions, capacity);
+      velocities = Arrays.copyOf(velocities, capacity);
+      destinations = Arrays.copyOf(destinations, capacity);
+      stiffnesses = Arrays.copyOf(stiffnesses, capacity);
+      dampings = Arrays.copyOf(dampings, capacity);
+      restThresholds = Arrays.copyOf(restThresholds, capacity);
+    }
+    int spring = springCount++;
+    springEntryIds[spring] = entryIds[entry];
+    properties[spring] = property;
+
+    int next = entryFirstSprings[entry];
+    nextSprings[spring] = next;
+    previousSprings[spring] = NO_SPRING;
+    if (next != NO_SPRING) {
+      previousSprings[next] = spring;
+    }
+    entryFirstSprings[entry] = spring;
+    return spring;
+  }
+
+  /**
+   * Removes a spring by moving the last spring into its place.
+   */
+  private void removeSpring(int spring) {
+    setNextSpring(previousSprings[spring], springEntryIds[spring], nextSprings[spring]);
+    if (nextSprings[spring] != NO_SPRING) {
+      previousSprings[nextSprings[spring]] = previousSprings[spring];
+    }
+
+    int last = --springCount;
+    if (spring != last) {
+      springEntryIds[spring] = springEntryIds[last];
+      nextSprings[spring] = nextSprings[last];
+      previousSprings[spring] = previousSprings[last];
+      setNextSpring(previousSprings[spring], springEntryIds[spring], spring);
+      if (nextSprings[spring] != NO_SPRING) {
+        previousSprings[nextSprings[spring]] = spring;
+      }
+      properties[spring] = properties[last];
+      positions[spring] = positions[last];
+      velocities[spring] = velocities[last];
+      destinations[spring] = destinations[last];
+      stiffnesses[spring] = stiffnesses[last];
+      dampings[spring] = dampings[last];
+      restThresholds[spring] = restThresholds[last];
+    }
+    properties[last] = null;
+  }
+
+  /**
+   * Links a spring to the next spring of its entry, or makes it the entry's first spring if it
+   * has no previous spring. The springs of removed entries are only unlinked from each other.
+   */
+  private void setNextSpring(int previous, int entryId, int next) {
+    if (previous != NO_SPRING) {
+      nextSprings[previous] = next;
+      return;
+    }
+    int entry = entryIndices.get(entryId, -1);
+    if (entry >= 0) {
+      entryFirstSprings[entry] = next;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.physics;
+
+import com.google.android.material.motion.runtime.FloatProperty;
+import com.google.android.material.motion.runtime.Performer;
+import com.google.android.material.motion.runtime.Plan;
+
+/**
+ * Pulls a {@link FloatProperty} of the target towards a destination with a damped spring.
+ * <p>
+ * A new spring starts at the property's current value. Adding a plan for a property whose spring
+ * is still moving changes its destination and coefficients, and the spring keeps its position
+ * and velocity. The spring comes to rest, and is dropped, once both its distance to the
+ * destination and its speed are below the {@link #setRestThreshold(float) rest threshold}.
+ *
+ * @param <T> The type of target this plan can be applied to.
+ */
+public class SpringPlan<T> extends Plan<T> {
+
+  /**
+   * The default stiffness, in 1/s².
+   */
+  public static final float DEFAULT_STIFFNESS = 1500f;
+  /**
+   * The default damping, in 1/s. Together with the default stiffness, this is slightly
+   * under-damped.
+   */
+  public static final float DEFAULT_DAMPING = 60f;
+  /**
+   * The default rest threshold, in units of the property.
+   */
+  public static final float DEFAULT_REST_THRESHOLD = 0.001f;
+
+  final FloatProperty<? super T> property;
+  final float destination;
+  float stiffness = DEFAULT_STIFFNESS;
+  float damping = DEFAULT_DAMPING;
+  float initialVelocity;
+  float restThreshold = DEFAULT_REST_THRESHOLD;
+
+  /**
+   * @param property the property of the target to animate.
+   * @param destination the value the property comes to rest at.
+   */
+  public SpringPlan(FloatProperty<? super T> property, float destination) {
+    this.property = property;
+    this.destination = destination;
+  }
+
+  /**
+   * Sets the spring's stiffness, in 1/s². Higher values make the spring faster.
+   */
+  public SpringPlan<T> setStiffness(float stiffness) {
+    if (stiffness <= 0f) {
+      throw new IllegalArgumentException("The stiffness must be positive.");
+    }
+    this.stiffness = stiffness;
+    return this;
+  }
+
+  /**
+   * Sets the spring's damping, in 1/s. Values below 2√stiffness let the spring overshoot its
+   * destination.
+   */
+  public SpringPlan<T> setDamping(float damping) {
+    if (damping < 0f) {
+      throw new IllegalArgumentException("The damping must not be negative.");
+    }
+    this.damping = damping;
+    return this;
+  }
+
+  /**
+   * Sets the velocity, in units of the property per second, of a spring that starts with this
+   * plan. Ignored when the property's spring is already moving.
+   */
+  public SpringPlan<T> setInitialVelocity(float initialVelocity) {
+    this.initialVelocity = initialVelocity;
+    return this;
+  }
+
+  /**
+   * Sets the distance and speed below which the spring comes to rest.
+   */
+  public SpringPlan<T> setRestThreshold(float restThreshold) {
+    if (restThreshold <= 0f) {
+      throw new IllegalArgumentException("The rest threshold must be positive.");
+    }
+    this.restThreshold = restThreshold;
+    return this;
+  }
+
+  @Override
+  public Class<? extends Performer<T>> getPerformerClass() {
+    //noinspection unchecked
+    return (Class<? extends Performer<T>>) (Class<?>) SpringPerformer.Entry.class;
+  }
+}
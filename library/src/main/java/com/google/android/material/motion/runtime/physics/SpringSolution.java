@@ -0,0 +1,223 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.physics;
+
+/**
+ * The closed-form solution of a damped spring with unit mass, x'' + damping·x' + stiffness·x = 0,
+ * where x is the distance to the destination.
+ * <p>
+ * The settle time is found once, on construction, from an envelope that bounds the spring's
+ * distance and speed from above: in closed form for under-damped springs, and by bisection
+ * otherwise.
+ */
+public final class SpringSolution implements PhysicsSolution {
+
+  private static final int UNDER_DAMPED = 0;
+  private static final int CRITICALLY_DAMPED = 1;
+  private static final int OVER_DAMPED = 2;
+
+  /**
+   * Damping ratios this close to 1 are treated as critical, where the other solutions are
+   * numerically unstable.
+   */
+  private static final double CRITICAL_EPSILON = 1e-4;
+  private static final int MAX_DOUBLINGS = 64;
+  private static final int BISECTIONS = 48;
+
+  private final float destination;
+  private final int type;
+  /**
+   * The natural frequency, in 1/s.
+   */
+  private final double omega;
+  /**
+   * Under-damped: the decay rate, the damped frequency and the cosine and sine coefficients.
+   * Critically damped: the rate and the constant and linear coefficients. Over-damped: the two
+   * rates and their coefficients.
+   */
+  private final double r1;
+  private final double r2;
+  private final double c1;
+  private final double c2;
+  private final float settleTime;
+
+  /**
+   * @param destination the position the spring comes to rest at.
+   * @param position the position at time 0.
+   * @param velocity the velocity at time 0, in units per second.
+   * @param stiffness the stiffness, in 1/s². Must be positive.
+   * @param damping the damping, in 1/s. Must not be negative.
+   * @param restThreshold the distance and speed below which the spring is at rest. Must be
+   * positive.
+   */
+  public SpringSolution(
+    float destination, float position, float velocity, float stiffness, float damping,
+    float restThreshold) {
+    if (stiffness <= 0f) {
+      throw new IllegalArgumentException("The stiffness must be positive.");
+    }
+    if (damping < 0f) {
+      throw new IllegalArgumentException("The damping must not be negative.");
+    }
+    if (restThreshold <= 0f) {
+      throw new IllegalArgumentException("The rest threshold must be positive.");
+    }
+    this.destination = destination;
+
+    double x0 = position - destination;
+    double v0 = velocity;
+    omega = Math.sqrt(stiffness);
+    double zeta = damping / (2 * omega);
+
+    if (zeta < 1 - CRITICAL_EPSILON) {
+      type = UNDER_DAMPED;
+      r1 = zeta * omega;
+      r2 = omega * Math.sqrt(1 - zeta * zeta);
+      c1 = x0;
+      c2 = (v0 + r1 * x0) / r2;
+    } else if (zeta <= 1 + CRITICAL_EPSILON) {
+      type = CRITICALLY_DAMPED;
+      r1 = omega;
+      r2 = 0;
+      c1 = x0;
+      c2 = v0 + omega * x0;
+    } else {
+      type = OVER_DAMPED;
+      double root = omega * Math.sqrt(zeta * zeta - 1);
+      r1 = -zeta * omega + root;
+      r2 = -zeta * omega - root;
+      c2 = (v0 - r1 * x0) / (r2 - r1);
+      c1 = x0 - c2;
+    }
+
+    settleTime = (float) Math.max(
+      settleTime(false, restThreshold), settleTime(true, restThreshold));
+  }
+
+  @Override
+  public float getPosition(float timeS) {
+    double t = timeS;
+    switch (type) {
+      case UNDER_DAMPED:
+        return destination
+          + (float) (Math.exp(-r1 * t) * (c1 * Math.cos(r2 * t) + c2 * Math.sin(r2 * t)));
+      case CRITICALLY_DAMPED:
+        return destination + (float) ((c1 + c2 * t) * Math.exp(-r1 * t));
+      default:
+        return destination + (float) (c1 * Math.exp(r1 * t) + c2 * Math.exp(r2 * t));
+    }
+  }
+
+  @Override
+  public float getVelocity(float timeS) {
+    double t = timeS;
+    switch (type) {
+      case UNDER_DAMPED:
+        double cos = Math.cos(r2 * t);
+        double sin = Math.sin(r2 * t);
+        return (float) (Math.exp(-r1 * t)
+          * ((c2 * r2 - r1 * c1) * cos - (c1 * r2 + r1 * c2) * sin));
+      case CRITICALLY_DAMPED:
+        return (float) ((c2 - r1 * (c1 + c2 * t)) * Math.exp(-r1 * t));
+      default:
+        return (float) (r1 * c1 * Math.exp(r1 * t) + r2 * c2 * Math.exp(r2 * t));
+    }
+  }
+
+  @Override
+  public float getSettleTime() {
+    return settleTime;
+  }
+
+  @Override
+  public float getRestPosition() {
+    return destination;
+  }
+
+  /**
+   * @return An upper bound of the distance, or of the speed, at the time. It decreases from
+   * {@link #peakTime(boolean)} on.
+   */
+  private double bound(boolean speed, double t) {
+    switch (type) {
+      case UNDER_DAMPED:
+        double amplitude = Math.hypot(c1, c2) * (speed ? omega : 1);
+        return amplitude * Math.exp(-r1 * t);
+      case CRITICALLY_DAMPED:
+        double constant = speed ? Math.abs(c2 - r1 * c1) : Math.abs(c1);
+        double linear = speed ? r1 * Math.abs(c2) : Math.abs(c2);
+        return (constant + linear * t) * Math.exp(-r1 * t);
+      default:
+        return Math.abs(c1 * (speed ? r1 : 1)) * Math.exp(r1 * t)
+          + Math.abs(c2 * (speed ? r2 : 1)) * Math.exp(r2 * t);
+    }
+  }
+
+  /**
+   * @return The time at which {@link #bound(boolean, double)} is largest.
+   */
+  private double peakTime(boolean speed) {
+    if (type != CRITICALLY_DAMPED) {
+      return 0;
+    }
+    double constant = speed ? Math.abs(c2 - r1 * c1) : Math.abs(c1);
+    double linear = speed ? r1 * Math.abs(c2) : Math.abs(c2);
+    if (linear == 0) {
+      return 0;
+    }
+    // (constant + linear·t)·e^(-rt) peaks where linear = r·(constant + linear·t)
+    return Math.max(0, 1 / r1 - constant / linear);
+  }
+
+  /**
+   * @return The time from which the bound stays below the threshold.
+   */
+  private double settleTime(boolean speed, double threshold) {
+    double start = peakTime(speed);
+    if (bound(speed, start) < threshold) {
+      return 0;
+    }
+
+    if (type == UNDER_DAMPED) {
+      if (r1 == 0) {
+        // an undamped spring oscillates forever
+        return Double.POSITIVE_INFINITY;
+      }
+      return Math.log(bound(speed, 0) / threshold) / r1;
+    }
+
+    // the bound decreases from its peak on, so bisect between the peak and a later time
+    double step = 1 / Math.min(Math.abs(r1), r2 == 0 ? Math.abs(r1) : Math.abs(r2));
+    double high = start + step;
+    for (int i = 0; bound(speed, high) >= threshold; i++) {
+      if (i == MAX_DOUBLINGS) {
+        return Double.POSITIVE_INFINITY;
+      }
+      step *= 2;
+      high = start + step;
+    }
+    double low = start;
+    for (int i = 0; i < BISECTIONS; i++) {
+      double middle = (low + high) / 2;
+      if (bound(speed, middle) < threshold) {
+        high = middle;
+      } else {
+        low = middle;
+      }
+    }
+    return high;
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.targets.IncrementerTarget;
+import com.google.android.material.motion.runtime.testing.StepChoreographer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class BatchPerformerTests {
+
+  private MotionRuntime runtime;
+  private StepChoreographer choreographer;
+  private IncrementerTarget first;
+  private IncrementerTarget second;
+  private IncrementerTarget third;
+
+  @Before
+  public void setUp() {
+    runtime = new MotionRuntime();
+    choreographer = new StepChoreographer();
+    runtime.choreographer = choreographer;
+    first = new IncrementerTarget();
+    second = new IncrementerTarget();
+    third = new IncrementerTarget();
+    CountingBatchPerformer.instanceCount = 0;
+    CountingBatchPerformer.updateCount = 0;
+    CountingBatchPerformer.state = MotionRuntime.ACTIVE;
+  }
+
+  @Test
+  public void testOneInstanceDrivesEveryTarget() {
+    runtime.addPlanToAll(new CountingPlan(), Arrays.asList(first, second, third));
+    runtime.addPlan(new CountingPlan(), third);
+
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(CountingBatchPerformer.instanceCount).isEqualTo(1);
+    assertThat(CountingBatchPerformer.updateCount).isEqualTo(1);
+    assertThat(first.addCounter).isEqualTo(1);
+    assertThat(second.addCounter).isEqualTo(1);
+    assertThat(third.addCounter).isEqualTo(2);
+  }
+
+  @Test
+  public void testRemovedTargetsLeaveTheBatch() {
+    runtime.addPlanToAll(new CountingPlan(), Arrays.asList(first, second, third));
+    runtime.addPlan(new CountingPlan(), third);
+
+    runtime.removeTarget(second);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(first.removeCounter).isEqualTo(1);
+    assertThat(second.removeCounter).isEqualTo(0);
+    assertThat(third.removeCounter).isEqualTo(1);
+    // The last entry moved into the removed one's place along with its state.
+    assertThat(third.addCounter).isEqualTo(2);
+  }
+
+  @Test
+  public void testTheRuntimeIdlesOnceEveryTargetIsRemoved() {
+    runtime.addPlanToAll(new CountingPlan(), Arrays.asList(first, second));
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.ACTIVE);
+
+    runtime.removeTargets(Arrays.asList(first, second));
+
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+  }
+
+  @Test
+  public void testCancellingTheClassDropsEveryEntry() {
+    runtime.addPlanToAll(new CountingPlan(), Arrays.asList(first, second));
+
+    runtime.cancelPerformers(CountingEntry.class);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+    assertThat(CountingBatchPerformer.updateCount).isEqualTo(0);
+  }
+
+  @Test
+  public void testEntriesFollowStableKeys() {
+    runtime.bindTarget(1L, first);
+    runtime.addPlan(new CountingPlan(), first);
+
+    // The first target is recycled for another key, which suspends the first key.
+    runtime.bindTarget(2L, first);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+
+    runtime.bindTarget(1L, second);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(first.removeCounter).isEqualTo(0);
+    assertThat(second.addCounter).isEqualTo(1);
+  }
+
+  @Test
+  public void testResumingAnIdleEntryDoesNotActivateTheBatch() {
+    runtime.bindTarget(1L, first);
+    runtime.addPlan(new CountingPlan(), first);
+    CountingBatchPerformer.state = MotionRuntime.IDLE;
+    choreographer.advance(StepChoreographer.FRAME_MS);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+
+    runtime.bindTarget(2L, first);
+    runtime.bindTarget(1L, second);
+
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+  }
+
+  @Test
+  public void testBatchPerformersAreTracedApartFromTheirEntries() {
+    BatchRecordingTracing tracer = new BatchRecordingTracing();
+    runtime.addTracer(tracer);
+
+    runtime.addPlanToAll(new CountingPlan(), Arrays.asList(first, second));
+
+    assertThat(tracer.batchPerformers).hasSize(1);
+    assertThat(tracer.batchPerformers.get(0)).isInstanceOf(CountingBatchPerformer.class);
+    assertThat(tracer.entryTargets).containsExactly(first, second).inOrder();
+  }
+
+  private static class CountingPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return CountingEntry.class;
+    }
+  }
+
+  public static class CountingEntry extends BatchPerformer.Entry<IncrementerTarget> {
+
+    @Override
+    protected Class<? extends BatchPerformer<IncrementerTarget>> getBatchPerformerClass() {
+      return CountingBatchPerformer.class;
+    }
+  }
+
+  /**
+   * Writes each entry's plan count to its target's add counter on each update, and counts the
+   * updates in the target's remove counter.
+   */
+  public static class CountingBatchPerformer extends BatchPerformer<IncrementerTarget> {
+
+    private static int instanceCount;
+    private static int updateCount;
+    @MotionRuntime.State
+    private static int state;
+
+    private int[] planCounts = new int[1];
+
+    public CountingBatchPerformer() {
+      instanceCount++;
+    }
+
+    @Override
+    protected void onAddEntry(int entry) {
+      if (entry == planCounts.length) {
+        planCounts = Arrays.copyOf(planCounts, entry * 2);
+      }
+      planCounts[entry] = 0;
+    }
+
+    @Override
+    protected void onSwapEntries(int first, int second) {
+      int planCount = planCounts[first];
+      planCounts[first] = planCounts[second];
+      planCounts[second] = planCount;
+    }
+
+    @Override
+    protected void addPlan(int entry, Plan<IncrementerTarget> plan) {
+      planCounts[entry]++;
+    }
+
+    @Override
+    protected int update(float deltaTimeMs) {
+      updateCount++;
+      for (int i = 0, count = getEntryCount(); i < count; i++) {
+        IncrementerTarget target = getEntryTarget(i);
+        target.addCounter = planCounts[i];
+        target.removeCounter++;
+      }
+      return state;
+    }
+  }
+
+  private static class BatchRecordingTracing implements BatchTracing {
+
+    private final List<BatchPerformer<?>> batchPerformers = new ArrayList<>();
+    private final List<Object> entryTargets = new ArrayList<>();
+
+    @Override
+    public void onCreateBatchPerformer(BatchPerformer<?> batchPerformer) {
+      batchPerformers.add(batchPerformer);
+    }
+
+    @Override
+    public <T> void onAddPlan(Plan<T> plan, T target) {
+    }
+
+    @Override
+    public <T> void onAddNamedPlan(NamedPlan<T> plan, String name, T target) {
+    }
+
+    @Override
+    public <T> void onRemoveNamedPlan(String name, T target) {
+    }
+
+    @Override
+    public <T> void onCreatePerformer(Performer<T> performer, T target) {
+      entryTargets.add(target);
+    }
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.PlanFeatures.BinarySerializablePlan;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class BinaryPlanCodecTests {
+
+  private PlanRegistry registry;
+
+  @Before
+  public void setUp() {
+    registry = new PlanRegistry();
+    registry.register(1, FadePlan.class);
+  }
+
+  @Test
+  public void testPlanRoundTripsThroughByteBuffer() throws IOException {
+    BinaryPlanWriter writer = new BinaryPlanWriter(registry);
+    writer.writePlan(new FadePlan(0.5f, "fade"));
+
+    BinaryPlanReader reader =
+      new BinaryPlanReader(registry, ByteBuffer.wrap(writer.toByteArray()));
+    FadePlan plan = (FadePlan) reader.<Object>readPlan();
+
+    assertThat(plan.alpha).isWithin(0f).of(0.5f);
+    assertThat(plan.label).isEqualTo("fade");
+    assertThat(reader.hasRemaining()).isFalse();
+  }
+
+  @Test
+  public void testPlanListRoundTripsThroughInputStream() throws IOException {
+    List<Plan<Object>> plans = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      plans.add(new FadePlan(i, null));
+    }
+    BinaryPlanWriter writer = new BinaryPlanWriter(registry);
+    writer.writePlans(plans);
+
+    BinaryPlanReader reader =
+      new BinaryPlanReader(registry, new ByteArrayInputStream(writer.toByteArray()));
+    List<Plan<Object>> decoded = reader.readPlans();
+
+    assertThat(decoded.size()).isEqualTo(100);
+    assertThat(((FadePlan) decoded.get(42)).alpha).isWithin(0f).of(42f);
+    assertThat(((FadePlan) decoded.get(42)).label).isNull();
+  }
+
+  @Test
+  public void testUnregisteredPlansAreSkipped() throws IOException {
+    BinaryPlanWriter writer = new BinaryPlanWriter(registry);
+    writer.writePlan(new FadePlan(1f, "skipped"));
+    writer.writePlan(new FadePlan(2f, "also skipped"));
+
+    PlanRegistry otherRegistry = new PlanRegistry();
+    otherRegistry.register(2, FadePlan.class);
+    BinaryPlanReader skippingReader =
+      new BinaryPlanReader(otherRegistry, ByteBuffer.wrap(writer.toByteArray()));
+
+    assertThat(skippingReader.readPlan()).isNull();
+    assertThat(skippingReader.readPlan()).isNull();
+    assertThat(skippingReader.hasRemaining()).isFalse();
+  }
+
+  @Test
+  public void testTrailingFieldsFromNewerVersionsAreSkipped() throws IOException {
+    registry.register(2, FadePlanV2.class);
+    PlanRegistry oldRegistry = new PlanRegistry();
+    oldRegistry.register(2, FadePlan.class);
+
+    BinaryPlanWriter writer = new BinaryPlanWriter(registry);
+    writer.writePlan(new FadePlanV2(0.25f, "new", 300));
+    writer.writePlan(new FadePlanV2(0.75f, "newer", 400));
+
+    BinaryPlanReader reader =
+      new BinaryPlanReader(oldRegistry, ByteBuffer.wrap(writer.toByteArray()));
+    FadePlan first = (FadePlan) reader.<Object>readPlan();
+    FadePlan second = (FadePlan) reader.<Object>readPlan();
+
+    assertThat(first.alpha).isWithin(0f).of(0.25f);
+    assertThat(second.label).isEqualTo("newer");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWritingAnUnregisteredPlanThrows() throws IOException {
+    new BinaryPlanWriter(new PlanRegistry()).writePlan(new FadePlan(1f, null));
+  }
+
+  @Test(expected = IOException.class)
+  public void testLengthsPastTheEndOfABufferThrow() throws IOException {
+    // a string of Integer.MAX_VALUE - 1 bytes
+    byte[] bytes = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0, 0};
+    new BinaryPlanReader(registry, ByteBuffer.wrap(bytes)).readString();
+  }
+
+  @Test(expected = IOException.class)
+  public void testNegativeLengthsThrow() throws IOException {
+    byte[] bytes = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+    new BinaryPlanReader(registry, ByteBuffer.wrap(bytes)).readFloatArray();
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedStreamsThrowWithoutAllocatingTheirLength() throws IOException {
+    // an array of 2^28 - 1 floats followed by a single float
+    byte[] bytes = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, 0, 0, 0, 0};
+    new BinaryPlanReader(registry, new ByteArrayInputStream(bytes)).readFloatArray();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRegisteringAnIdTwiceThrows() {
+    registry.register(1, FadePlanV2.class);
+  }
+
+  public static class FadePlan extends Plan<Object> implements BinarySerializablePlan {
+
+    float alpha;
+    String label;
+
+    public FadePlan() {
+    }
+
+    FadePlan(float alpha, String label) {
+      this.alpha = alpha;
+      this.label = label;
+    }
+
+    @Override
+    protected Class<? extends Performer<Object>> getPerformerClass() {
+      return FadePerformer.class;
+    }
+
+    @Override
+    public int getBinaryVersion() {
+      return 1;
+    }
+
+    @Override
+    public void toBinary(BinaryPlanWriter writer) throws IOException {
+      writer.writeFloat(alpha);
+      writer.writeString(label);
+    }
+
+    @Override
+    public void fromBinary(BinaryPlanReader reader, int version) throws IOException {
+      alpha = reader.readFloat();
+      label = reader.readString();
+    }
+  }
+
+  public static class FadePlanV2 extends FadePlan {
+
+    int durationMs;
+
+    public FadePlanV2() {
+    }
+
+    FadePlanV2(float alpha, String label, int durationMs) {
+      super(alpha, label);
+      this.durationMs = durationMs;
+    }
+
+    @Override
+    public int getBinaryVersion() {
+      return 2;
+    }
+
+    @Override
+    public void toBinary(BinaryPlanWriter writer) throws IOException {
+      super.toBinary(writer);
+      writer.writeVarInt(durationMs);
+    }
+
+    @Override
+    public void fromBinary(BinaryPlanReader reader, int version) throws IOException {
+      super.fromBinary(reader, version);
+      if (version >= 2) {
+        durationMs = reader.readVarInt();
+      }
+    }
+  }
+
+  public static class FadePerformer extends Performer<Object> {
+
+    @Override
+    protected void addPlan(Plan<Object> plan) {
+    }
+  }
+}
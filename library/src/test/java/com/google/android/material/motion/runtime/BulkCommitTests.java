@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.MotionRuntime.State;
+import com.google.android.material.motion.runtime.MotionRuntime.StateListener;
+import com.google.android.material.motion.runtime.PerformerFeatures.ManualPerforming;
+import com.google.android.material.motion.runtime.PlanFeatures.ImmutablePlan;
+import com.google.android.material.motion.runtime.plans.CounterAlteringPlan;
+import com.google.android.material.motion.runtime.targets.IncrementerTarget;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class BulkCommitTests {
+
+  private MotionRuntime runtime;
+  private List<IncrementerTarget> targets;
+  private PlanRecordingTracing tracer;
+
+  @Before
+  public void setUp() {
+    runtime = new MotionRuntime();
+    targets = Arrays.asList(
+      new IncrementerTarget(), new IncrementerTarget(), new IncrementerTarget());
+    tracer = new PlanRecordingTracing();
+    runtime.addTracer(tracer);
+  }
+
+  @Test
+  public void testPlansAreAddedToEveryTarget() {
+    runtime.addPlanToAll(new CounterAlteringPlan(), targets);
+
+    for (IncrementerTarget target : targets) {
+      assertThat(target.addCounter).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void testNamedPlansAreAddedToEveryTargetAndRemovableByName() {
+    runtime.addNamedPlanToAll(new CounterAlteringPlan(), "counter", targets);
+    runtime.removeNamedPlan("counter", targets.get(1));
+
+    assertThat(targets.get(0).addCounter).isEqualTo(1);
+    assertThat(targets.get(0).removeCounter).isEqualTo(0);
+    assertThat(targets.get(1).removeCounter).isEqualTo(1);
+  }
+
+  @Test
+  public void testImmutablePlansAreShared() {
+    SharedPlan plan = new SharedPlan();
+    runtime.addPlanToAll(plan, targets);
+
+    assertThat(tracer.plans).hasSize(3);
+    for (Plan<?> addedPlan : tracer.plans) {
+      assertThat(addedPlan).isSameAs(plan);
+    }
+  }
+
+  @Test
+  public void testMutablePlansAreCopiedForEachTarget() {
+    CounterAlteringPlan plan = new CounterAlteringPlan();
+    runtime.addPlanToAll(plan, targets);
+
+    assertThat(tracer.plans).hasSize(3);
+    assertThat(tracer.plans.get(0)).isNotSameAs(plan);
+    assertThat(tracer.plans.get(0)).isNotSameAs(tracer.plans.get(1));
+  }
+
+  @Test
+  public void testTheRuntimeStateChangesOnce() {
+    final List<Integer> states = new ArrayList<>();
+    runtime.addStateListener(new StateListener() {
+      @Override
+      public void onStateChange(MotionRuntime runtime, @State int newState) {
+        states.add(newState);
+      }
+    });
+
+    runtime.addPlanToAll(new ManualPlan(), targets);
+
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.ACTIVE);
+    assertThat(states).containsExactly(MotionRuntime.ACTIVE);
+  }
+
+  private static class SharedPlan extends Plan<IncrementerTarget> implements ImmutablePlan {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return CounterAlteringPlan.CounterAlteringPerformer.class;
+    }
+  }
+
+  private static class ManualPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return ManualPerformer.class;
+    }
+  }
+
+  public static class ManualPerformer extends Performer<IncrementerTarget>
+    implements ManualPerforming {
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+    }
+
+    @Override
+    public int update(float deltaTimeMs) {
+      return MotionRuntime.ACTIVE;
+    }
+  }
+
+  private static class PlanRecordingTracing implements Tracing {
+
+    private final List<Plan<?>> plans = new ArrayList<>();
+
+    @Override
+    public <T> void onAddPlan(Plan<T> plan, T target) {
+      plans.add(plan);
+    }
+
+    @Override
+    public <T> void onAddNamedPlan(NamedPlan<T> plan, String name, T target) {
+    }
+
+    @Override
+    public <T> void onRemoveNamedPlan(String name, T target) {
+    }
+
+    @Override
+    public <T> void onCreatePerformer(Performer<T> performer, T target) {
+    }
+  }
+}
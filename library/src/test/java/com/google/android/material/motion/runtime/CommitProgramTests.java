@@ -0,0 +1,234 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.PerformerFeatures.ComposablePerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.ManualPerforming;
+import com.google.android.material.motion.runtime.targets.IncrementerTarget;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CommitProgramTests {
+
+  private MotionRuntime runtime;
+  private CreationTracing tracer;
+
+  @Before
+  public void setUp() {
+    runtime = new MotionRuntime();
+    tracer = new CreationTracing();
+    runtime.addTracer(tracer);
+    FanOutPerformer.expansionCount = 0;
+  }
+
+  @Test
+  public void testProgramsCommitOnlyPrimitivePlans() {
+    CommitProgram<IncrementerTarget> program = CommitProgram.compile(new TreePlan());
+    IncrementerTarget target = new IncrementerTarget();
+
+    runtime.addProgram(program, target);
+
+    assertThat(program.size()).isEqualTo(4);
+    assertThat(target.addCounter).isEqualTo(4);
+    assertThat(tracer.createdPerformers).containsExactly(LeafPerformer.class);
+  }
+
+  @Test
+  public void testProgramsAreExpandedOnceForAnyNumberOfTargets() {
+    CommitProgram<IncrementerTarget> program = CommitProgram.compile(new FanOutPlan(3));
+    IncrementerTarget first = new IncrementerTarget();
+    IncrementerTarget second = new IncrementerTarget();
+
+    runtime.addProgram(program, first);
+    runtime.addProgram(program, second);
+
+    assertThat(first.addCounter).isEqualTo(3);
+    assertThat(second.addCounter).isEqualTo(3);
+    assertThat(FanOutPerformer.expansionCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testManualPlansInProgramsActivateTheRuntime() {
+    runtime.addProgram(CommitProgram.compile(new ManualLeafPlan()), new IncrementerTarget());
+
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.ACTIVE);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCyclicTreesThrow() {
+    CommitProgram.compile(new CyclicPlan());
+  }
+
+  private static class TreePlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return TreePerformer.class;
+    }
+  }
+
+  private static class FanOutPlan extends Plan<IncrementerTarget> {
+
+    private final int leafCount;
+
+    private FanOutPlan(int leafCount) {
+      this.leafCount = leafCount;
+    }
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return FanOutPerformer.class;
+    }
+  }
+
+  private static class CyclicPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return CyclicPerformer.class;
+    }
+  }
+
+  private static class LeafPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return LeafPerformer.class;
+    }
+  }
+
+  private static class ManualLeafPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return ManualLeafPerformer.class;
+    }
+  }
+
+  /**
+   * Emits a leaf plan and a fan-out plan of three leaves.
+   */
+  public static class TreePerformer extends Performer<IncrementerTarget>
+    implements ComposablePerforming<IncrementerTarget> {
+
+    private PlanEmitter<IncrementerTarget> planEmitter;
+
+    @Override
+    public void setPlanEmitter(PlanEmitter<IncrementerTarget> planEmitter) {
+      this.planEmitter = planEmitter;
+    }
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+      planEmitter.emit(new LeafPlan());
+      planEmitter.emit(new FanOutPlan(3));
+    }
+  }
+
+  public static class FanOutPerformer extends Performer<IncrementerTarget>
+    implements ComposablePerforming<IncrementerTarget> {
+
+    private static int expansionCount;
+
+    private PlanEmitter<IncrementerTarget> planEmitter;
+
+    @Override
+    public void setPlanEmitter(PlanEmitter<IncrementerTarget> planEmitter) {
+      this.planEmitter = planEmitter;
+    }
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+      expansionCount++;
+      List<LeafPlan> leafPlans = new ArrayList<>();
+      for (int i = 0; i < ((FanOutPlan) plan).leafCount; i++) {
+        leafPlans.add(new LeafPlan());
+      }
+      ((BulkPlanEmitter<IncrementerTarget>) planEmitter).emitAll(leafPlans);
+    }
+  }
+
+  public static class CyclicPerformer extends Performer<IncrementerTarget>
+    implements ComposablePerforming<IncrementerTarget> {
+
+    private PlanEmitter<IncrementerTarget> planEmitter;
+
+    @Override
+    public void setPlanEmitter(PlanEmitter<IncrementerTarget> planEmitter) {
+      this.planEmitter = planEmitter;
+    }
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+      planEmitter.emit(new CyclicPlan());
+    }
+  }
+
+  public static class LeafPerformer extends Performer<IncrementerTarget> {
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+      IncrementerTarget target = getTarget();
+      target.addCounter += 1;
+    }
+  }
+
+  public static class ManualLeafPerformer extends Performer<IncrementerTarget>
+    implements ManualPerforming {
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+    }
+
+    @Override
+    public int update(float deltaTimeMs) {
+      return MotionRuntime.ACTIVE;
+    }
+  }
+
+  private static class CreationTracing implements Tracing {
+
+    private final List<Class<?>> createdPerformers = new ArrayList<>();
+
+    @Override
+    public <T> void onAddPlan(Plan<T> plan, T target) {
+    }
+
+    @Override
+    public <T> void onAddNamedPlan(NamedPlan<T> plan, String name, T target) {
+    }
+
+    @Override
+    public <T> void onRemoveNamedPlan(String name, T target) {
+    }
+
+    @Override
+    public <T> void onCreatePerformer(Performer<T> performer, T target) {
+      createdPerformers.add(performer.getClass());
+    }
+  }
+}
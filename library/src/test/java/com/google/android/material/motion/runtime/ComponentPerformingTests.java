@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.PerformerFeatures.ComponentPerforming;
+import com.google.android.material.motion.runtime.targets.IncrementerTarget;
+import com.google.android.material.motion.runtime.testing.StepChoreographer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ComponentPerformingTests {
+
+  private static final List<Class<?>> updates = new ArrayList<>();
+
+  private MotionRuntime runtime;
+  private StepChoreographer choreographer;
+  private IncrementerTarget first;
+  private IncrementerTarget second;
+
+  @Before
+  public void setUp() {
+    runtime = new MotionRuntime();
+    choreographer = new StepChoreographer();
+    runtime.choreographer = choreographer;
+    first = new IncrementerTarget();
+    second = new IncrementerTarget();
+    updates.clear();
+  }
+
+  @Test
+  public void testPerformersAreUpdatedClassByClass() {
+    runtime.addPlan(new FirstPlan(), first);
+    runtime.addPlan(new SecondPlan(), first);
+    runtime.addPlan(new FirstPlan(), second);
+    runtime.addPlan(new SecondPlan(), second);
+
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(updates).containsExactly(
+      FirstPerformer.class, FirstPerformer.class,
+      SecondPerformer.class, SecondPerformer.class).inOrder();
+    assertThat(first.addCounter).isEqualTo(2);
+  }
+
+  @Test
+  public void testIdlePerformersLeaveTheUpdatePass() {
+    runtime.addPlan(new SecondPlan(), first);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.ACTIVE);
+
+    choreographer.advance(StepChoreographer.FRAME_MS);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(updates).hasSize(1);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+
+    // A new plan activates the performer again.
+    runtime.addPlan(new SecondPlan(), first);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.ACTIVE);
+  }
+
+  @Test
+  public void testRemovedTargetsAreNotUpdated() {
+    runtime.addPlan(new FirstPlan(), first);
+    runtime.addPlan(new FirstPlan(), second);
+
+    runtime.removeTarget(first);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(first.addCounter).isEqualTo(0);
+    assertThat(second.addCounter).isEqualTo(1);
+  }
+
+  @Test
+  public void testCancelledPerformersAreNotUpdated() {
+    runtime.addPlan(new FirstPlan(), first);
+
+    runtime.cancelPerformers(FirstPerformer.class);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(updates).isEmpty();
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+  }
+
+  @Test
+  public void testDetachedKeysAreNotUpdated() {
+    runtime.bindTarget(1L, first);
+    runtime.addPlan(new FirstPlan(), first);
+
+    runtime.unbindTarget(1L);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(updates).isEmpty();
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+  }
+
+  private static class FirstPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return FirstPerformer.class;
+    }
+  }
+
+  private static class SecondPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return SecondPerformer.class;
+    }
+  }
+
+  /**
+   * Stays active, and increments its target's add counter on each update.
+   */
+  public static class FirstPerformer extends Performer<IncrementerTarget>
+    implements ComponentPerforming {
+
+    @Override
+    protected void addPlan(Plan<IncrementerTarget> plan) {
+    }
+
+    @Override
+    public int update(float deltaTimeMs) {
+      updates.add(FirstPerformer.class);
+      IncrementerTarget target = getTarget();
+      target.addCounter++;
+      return MotionRuntime.ACTIVE;
+    }
+  }
+
+  /**
+   * Goes idle after each update, and increments its target's add counter.
+   */
+  public static class SecondPerformer extends Performer<IncrementerTarget>
+    implements ComponentPerforming {
+
+    @Override
+    protected void addPlan(Plan<IncrementerTarget> plan) {
+    }
+
+    @Override
+    public int update(float deltaTimeMs) {
+      updates.add(SecondPerformer.class);
+      IncrementerTarget target = getTarget();
+      target.addCounter++;
+      return MotionRuntime.IDLE;
+    }
+  }
+}
@@ -28,6 +28,9 @@ import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.google.common.truth.Truth.assertThat;
 
 @RunWith(RobolectricTestRunner.class)
@@ -53,6 +56,36 @@ public class ComposablePlanTests {
     assertThat(textView.getText()).isEqualTo("leafPlan");
   }
 
+  @Test
+  public void testEmitAllCommitsEveryPlanInOrder() {
+    runtime.addPlan(new FanOutPlan(3), textView);
+
+    assertThat(textView.getText()).isEqualTo("leaf 0, leaf 1, leaf 2");
+  }
+
+  @Test
+  public void testEmittedPlansAreNotCopied() {
+    RecordingLeafPlan leafPlan = new RecordingLeafPlan("leaf");
+    runtime.addPlan(new ForwardingPlan(leafPlan), textView);
+
+    assertThat(textView.getTag()).isSameAs(leafPlan);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCyclicEmissionThrows() {
+    runtime.addPlan(new CyclicPlan(), textView);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testEmissionDeeperThanTheMaximumDepthThrows() {
+    runtime.setMaxEmitDepth(2);
+    runtime.addPlan(new ForwardingPlan(new ForwardingPlan(new LeafPlan("leaf"))), textView);
+    assertThat(textView.getText()).isEqualTo("leaf");
+
+    runtime.addPlan(
+      new ForwardingPlan(new ForwardingPlan(new ForwardingPlan(new LeafPlan("leaf")))), textView);
+  }
+
   private class RootPlan extends NamedPlan<TextView> {
 
     private String text;
@@ -81,6 +114,56 @@ public class ComposablePlanTests {
     }
   }
 
+  private static class RecordingLeafPlan extends Plan<TextView> {
+
+    private String text;
+
+    private RecordingLeafPlan(String text) {
+      this.text = text;
+    }
+
+    @Override
+    public Class<? extends Performer<TextView>> getPerformerClass() {
+      return RecordingLeafPerformer.class;
+    }
+  }
+
+  private static class FanOutPlan extends Plan<TextView> {
+
+    private final int count;
+
+    private FanOutPlan(int count) {
+      this.count = count;
+    }
+
+    @Override
+    public Class<? extends Performer<TextView>> getPerformerClass() {
+      return FanOutPerformer.class;
+    }
+  }
+
+  private static class ForwardingPlan extends Plan<TextView> {
+
+    private final Plan<TextView> plan;
+
+    private ForwardingPlan(Plan<TextView> plan) {
+      this.plan = plan;
+    }
+
+    @Override
+    public Class<? extends Performer<TextView>> getPerformerClass() {
+      return ForwardingPerformer.class;
+    }
+  }
+
+  private static class CyclicPlan extends Plan<TextView> {
+
+    @Override
+    public Class<? extends Performer<TextView>> getPerformerClass() {
+      return CyclicPerformer.class;
+    }
+  }
+
   public static class LeafPerformer extends Performer<TextView> {
 
     @Override
@@ -91,6 +174,78 @@ public class ComposablePlanTests {
     }
   }
 
+  /**
+   * Appends each leaf plan's text to the target's text and stores the last leaf plan in the
+   * target's tag.
+   */
+  public static class RecordingLeafPerformer extends Performer<TextView> {
+
+    @Override
+    public void addPlan(Plan<TextView> plan) {
+      RecordingLeafPlan leafPlan = (RecordingLeafPlan) plan;
+      TextView target = getTarget();
+      CharSequence text = target.getText();
+      if (text == null || text.length() == 0) {
+        target.setText(leafPlan.text);
+      } else {
+        target.setText(text + ", " + leafPlan.text);
+      }
+      target.setTag(leafPlan);
+    }
+  }
+
+  public static class FanOutPerformer extends Performer<TextView>
+    implements ComposablePerforming<TextView> {
+
+    private PlanEmitter<TextView> planEmitter;
+
+    @Override
+    public void setPlanEmitter(PlanEmitter<TextView> planEmitter) {
+      this.planEmitter = planEmitter;
+    }
+
+    @Override
+    public void addPlan(Plan<TextView> plan) {
+      List<RecordingLeafPlan> leafPlans = new ArrayList<>();
+      for (int i = 0; i < ((FanOutPlan) plan).count; i++) {
+        leafPlans.add(new RecordingLeafPlan("leaf " + i));
+      }
+      ((BulkPlanEmitter<TextView>) planEmitter).emitAll(leafPlans);
+    }
+  }
+
+  public static class ForwardingPerformer extends Performer<TextView>
+    implements ComposablePerforming<TextView> {
+
+    private PlanEmitter<TextView> planEmitter;
+
+    @Override
+    public void setPlanEmitter(PlanEmitter<TextView> planEmitter) {
+      this.planEmitter = planEmitter;
+    }
+
+    @Override
+    public void addPlan(Plan<TextView> plan) {
+      planEmitter.emit(((ForwardingPlan) plan).plan);
+    }
+  }
+
+  public static class CyclicPerformer extends Performer<TextView>
+    implements ComposablePerforming<TextView> {
+
+    private PlanEmitter<TextView> planEmitter;
+
+    @Override
+    public void setPlanEmitter(PlanEmitter<TextView> planEmitter) {
+      this.planEmitter = planEmitter;
+    }
+
+    @Override
+    public void addPlan(Plan<TextView> plan) {
+      planEmitter.emit(new CyclicPlan());
+    }
+  }
+
   public static class ComposablePerformer extends NamedPerformer<TextView>
     implements ComposablePerforming<TextView> {
 
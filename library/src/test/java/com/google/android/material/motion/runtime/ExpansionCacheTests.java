@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.PerformerFeatures.ComposablePerforming;
+import com.google.android.material.motion.runtime.PlanFeatures.CacheablePlan;
+import com.google.android.material.motion.runtime.targets.IncrementerTarget;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ExpansionCacheTests {
+
+  private MotionRuntime runtime;
+  private IncrementerTarget target;
+
+  @Before
+  public void setUp() {
+    runtime = new MotionRuntime();
+    target = new IncrementerTarget();
+    ExpandingPerformer.expansionCount = 0;
+  }
+
+  @Test
+  public void testRepeatedCommitsExpandOnce() {
+    runtime.addPlan(new ExpandingPlan(3), target);
+    runtime.addPlan(new ExpandingPlan(3), target);
+
+    assertThat(target.addCounter).isEqualTo(6);
+    assertThat(ExpandingPerformer.expansionCount).isEqualTo(1);
+    assertThat(runtime.getExpansionCache().hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testDifferentKeysExpandSeparately() {
+    runtime.addPlan(new ExpandingPlan(2), target);
+    runtime.addPlan(new ExpandingPlan(3), target);
+
+    assertThat(target.addCounter).isEqualTo(5);
+    assertThat(ExpandingPerformer.expansionCount).isEqualTo(2);
+  }
+
+  @Test
+  public void testExpansionsAreSharedAcrossTargets() {
+    IncrementerTarget otherTarget = new IncrementerTarget();
+    runtime.addPlan(new ExpandingPlan(2), target);
+    runtime.addPlan(new ExpandingPlan(2), otherTarget);
+
+    assertThat(otherTarget.addCounter).isEqualTo(2);
+    assertThat(ExpandingPerformer.expansionCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testNestedExpansionsAreCachedIndependently() {
+    runtime.addPlan(new NestingPlan(), target);
+    runtime.addPlan(new ExpandingPlan(2), target);
+    runtime.addPlan(new NestingPlan(), target);
+
+    assertThat(target.addCounter).isEqualTo(6);
+    assertThat(ExpandingPerformer.expansionCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testAZeroSizeDisablesCaching() {
+    runtime.setExpansionCacheSize(0);
+    runtime.addPlan(new ExpandingPlan(2), target);
+    runtime.addPlan(new ExpandingPlan(2), target);
+
+    assertThat(target.addCounter).isEqualTo(4);
+    assertThat(ExpandingPerformer.expansionCount).isEqualTo(2);
+  }
+
+  @Test
+  public void testClearingTheCacheExpandsAgain() {
+    runtime.addPlan(new ExpandingPlan(2), target);
+    runtime.clearExpansionCache();
+    runtime.addPlan(new ExpandingPlan(2), target);
+
+    assertThat(ExpandingPerformer.expansionCount).isEqualTo(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSizesThrow() {
+    runtime.setExpansionCacheSize(-1);
+  }
+
+  private static class ExpandingPlan extends Plan<IncrementerTarget> implements CacheablePlan {
+
+    private final int leafCount;
+
+    private ExpandingPlan(int leafCount) {
+      this.leafCount = leafCount;
+    }
+
+    @Override
+    public Object getExpansionKey() {
+      return leafCount;
+    }
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return ExpandingPerformer.class;
+    }
+  }
+
+  private static class NestingPlan extends Plan<IncrementerTarget> implements CacheablePlan {
+
+    @Override
+    public Object getExpansionKey() {
+      return "nesting";
+    }
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return NestingPerformer.class;
+    }
+  }
+
+  private static class LeafPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return LeafPerformer.class;
+    }
+  }
+
+  /**
+   * Expands an {@link ExpandingPlan} into its number of leaf plans, counting every expansion.
+   */
+  public static class ExpandingPerformer extends Performer<IncrementerTarget>
+    implements ComposablePerforming<IncrementerTarget> {
+
+    private static int expansionCount;
+
+    private PlanEmitter<IncrementerTarget> planEmitter;
+
+    @Override
+    public void setPlanEmitter(PlanEmitter<IncrementerTarget> planEmitter) {
+      this.planEmitter = planEmitter;
+    }
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+      expansionCount++;
+      List<LeafPlan> leafPlans = new ArrayList<>();
+      for (int i = 0; i < ((ExpandingPlan) plan).leafCount; i++) {
+        leafPlans.add(new LeafPlan());
+      }
+      ((BulkPlanEmitter<IncrementerTarget>) planEmitter).emitAll(leafPlans);
+    }
+  }
+
+  public static class NestingPerformer extends Performer<IncrementerTarget>
+    implements ComposablePerforming<IncrementerTarget> {
+
+    private PlanEmitter<IncrementerTarget> planEmitter;
+
+    @Override
+    public void setPlanEmitter(PlanEmitter<IncrementerTarget> planEmitter) {
+      this.planEmitter = planEmitter;
+    }
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+      planEmitter.emit(new ExpandingPlan(2));
+    }
+  }
+
+  public static class LeafPerformer extends Performer<IncrementerTarget> {
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+      IncrementerTarget target = getTarget();
+      target.addCounter += 1;
+    }
+  }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.MotionRuntimeTests.StorageTracing;
+import com.google.android.material.motion.runtime.PerformerFeatures.ContinuousPerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.ManualPerforming;
+import com.google.android.material.motion.runtime.targets.IncrementerTarget;
+import com.google.android.material.motion.runtime.testing.StepChoreographer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class KeyedTargetTests {
+
+  private MotionRuntime runtime;
+  private StepChoreographer choreographer;
+  private StorageTracing tracer;
+
+  @Before
+  public void setUp() {
+    runtime = new MotionRuntime();
+    choreographer = new StepChoreographer();
+    runtime.choreographer = choreographer;
+    tracer = new StorageTracing();
+    runtime.addTracer(tracer);
+    CountingPerformer.terminationCount = 0;
+    DriftPerformer.lastCreated = null;
+  }
+
+  @Test
+  public void testPerformersFollowTheirKeyToANewTarget() {
+    IncrementerTarget first = new IncrementerTarget();
+    IncrementerTarget second = new IncrementerTarget();
+    runtime.bindTarget(1L, first);
+    runtime.addPlan(new CountingPlan(), first);
+
+    runtime.bindTarget(1L, second);
+    runtime.addPlan(new CountingPlan(), second);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    // One performer saw both plans, and now drives the second target.
+    assertThat(tracer.performers).hasSize(1);
+    assertThat(second.addCounter).isEqualTo(2);
+    assertThat(second.removeCounter).isEqualTo(1);
+    assertThat(first.addCounter).isEqualTo(0);
+  }
+
+  @Test
+  public void testRebindingATargetSuspendsItsPreviousKey() {
+    IncrementerTarget view = new IncrementerTarget();
+    runtime.bindTarget(1L, view);
+    runtime.addPlan(new CountingPlan(), view);
+
+    runtime.bindTarget(2L, view);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+
+    // The second key starts without plans.
+    runtime.addPlan(new CountingPlan(), view);
+    assertThat(tracer.performers).hasSize(2);
+
+    // The first key resumes on another target.
+    IncrementerTarget otherView = new IncrementerTarget();
+    runtime.bindTarget(1L, otherView);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+    assertThat(otherView.addCounter).isEqualTo(1);
+    assertThat(view.addCounter).isEqualTo(1);
+  }
+
+  @Test
+  public void testUnboundKeysAreSuspended() {
+    IncrementerTarget view = new IncrementerTarget();
+    runtime.bindTarget(1L, view);
+    runtime.addPlan(new CountingPlan(), view);
+
+    runtime.unbindTarget(1L);
+
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+  }
+
+  @Test
+  public void testPlansAddedBeforeBindingAreKept() {
+    IncrementerTarget view = new IncrementerTarget();
+    runtime.addPlan(new CountingPlan(), view);
+
+    runtime.bindTarget(1L, view);
+    IncrementerTarget otherView = new IncrementerTarget();
+    runtime.bindTarget(1L, otherView);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(otherView.addCounter).isEqualTo(1);
+  }
+
+  @Test
+  public void testRemovingADetachedKeyTerminatesItsPerformers() {
+    IncrementerTarget view = new IncrementerTarget();
+    runtime.bindTarget(1L, view);
+    runtime.addPlan(new CountingPlan(), view);
+    runtime.unbindTarget(1L);
+
+    assertThat(runtime.removeKey(1L)).isTrue();
+    assertThat(runtime.removeKey(1L)).isFalse();
+    assertThat(CountingPerformer.terminationCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testDetachingAKeyStopsItsContinuousPerformers() {
+    IncrementerTarget view = new IncrementerTarget();
+    runtime.bindTarget(1L, view);
+    runtime.addPlan(new DriftPlan(), view);
+    DriftPerformer performer = DriftPerformer.lastCreated;
+    performer.drift();
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.ACTIVE);
+
+    // The view is recycled to show another item while the performer is running.
+    runtime.bindTarget(2L, view);
+    performer.drift();
+
+    assertThat(performer.detachCount).isEqualTo(1);
+    assertThat((Object) performer.getTarget()).isNull();
+    assertThat(view.addCounter).isEqualTo(1);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+    // The released token is inert.
+    performer.token.terminate();
+
+    // The first key resumes on another target.
+    IncrementerTarget otherView = new IncrementerTarget();
+    runtime.bindTarget(1L, otherView);
+    performer.drift();
+
+    assertThat(otherView.addCounter).isEqualTo(1);
+    assertThat(view.addCounter).isEqualTo(1);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.ACTIVE);
+  }
+
+  @Test
+  public void testDetachedKeysBeyondTheLimitAreRemoved() {
+    runtime.setDetachedKeyLimit(1);
+    IncrementerTarget view = new IncrementerTarget();
+    runtime.bindTarget(1L, view);
+    runtime.addPlan(new CountingPlan(), view);
+    runtime.bindTarget(2L, view);
+    runtime.addPlan(new CountingPlan(), view);
+
+    // Detaching the second key evicts the first.
+    runtime.bindTarget(3L, view);
+
+    assertThat(CountingPerformer.terminationCount).isEqualTo(1);
+    assertThat(runtime.removeKey(1L)).isFalse();
+    assertThat(runtime.removeKey(2L)).isTrue();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeDetachedKeyLimitsAreRejected() {
+    runtime.setDetachedKeyLimit(-1);
+  }
+
+  private static class CountingPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return CountingPerformer.class;
+    }
+  }
+
+  /**
+   * Writes the number of plans it has received to its target's add counter on each update, and
+   * counts target changes in the target's remove counter.
+   */
+  public static class CountingPerformer extends Performer<IncrementerTarget>
+    implements ManualPerforming {
+
+    private static int terminationCount;
+
+    private int planCount;
+    private int targetChangeCount;
+
+    @Override
+    protected void addPlan(Plan<IncrementerTarget> plan) {
+      planCount++;
+    }
+
+    @Override
+    public int update(float deltaTimeMs) {
+      IncrementerTarget target = getTarget();
+      target.addCounter = planCount;
+      target.removeCounter = targetChangeCount;
+      return MotionRuntime.ACTIVE;
+    }
+
+    @Override
+    protected void onTargetChanged(IncrementerTarget oldTarget, IncrementerTarget newTarget) {
+      targetChangeCount++;
+    }
+
+    @Override
+    protected void onTerminate() {
+      terminationCount++;
+    }
+  }
+
+  private static class DriftPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return DriftPerformer.class;
+    }
+  }
+
+  /**
+   * Stands in for a performer that drives its target from its own animation: each {@link
+   * #drift()} increments the target's add counter while the performer is running.
+   */
+  public static class DriftPerformer extends Performer<IncrementerTarget>
+    implements ContinuousPerforming {
+
+    private static DriftPerformer lastCreated;
+
+    private IsActiveTokenGenerator generator;
+    private IsActiveToken token;
+    private int detachCount;
+
+    @Override
+    protected void onInitialize(IncrementerTarget target) {
+      lastCreated = this;
+    }
+
+    @Override
+    public void setIsActiveTokenGenerator(IsActiveTokenGenerator isActiveTokenGenerator) {
+      generator = isActiveTokenGenerator;
+    }
+
+    @Override
+    protected void addPlan(Plan<IncrementerTarget> plan) {
+      token = generator.generate();
+    }
+
+    @Override
+    protected void onDetach() {
+      detachCount++;
+    }
+
+    @Override
+    protected void onTargetChanged(IncrementerTarget oldTarget, IncrementerTarget newTarget) {
+      token = generator.generate();
+    }
+
+    private void drift() {
+      IncrementerTarget target = getTarget();
+      if (target != null) {
+        target.addCounter++;
+      }
+    }
+  }
+}
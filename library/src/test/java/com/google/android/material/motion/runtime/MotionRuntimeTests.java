@@ -22,6 +22,7 @@ import android.widget.TextView;
 
 import com.google.android.material.motion.runtime.MotionRuntime.State;
 import com.google.android.material.motion.runtime.MotionRuntime.StateListener;
+import com.google.android.material.motion.runtime.PerformerFeatures.ComposablePerforming;
 import com.google.android.material.motion.runtime.PerformerFeatures.ContinuousPerforming;
 import com.google.android.material.motion.runtime.PerformerFeatures.ManualPerforming;
 import com.google.android.material.motion.runtime.plans.CounterAlteringPlan;
@@ -448,7 +449,215 @@ public class MotionRuntimeTests {
     assertThat(trackingTracer.getEvents()).isEqualTo(expectedEvents);
   }
 
-  private static class TrackingTracing implements Tracing {
+  @Test
+  public void testReplacingANamedPlanUsesThePerformerReplaceHook() {
+    IncrementerTarget incrementerTarget = new IncrementerTarget();
+    runtime.addNamedPlan(new ReplaceableNamedPlan(1), "one", incrementerTarget);
+    runtime.addNamedPlan(new ReplaceableNamedPlan(2), "one", incrementerTarget);
+
+    assertThat(incrementerTarget.addCounter).isEqualTo(2);
+    assertThat(incrementerTarget.removeCounter).isEqualTo(0);
+  }
+
+  @Test
+  public void testReplacingANamedPlanNotifiesTracersOnce() {
+    StorageTracing storageTracer = new StorageTracing();
+    runtime.addTracer(storageTracer);
+    IncrementerTarget incrementerTarget = new IncrementerTarget();
+
+    runtime.addNamedPlan(new ReplaceableNamedPlan(1), "one", incrementerTarget);
+    runtime.addNamedPlan(new ReplaceableNamedPlan(2), "one", incrementerTarget);
+
+    assertThat(storageTracer.addedNamePlans.size()).isEqualTo(2);
+    assertThat(storageTracer.removedNamePlans.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testAddingAnEqualNamedPlanIsSkipped() {
+    StorageTracing storageTracer = new StorageTracing();
+    runtime.addTracer(storageTracer);
+    IncrementerTarget incrementerTarget = new IncrementerTarget();
+
+    runtime.addNamedPlan(new ReplaceableNamedPlan(1), "one", incrementerTarget);
+    runtime.addNamedPlan(new ReplaceableNamedPlan(1), "one", incrementerTarget);
+
+    assertThat(incrementerTarget.addCounter).isEqualTo(1);
+    assertThat(storageTracer.addedNamePlans.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testReplacingANamedPlanWithADifferentPerformerRemovesFirst() {
+    IncrementerTarget incrementerTarget = new IncrementerTarget();
+    runtime.addNamedPlan(new CounterAlteringPlan(), "one", incrementerTarget);
+    runtime.addNamedPlan(new ReplaceableNamedPlan(1), "one", incrementerTarget);
+
+    assertThat(incrementerTarget.addCounter).isEqualTo(2);
+    assertThat(incrementerTarget.removeCounter).isEqualTo(1);
+  }
+
+  @Test
+  public void testInterningANameTwiceReturnsTheSameHandle() {
+    int handle = runtime.internName("one");
+
+    assertThat(runtime.internName("one")).isEqualTo(handle);
+    assertThat(runtime.internName("two")).isNotEqualTo(handle);
+  }
+
+  @Test
+  public void testNamedPlansCanBeAddedAndRemovedByHandle() {
+    IncrementerTarget incrementerTarget = new IncrementerTarget();
+    int handle = runtime.internName("one");
+
+    runtime.addNamedPlan(new CounterAlteringPlan(), handle, incrementerTarget);
+    runtime.addNamedPlan(new CounterAlteringPlan(), handle, incrementerTarget);
+    runtime.removeNamedPlan(handle, incrementerTarget);
+
+    assertThat(incrementerTarget.addCounter).isEqualTo(2);
+    assertThat(incrementerTarget.removeCounter).isEqualTo(2);
+  }
+
+  @Test
+  public void testHandlesAndNamesIdentifyTheSamePlan() {
+    StorageTracing storageTracer = new StorageTracing();
+    runtime.addTracer(storageTracer);
+    IncrementerTarget incrementerTarget = new IncrementerTarget();
+
+    runtime.addNamedPlan(new CounterAlteringPlan(), runtime.internName("one"), incrementerTarget);
+    runtime.removeNamedPlan("one", incrementerTarget);
+
+    assertThat(incrementerTarget.removeCounter).isEqualTo(1);
+    assertThat(storageTracer.removedNamePlans.get(0)).isEqualTo("one");
+  }
+
+  @Test
+  public void testRemovingByHandleFromAnUnknownTargetKeepsNoScope() {
+    IncrementerTarget incrementerTarget = new IncrementerTarget();
+
+    runtime.removeNamedPlan(runtime.internName("one"), incrementerTarget);
+
+    assertThat(runtime.removeTarget(incrementerTarget)).isFalse();
+  }
+
+  @Test
+  public void testNamesPassedAsStringsAreNotInterned() {
+    IncrementerTarget incrementerTarget = new IncrementerTarget();
+    for (int i = 0; i < 100; i++) {
+      runtime.addNamedPlan(new CounterAlteringPlan(), "fade-" + i, incrementerTarget);
+      runtime.removeNamedPlan("fade-" + i, incrementerTarget);
+    }
+
+    assertThat(incrementerTarget.addCounter).isEqualTo(100);
+    assertThat(incrementerTarget.removeCounter).isEqualTo(100);
+    assertThat(runtime.internName("first")).isEqualTo(0);
+  }
+
+  @Test
+  public void testNamesInternedAfterTheirPlanWasAddedIdentifyTheSamePlan() {
+    IncrementerTarget incrementerTarget = new IncrementerTarget();
+
+    runtime.addNamedPlan(new CounterAlteringPlan(), "one", incrementerTarget);
+    runtime.removeNamedPlan(runtime.internName("one"), incrementerTarget);
+
+    assertThat(incrementerTarget.removeCounter).isEqualTo(1);
+  }
+
+  @Test
+  public void testPlansEmittedDuringAFrameAreCommittedInTheSameFrame() {
+    IncrementerTarget target = new IncrementerTarget();
+    runtime.addPlan(new SpawningPlan(), target);
+
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    // The spawned performer received its plan immediately and keeps the runtime active, although
+    // the spawning performer went idle in the same frame.
+    assertThat(target.addCounter).isEqualTo(1);
+    assertThat(target.removeCounter).isEqualTo(0);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.ACTIVE);
+
+    choreographer.advance(StepChoreographer.FRAME_MS);
+    assertThat(target.removeCounter).isEqualTo(1);
+  }
+
+  @Test
+  public void testTargetsGoingIdleDuringAFrameChangeTheStateOnce() {
+    final List<Integer> states = new ArrayList<>();
+    runtime.addStateListener(new StateListener() {
+      @Override
+      public void onStateChange(MotionRuntime runtime, @State int newState) {
+        states.add(newState);
+      }
+    });
+    runtime.addPlan(new SingleFramePlan(), new IncrementerTarget());
+    runtime.addPlan(new SingleFramePlan(), new IncrementerTarget());
+    runtime.addPlan(new SingleFramePlan(), new IncrementerTarget());
+
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+    assertThat(states).containsExactly(MotionRuntime.ACTIVE, MotionRuntime.IDLE).inOrder();
+  }
+
+  @Test
+  public void testTargetsAreIdentifiedByIdentity() {
+    List<String> target = new ArrayList<>();
+    List<String> equalTarget = new ArrayList<>();
+
+    // Adding the plan changes the target's hash code.
+    runtime.addNamedPlan(new StorageNamedPlan(), "one", target);
+    runtime.removeNamedPlan("one", target);
+    runtime.removeNamedPlan("one", equalTarget);
+
+    assertThat(target).containsExactly("one", "one");
+    assertThat(equalTarget).isEmpty();
+  }
+
+  @Test
+  public void testPerformerClassIdsAreStable() {
+    int manualId = MotionRuntime.getPerformerClassId(ManualPerformer.class);
+    int replacingId = MotionRuntime.getPerformerClassId(ReplacingPerformer.class);
+
+    assertThat(replacingId).isNotEqualTo(manualId);
+    assertThat(MotionRuntime.getPerformerClassId(ManualPerformer.class)).isEqualTo(manualId);
+  }
+
+  @Test
+  public void testCommittedPlansCacheTheirPerformerClassId() {
+    ManualPlan plan = new ManualPlan("manual");
+    runtime.addPlan(plan, textView);
+
+    assertThat(plan.cachedPerformerClass).isSameAs(ManualPerformer.class);
+    assertThat(plan.cachedPerformerClassId)
+      .isEqualTo(MotionRuntime.getPerformerClassId(ManualPerformer.class));
+  }
+
+  @Test
+  public void testPerformersAreReusedPerTargetAndClass() {
+    StorageTracing tracer = new StorageTracing();
+    runtime.addTracer(tracer);
+    IncrementerTarget first = new IncrementerTarget();
+    IncrementerTarget second = new IncrementerTarget();
+
+    runtime.addPlan(new TickingPlan(), second);
+    runtime.addNamedPlan(new CounterAlteringPlan(), "one", first);
+    runtime.addNamedPlan(new CounterAlteringPlan(), "two", first);
+    runtime.addPlan(new TickingPlan(), first);
+    runtime.addPlan(new TickingPlan(), first);
+
+    assertThat(tracer.performers).hasSize(3);
+    assertThat(first.addCounter).isEqualTo(4);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testExceptionThrownWhenAddingANamedPlanWithAnUnknownHandle() {
+    runtime.addNamedPlan(new CounterAlteringPlan(), 42, new IncrementerTarget());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testExceptionThrownWhenInterningAnEmptyName() {
+    runtime.internName("");
+  }
+
+  private static class TrackingTracing implements TargetTracing {
 
     List<String> events = new ArrayList<>();
 
@@ -472,6 +681,11 @@ public class MotionRuntimeTests {
 
     }
 
+    @Override
+    public <T> void onRemoveTarget(T target) {
+      events.add("onRemoveTarget");
+    }
+
     List<String> getEvents() {
       return events;
     }
@@ -485,12 +699,13 @@ public class MotionRuntimeTests {
     }
   }
 
-  public static class StorageTracing implements Tracing {
+  public static class StorageTracing implements TargetTracing {
 
     List<Performer> performers = new ArrayList<>();
     List<Plan> addedRegularPlans = new ArrayList<>();
     List<String> addedNamePlans = new ArrayList<>();
     List<String> removedNamePlans = new ArrayList<>();
+    List<Object> removedTargets = new ArrayList<>();
 
     @Override
     public <T> void onAddPlan(Plan<T> plan, T target) {
@@ -511,6 +726,11 @@ public class MotionRuntimeTests {
     public <T> void onCreatePerformer(Performer<T> performer, T target) {
       performers.add(performer);
     }
+
+    @Override
+    public <T> void onRemoveTarget(T target) {
+      removedTargets.add(target);
+    }
   }
 
   private static class StorageNamedPlan extends NamedPlan<List<String>> {
@@ -579,6 +799,56 @@ public class MotionRuntimeTests {
     }
   }
 
+  private static class ReplaceableNamedPlan extends NamedPlan<IncrementerTarget> {
+
+    private final int value;
+
+    private ReplaceableNamedPlan(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public Class<? extends NamedPerformer<IncrementerTarget>> getPerformerClass() {
+      return ReplacingPerformer.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof ReplaceableNamedPlan && ((ReplaceableNamedPlan) o).value == value;
+    }
+
+    @Override
+    public int hashCode() {
+      return value;
+    }
+  }
+
+  public static class ReplacingPerformer extends NamedPerformer<IncrementerTarget> {
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void addPlan(NamedPlan<IncrementerTarget> plan, String name) {
+      IncrementerTarget target = getTarget();
+      target.addCounter += 1;
+    }
+
+    @Override
+    public void removePlan(String name) {
+      IncrementerTarget target = getTarget();
+      target.removeCounter += 1;
+    }
+
+    @Override
+    public void replacePlan(NamedPlan<IncrementerTarget> plan, String name) {
+      IncrementerTarget target = getTarget();
+      target.addCounter += 1;
+    }
+  }
+
   public static class TrackingPlanPerformer extends NamedPerformer<TrackingTracing> {
 
     @Override
@@ -719,6 +989,87 @@ public class MotionRuntimeTests {
     }
   }
 
+  private static class SpawningPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return SpawningPerformer.class;
+    }
+  }
+
+  private static class TickingPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return TickingPerformer.class;
+    }
+  }
+
+  private static class SingleFramePlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return SingleFramePerformer.class;
+    }
+  }
+
+  /**
+   * Emits a {@link TickingPlan} on its first update, then goes idle.
+   */
+  public static class SpawningPerformer extends Performer<IncrementerTarget>
+    implements ManualPerforming, ComposablePerforming<IncrementerTarget> {
+
+    private PlanEmitter<IncrementerTarget> planEmitter;
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+    }
+
+    @Override
+    public void setPlanEmitter(PlanEmitter<IncrementerTarget> planEmitter) {
+      this.planEmitter = planEmitter;
+    }
+
+    @Override
+    public int update(float deltaTimeMs) {
+      planEmitter.emit(new TickingPlan());
+      return MotionRuntime.IDLE;
+    }
+  }
+
+  /**
+   * Counts its plans in the target's add counter and its updates in the remove counter.
+   */
+  public static class TickingPerformer extends Performer<IncrementerTarget>
+    implements ManualPerforming {
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+      IncrementerTarget target = getTarget();
+      target.addCounter += 1;
+    }
+
+    @Override
+    public int update(float deltaTimeMs) {
+      IncrementerTarget target = getTarget();
+      target.removeCounter += 1;
+      return MotionRuntime.ACTIVE;
+    }
+  }
+
+  public static class SingleFramePerformer extends Performer<IncrementerTarget>
+    implements ManualPerforming {
+
+    @Override
+    public void addPlan(Plan<IncrementerTarget> plan) {
+    }
+
+    @Override
+    public int update(float deltaTimeMs) {
+      return MotionRuntime.IDLE;
+    }
+  }
+
   public static class TestRuntimeListener implements MotionRuntime.StateListener {
 
     private int state;
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.MotionRuntimeTests.StorageTracing;
+import com.google.android.material.motion.runtime.PerformerFeatures.RecyclablePerforming;
+import com.google.android.material.motion.runtime.plans.CounterAlteringPlan;
+import com.google.android.material.motion.runtime.targets.IncrementerTarget;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PerformerPoolTests {
+
+  private MotionRuntime runtime;
+  private StorageTracing tracer;
+
+  @Before
+  public void setUp() {
+    runtime = new MotionRuntime();
+    tracer = new StorageTracing();
+    runtime.addTracer(tracer);
+    RecyclablePerformer.instanceCount = 0;
+  }
+
+  @Test
+  public void testRecyclablePerformersAreReusedForNewTargets() {
+    IncrementerTarget first = new IncrementerTarget();
+    IncrementerTarget second = new IncrementerTarget();
+    runtime.addPlan(new RecyclablePlan(), first);
+    runtime.addPlan(new RecyclablePlan(), first);
+    runtime.removeTarget(first);
+
+    runtime.addPlan(new RecyclablePlan(), second);
+
+    assertThat(RecyclablePerformer.instanceCount).isEqualTo(1);
+    assertThat(tracer.performers).hasSize(2);
+    assertThat(tracer.performers.get(1)).isSameAs(tracer.performers.get(0));
+    // The performer was reset before it was handed the second target.
+    assertThat(second.addCounter).isEqualTo(1);
+    assertThat(second.removeCounter).isEqualTo(1);
+  }
+
+  @Test
+  public void testCancelledPerformersAreRecycled() {
+    runtime.addPlan(new RecyclablePlan(), new IncrementerTarget());
+    runtime.cancelPerformers(RecyclablePerformer.class);
+
+    runtime.addPlan(new RecyclablePlan(), new IncrementerTarget());
+
+    assertThat(RecyclablePerformer.instanceCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testPoolsAreBounded() {
+    runtime.setPerformerPoolSize(1);
+    IncrementerTarget first = new IncrementerTarget();
+    IncrementerTarget second = new IncrementerTarget();
+    runtime.addPlan(new RecyclablePlan(), first);
+    runtime.addPlan(new RecyclablePlan(), second);
+    runtime.removeTargets(Arrays.asList(first, second));
+
+    runtime.addPlan(new RecyclablePlan(), new IncrementerTarget());
+    runtime.addPlan(new RecyclablePlan(), new IncrementerTarget());
+
+    // Only one of the two stopped performers was kept for reuse.
+    assertThat(RecyclablePerformer.instanceCount).isEqualTo(3);
+  }
+
+  @Test
+  public void testPoolingCanBeDisabled() {
+    runtime.setPerformerPoolSize(0);
+    IncrementerTarget target = new IncrementerTarget();
+    runtime.addPlan(new RecyclablePlan(), target);
+    runtime.removeTarget(target);
+
+    runtime.addPlan(new RecyclablePlan(), new IncrementerTarget());
+
+    assertThat(RecyclablePerformer.instanceCount).isEqualTo(2);
+  }
+
+  @Test
+  public void testOtherPerformersAreNotReused() {
+    IncrementerTarget target = new IncrementerTarget();
+    runtime.addPlan(new CounterAlteringPlan(), target);
+    runtime.removeTarget(target);
+
+    runtime.addPlan(new CounterAlteringPlan(), new IncrementerTarget());
+
+    assertThat(tracer.performers.get(1)).isNotSameAs(tracer.performers.get(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativePoolSizesThrow() {
+    runtime.setPerformerPoolSize(-1);
+  }
+
+  private static class RecyclablePlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return RecyclablePerformer.class;
+    }
+  }
+
+  /**
+   * Writes the number of plans it has received since it was created or recycled to its target's
+   * add counter, and the number of times it was recycled to the remove counter.
+   */
+  public static class RecyclablePerformer extends Performer<IncrementerTarget>
+    implements RecyclablePerforming {
+
+    private static int instanceCount;
+
+    private int planCount;
+    private int recycleCount;
+
+    public RecyclablePerformer() {
+      instanceCount++;
+    }
+
+    @Override
+    protected void addPlan(Plan<IncrementerTarget> plan) {
+      planCount++;
+      IncrementerTarget target = getTarget();
+      target.addCounter = planCount;
+      target.removeCounter = recycleCount;
+    }
+
+    @Override
+    public void onRecycle() {
+      planCount = 0;
+      recycleCount++;
+    }
+  }
+}
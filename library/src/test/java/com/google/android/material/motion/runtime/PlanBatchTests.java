@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.plans.CounterAlteringPlan;
+import com.google.android.material.motion.runtime.targets.IncrementerTarget;
+import com.google.android.material.motion.runtime.testing.StepChoreographer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PlanBatchTests {
+
+  private MotionRuntime runtime;
+  private StepChoreographer choreographer;
+  private IncrementerTarget target;
+  private List<PlanBatch> committedBatches;
+  private PlanBatch.Listener listener;
+
+  @Before
+  public void setUp() {
+    runtime = new MotionRuntime();
+    choreographer = new StepChoreographer();
+    runtime.choreographer = choreographer;
+    target = new IncrementerTarget();
+    committedBatches = new ArrayList<>();
+    listener = new PlanBatch.Listener() {
+      @Override
+      public void onBatchCommitted(PlanBatch batch) {
+        committedBatches.add(batch);
+      }
+    };
+  }
+
+  @Test
+  public void testBatchesWithinTheBudgetAreCommittedImmediately() {
+    PlanBatch batch = new PlanBatch(listener)
+      .add(new CounterAlteringPlan(), target)
+      .add(new CounterAlteringPlan(), target);
+
+    runtime.addBatch(batch);
+
+    assertThat(target.addCounter).isEqualTo(2);
+    assertThat(batch.isCommitted()).isTrue();
+    assertThat(committedBatches).containsExactly(batch);
+  }
+
+  @Test
+  public void testBatchesAreSpreadOverFramesWhenTheBudgetIsSpent() {
+    runtime.setBatchFrameBudgetMs(0);
+    PlanBatch batch = new PlanBatch(listener);
+    for (int i = 0; i < 3; i++) {
+      batch.add(new CounterAlteringPlan(), target);
+    }
+
+    runtime.addBatch(batch);
+    assertThat(target.addCounter).isEqualTo(1);
+
+    choreographer.advance(StepChoreographer.FRAME_MS);
+    assertThat(target.addCounter).isEqualTo(2);
+    assertThat(committedBatches).isEmpty();
+
+    choreographer.advance(StepChoreographer.FRAME_MS);
+    assertThat(target.addCounter).isEqualTo(3);
+    assertThat(batch.getCommittedCount()).isEqualTo(3);
+    assertThat(committedBatches).containsExactly(batch);
+  }
+
+  @Test
+  public void testPlansLandInOrderAcrossBatches() {
+    runtime.setBatchFrameBudgetMs(0);
+    List<Integer> order = new ArrayList<>();
+
+    runtime.addBatch(new PlanBatch().add(new OrderPlan(1), order).add(new OrderPlan(2), order));
+    runtime.addBatch(new PlanBatch().add(new OrderPlan(3), order));
+    for (int i = 0; i < 3; i++) {
+      choreographer.advance(StepChoreographer.FRAME_MS);
+    }
+
+    assertThat(order).containsExactly(1, 2, 3).inOrder();
+  }
+
+  @Test
+  public void testNamedPlansReplaceEachOther() {
+    runtime.addBatch(new PlanBatch()
+      .addNamed(new CounterAlteringPlan(), "counter", target)
+      .addNamed(new CounterAlteringPlan(), "counter", target));
+
+    assertThat(target.addCounter).isEqualTo(2);
+    assertThat(target.removeCounter).isEqualTo(1);
+  }
+
+  @Test
+  public void testCancelledBatchesStopCommitting() {
+    runtime.setBatchFrameBudgetMs(0);
+    PlanBatch batch = new PlanBatch(listener)
+      .add(new CounterAlteringPlan(), target)
+      .add(new CounterAlteringPlan(), target);
+
+    runtime.addBatch(batch);
+    batch.cancel();
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(target.addCounter).isEqualTo(1);
+    assertThat(batch.isCommitted()).isFalse();
+    assertThat(committedBatches).isEmpty();
+  }
+
+  @Test
+  public void testAFailingBatchDoesNotBlockTheBatchesQueuedBehindIt() {
+    runtime.setBatchFrameBudgetMs(0);
+    List<Integer> order = new ArrayList<>();
+    PlanBatch failingBatch = new PlanBatch()
+      .add(new OrderPlan(1), order)
+      .add(new OrderPlan(FAILING_ID), order)
+      .add(new OrderPlan(2), order);
+    PlanBatch nextBatch = new PlanBatch(listener).add(new OrderPlan(3), order);
+
+    runtime.addBatch(failingBatch);
+    runtime.addBatch(nextBatch);
+    try {
+      choreographer.advance(StepChoreographer.FRAME_MS);
+      throw new AssertionError("The failing plan should have thrown.");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(order).containsExactly(1, 3).inOrder();
+    assertThat(failingBatch.isCancelled()).isTrue();
+    assertThat(committedBatches).containsExactly(nextBatch);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testBatchesCanOnlyBeAddedOnce() {
+    PlanBatch batch = new PlanBatch().add(new CounterAlteringPlan(), target);
+    runtime.addBatch(batch);
+    runtime.addBatch(batch);
+  }
+
+  private static final int FAILING_ID = -1;
+
+  private static class OrderPlan extends Plan<List<Integer>> {
+
+    private final int id;
+
+    private OrderPlan(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public Class<? extends Performer<List<Integer>>> getPerformerClass() {
+      return OrderPerformer.class;
+    }
+  }
+
+  public static class OrderPerformer extends Performer<List<Integer>> {
+
+    @Override
+    public void addPlan(Plan<List<Integer>> plan) {
+      int id = ((OrderPlan) plan).id;
+      if (id == FAILING_ID) {
+        throw new IllegalArgumentException("Failing plan.");
+      }
+      List<Integer> target = getTarget();
+      target.add(id);
+    }
+  }
+}
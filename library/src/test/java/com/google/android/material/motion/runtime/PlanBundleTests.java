@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.BinaryPlanCodecTests.FadePlan;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PlanBundleTests {
+
+  private PlanRegistry registry;
+
+  @Before
+  public void setUp() {
+    registry = new PlanRegistry();
+    registry.register(1, FadePlan.class);
+  }
+
+  @Test
+  public void testPlansAreDecodedByName() throws IOException {
+    PlanBundle bundle = new PlanBundle(ByteBuffer.wrap(writeBundle()), registry);
+
+    assertThat(bundle.size()).isEqualTo(3);
+    assertThat(((FadePlan) bundle.<Object>getPlan("b")).alpha).isWithin(0f).of(2f);
+    assertThat(((FadePlan) bundle.<Object>getPlan("c")).label).isEqualTo("third");
+  }
+
+  @Test
+  public void testNamesAreSorted() throws IOException {
+    PlanBundle bundle = new PlanBundle(ByteBuffer.wrap(writeBundle()), registry);
+
+    assertThat(bundle.getNames()).containsExactly("a", "b", "c");
+  }
+
+  @Test
+  public void testMissingPlansAreNull() throws IOException {
+    PlanBundle bundle = new PlanBundle(ByteBuffer.wrap(writeBundle()), registry);
+
+    assertThat(bundle.contains("d")).isFalse();
+    assertThat(bundle.getPlan("d")).isNull();
+  }
+
+  @Test
+  public void testBundlesCanBeMemoryMapped() throws IOException {
+    File file = File.createTempFile("bundle", ".mmpb");
+    file.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(file);
+    try {
+      out.write(writeBundle());
+    } finally {
+      out.close();
+    }
+
+    PlanBundle bundle = PlanBundle.open(file, registry);
+
+    assertThat(((FadePlan) bundle.<Object>getPlan("a")).label).isEqualTo("first");
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidBundlesThrow() throws IOException {
+    new PlanBundle(ByteBuffer.wrap(new byte[] {0, 1, 2, 3, 4, 5, 6, 7}), registry);
+  }
+
+  @Test(expected = IOException.class)
+  public void testCountsLargerThanTheBundleThrow() throws IOException {
+    byte[] bundle = writeBundle();
+    // the plan count follows the magic and the version; replace it with Integer.MAX_VALUE
+    byte[] count = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+    byte[] bytes = new byte[bundle.length + count.length - 1];
+    System.arraycopy(bundle, 0, bytes, 0, 8);
+    System.arraycopy(count, 0, bytes, 8, count.length);
+    System.arraycopy(bundle, 9, bytes, 8 + count.length, bundle.length - 9);
+
+    new PlanBundle(ByteBuffer.wrap(bytes), registry);
+  }
+
+  @Test(expected = IOException.class)
+  public void testNegativeOffsetsThrow() throws IOException {
+    byte[] bytes = writeBundle();
+    // the first entry is the name "a", its offset and its length
+    bytes[11] = (byte) 0xFF;
+
+    new PlanBundle(ByteBuffer.wrap(bytes), registry);
+  }
+
+  @Test(expected = IOException.class)
+  public void testPlansPastTheEndOfTheBundleThrow() throws IOException {
+    byte[] bytes = writeBundle();
+    bytes[15] = 0x7F;
+    bytes[18] = 0x7F;
+
+    new PlanBundle(ByteBuffer.wrap(bytes), registry);
+  }
+
+  private byte[] writeBundle() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new PlanBundle.Writer(registry)
+      .add("c", new FadePlan(3f, "third"))
+      .add("a", new FadePlan(1f, "first"))
+      .add("b", new FadePlan(2f, "second"))
+      .writeTo(out);
+    return out.toByteArray();
+  }
+}
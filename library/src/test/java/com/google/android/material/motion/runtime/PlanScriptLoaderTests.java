@@ -0,0 +1,304 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.Performer.PerformerInstantiationException;
+import com.google.android.material.motion.runtime.PlanFeatures.BinarySerializablePlan;
+import com.google.android.material.motion.runtime.PlanScriptLoader.Entry;
+import com.google.android.material.motion.runtime.PlanScriptLoader.Listener;
+import com.google.android.material.motion.runtime.PlanScriptLoader.Source;
+import com.google.android.material.motion.runtime.PlanScriptLoader.TargetResolver;
+import com.google.android.material.motion.runtime.targets.IncrementerTarget;
+import com.google.android.material.motion.runtime.testing.StepChoreographer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PlanScriptLoaderTests {
+
+  private static final Executor DIRECT_EXECUTOR = new Executor() {
+    @Override
+    public void execute(Runnable command) {
+      command.run();
+    }
+  };
+
+  private MotionRuntime runtime;
+  private StepChoreographer choreographer;
+  private PlanRegistry registry;
+  private Map<String, IncrementerTarget> targets;
+  private TargetResolver<IncrementerTarget> resolver;
+  private RecordingListener listener;
+
+  @Before
+  public void setUp() {
+    runtime = new MotionRuntime();
+    choreographer = new StepChoreographer();
+    runtime.choreographer = choreographer;
+    registry = new PlanRegistry();
+    registry.register(1, CountingPlan.class);
+    registry.register(2, UninstantiablePlan.class);
+
+    targets = new HashMap<>();
+    targets.put("first", new IncrementerTarget());
+    targets.put("second", new IncrementerTarget());
+    resolver = new TargetResolver<IncrementerTarget>() {
+      @Override
+      public IncrementerTarget resolve(String targetKey) {
+        return targets.get(targetKey);
+      }
+    };
+    listener = new RecordingListener();
+  }
+
+  @Test
+  public void testPlansAreCommittedInFrameAlignedBatches() throws IOException {
+    BinaryPlanWriter writer = new BinaryPlanWriter(registry);
+    for (int i = 0; i < 5; i++) {
+      PlanScriptLoader.writeEntry(writer, "first", null, new CountingPlan());
+    }
+    PlanScriptLoader<IncrementerTarget> loader = createLoader(writer);
+    loader.setMaxPlansPerFrame(2);
+
+    loader.start(DIRECT_EXECUTOR);
+
+    // Nothing is committed until the first frame.
+    assertThat(targets.get("first").addCounter).isEqualTo(0);
+
+    choreographer.advance(StepChoreographer.FRAME_MS);
+    assertThat(targets.get("first").addCounter).isEqualTo(2);
+
+    choreographer.advance(StepChoreographer.FRAME_MS);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+    assertThat(targets.get("first").addCounter).isEqualTo(5);
+    assertThat(listener.progress).containsExactly(2, 4, 5);
+    assertThat(listener.completedCount).isEqualTo(5);
+  }
+
+  @Test
+  public void testNamedEntriesAreAddedByName() throws IOException {
+    BinaryPlanWriter writer = new BinaryPlanWriter(registry);
+    PlanScriptLoader.writeEntry(writer, "second", "drag", new CountingPlan());
+    PlanScriptLoader.writeEntry(writer, "second", "drag", new CountingPlan());
+
+    createLoader(writer).start(DIRECT_EXECUTOR);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(targets.get("second").addCounter).isEqualTo(2);
+    assertThat(targets.get("second").removeCounter).isEqualTo(1);
+  }
+
+  @Test
+  public void testUnresolvedTargetsAreSkipped() throws IOException {
+    BinaryPlanWriter writer = new BinaryPlanWriter(registry);
+    PlanScriptLoader.writeEntry(writer, "missing", null, new CountingPlan());
+    PlanScriptLoader.writeEntry(writer, "first", null, new CountingPlan());
+
+    createLoader(writer).start(DIRECT_EXECUTOR);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(targets.get("first").addCounter).isEqualTo(1);
+    assertThat(listener.completedCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testCancelledLoadersStopCommitting() throws IOException {
+    BinaryPlanWriter writer = new BinaryPlanWriter(registry);
+    for (int i = 0; i < 4; i++) {
+      PlanScriptLoader.writeEntry(writer, "first", null, new CountingPlan());
+    }
+    PlanScriptLoader<IncrementerTarget> loader = createLoader(writer);
+    loader.setMaxPlansPerFrame(1);
+
+    loader.start(DIRECT_EXECUTOR);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+    loader.cancel();
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(targets.get("first").addCounter).isEqualTo(1);
+    assertThat(listener.completedCount).isEqualTo(-1);
+  }
+
+  @Test
+  public void testTruncatedScriptsReportAnError() throws IOException {
+    BinaryPlanWriter writer = new BinaryPlanWriter(registry);
+    PlanScriptLoader.writeEntry(writer, "first", null, new CountingPlan());
+    writer.writeString("first");
+
+    createLoader(writer).start(DIRECT_EXECUTOR);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(targets.get("first").addCounter).isEqualTo(1);
+    assertThat(listener.error).isNotNull();
+  }
+
+  @Test
+  public void testFailingCommitsReportAnErrorAndStop() throws IOException {
+    BinaryPlanWriter writer = new BinaryPlanWriter(registry);
+    PlanScriptLoader.writeEntry(writer, "first", null, new CountingPlan());
+    PlanScriptLoader.writeEntry(writer, "first", null, new UninstantiablePlan());
+    PlanScriptLoader.writeEntry(writer, "first", null, new CountingPlan());
+
+    createLoader(writer).start(DIRECT_EXECUTOR);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(targets.get("first").addCounter).isEqualTo(1);
+    assertThat(listener.error).isInstanceOf(PerformerInstantiationException.class);
+    assertThat(listener.completedCount).isEqualTo(-1);
+  }
+
+  @Test
+  public void testDecodingStaysAFewFramesAheadOfTheCommits() throws IOException {
+    BinaryPlanWriter writer = new BinaryPlanWriter(registry);
+    for (int i = 0; i < 20; i++) {
+      PlanScriptLoader.writeEntry(writer, "first", null, new CountingPlan());
+    }
+    BinaryPlanReader reader = new BinaryPlanReader(registry, ByteBuffer.wrap(writer.toByteArray()));
+    CountingSource source =
+      new CountingSource(PlanScriptLoader.<IncrementerTarget>binarySource(reader));
+    PlanScriptLoader<IncrementerTarget> loader =
+      new PlanScriptLoader<>(runtime, source, resolver, listener);
+    loader.setMaxPlansPerFrame(2);
+
+    loader.start(DIRECT_EXECUTOR);
+    assertThat(source.count).isEqualTo(2 * PlanScriptLoader.DECODED_FRAMES_AHEAD);
+
+    choreographer.advance(StepChoreographer.FRAME_MS);
+    assertThat(source.count).isEqualTo(2 + 2 * PlanScriptLoader.DECODED_FRAMES_AHEAD);
+
+    for (int i = 0; i < 10; i++) {
+      choreographer.advance(StepChoreographer.FRAME_MS);
+    }
+    assertThat(targets.get("first").addCounter).isEqualTo(20);
+    assertThat(listener.completedCount).isEqualTo(20);
+  }
+
+  private PlanScriptLoader<IncrementerTarget> createLoader(BinaryPlanWriter writer) {
+    BinaryPlanReader reader = new BinaryPlanReader(registry, ByteBuffer.wrap(writer.toByteArray()));
+    return new PlanScriptLoader<>(
+      runtime, PlanScriptLoader.<IncrementerTarget>binarySource(reader), resolver, listener);
+  }
+
+  private static class CountingSource implements Source<IncrementerTarget> {
+
+    private final Source<IncrementerTarget> source;
+    private int count;
+
+    private CountingSource(Source<IncrementerTarget> source) {
+      this.source = source;
+    }
+
+    @Override
+    public Entry<IncrementerTarget> next() throws IOException {
+      Entry<IncrementerTarget> entry = source.next();
+      if (entry != null) {
+        count++;
+      }
+      return entry;
+    }
+  }
+
+  private static class RecordingListener implements Listener {
+
+    private final List<Integer> progress = new ArrayList<>();
+    private int completedCount = -1;
+    private Exception error;
+
+    @Override
+    public void onProgress(int committedCount) {
+      progress.add(committedCount);
+    }
+
+    @Override
+    public void onComplete(int committedCount) {
+      completedCount = committedCount;
+    }
+
+    @Override
+    public void onError(Exception e) {
+      error = e;
+    }
+  }
+
+  public static class CountingPlan extends NamedPlan<IncrementerTarget>
+    implements BinarySerializablePlan {
+
+    @Override
+    public Class<? extends NamedPerformer<IncrementerTarget>> getPerformerClass() {
+      return CountingPerformer.class;
+    }
+
+    @Override
+    public int getBinaryVersion() {
+      return 1;
+    }
+
+    @Override
+    public void toBinary(BinaryPlanWriter writer) {
+    }
+
+    @Override
+    public void fromBinary(BinaryPlanReader reader, int version) {
+    }
+  }
+
+  public static class CountingPerformer extends NamedPerformer<IncrementerTarget> {
+
+    @Override
+    protected void addPlan(Plan<IncrementerTarget> plan) {
+      IncrementerTarget target = getTarget();
+      target.addCounter += 1;
+    }
+
+    @Override
+    public void addPlan(NamedPlan<IncrementerTarget> plan, String name) {
+      addPlan(plan);
+    }
+
+    @Override
+    public void removePlan(String name) {
+      IncrementerTarget target = getTarget();
+      target.removeCounter += 1;
+    }
+  }
+
+  public static class UninstantiablePlan extends CountingPlan {
+
+    @Override
+    public Class<? extends NamedPerformer<IncrementerTarget>> getPerformerClass() {
+      return UninstantiablePerformer.class;
+    }
+  }
+
+  public abstract static class UninstantiablePerformer extends CountingPerformer {
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.MotionRuntime.State;
+import com.google.android.material.motion.runtime.MotionRuntime.StateListener;
+import com.google.android.material.motion.runtime.PerformerFeatures.ContinuousPerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.StatefulPerforming;
+import com.google.android.material.motion.runtime.PlanFeatures.BinarySerializablePlan;
+import com.google.android.material.motion.runtime.plans.CounterAlteringPlan;
+import com.google.android.material.motion.runtime.targets.IncrementerTarget;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class RuntimeSnapshotTests {
+
+  private PlanRegistry registry;
+
+  @Before
+  public void setUp() {
+    registry = new PlanRegistry();
+    registry.register(1, OffsetPlan.class);
+    registry.register(2, SettlingPlan.class);
+  }
+
+  @Test
+  public void testNamedPlansAreRestoredOntoNewTargets() throws IOException {
+    MotionRuntime runtime = new MotionRuntime();
+    IncrementerTarget target = new IncrementerTarget();
+    runtime.addNamedPlan(new OffsetPlan(3), "x", target);
+    runtime.addNamedPlan(new OffsetPlan(4), "y", target);
+    runtime.removeNamedPlan("x", target);
+
+    RuntimeSnapshot snapshot =
+      runtime.saveState(Collections.singletonMap("card", target), registry);
+
+    MotionRuntime restoredRuntime = new MotionRuntime();
+    IncrementerTarget restoredTarget = new IncrementerTarget();
+    restoredRuntime.restoreState(
+      snapshot, Collections.singletonMap("card", restoredTarget), registry);
+
+    assertThat(restoredTarget.addCounter).isEqualTo(4);
+  }
+
+  @Test
+  public void testPerformerStateIsRestored() throws IOException {
+    MotionRuntime runtime = new MotionRuntime();
+    IncrementerTarget target = new IncrementerTarget();
+    runtime.addNamedPlan(new OffsetPlan(1), "x", target);
+    runtime.addNamedPlan(new OffsetPlan(1), "x", target);
+
+    RuntimeSnapshot snapshot =
+      runtime.saveState(Collections.singletonMap("card", target), registry);
+
+    IncrementerTarget restoredTarget = new IncrementerTarget();
+    new MotionRuntime().restoreState(
+      snapshot, Collections.singletonMap("card", restoredTarget), registry);
+
+    // The performer saw two adds before the snapshot and one on restore.
+    assertThat(restoredTarget.removeCounter).isEqualTo(3);
+  }
+
+  @Test
+  public void testUnregisteredNamedPlansAndUnknownTargetsAreSkipped() throws IOException {
+    MotionRuntime runtime = new MotionRuntime();
+    IncrementerTarget first = new IncrementerTarget();
+    IncrementerTarget second = new IncrementerTarget();
+    runtime.addNamedPlan(new CounterAlteringPlan(), "counter", first);
+    runtime.addNamedPlan(new OffsetPlan(2), "x", first);
+    runtime.addNamedPlan(new OffsetPlan(5), "x", second);
+
+    Map<String, IncrementerTarget> targets = new HashMap<>();
+    targets.put("first", first);
+    targets.put("second", second);
+    RuntimeSnapshot snapshot =
+      RuntimeSnapshot.fromByteArray(runtime.saveState(targets, registry).toByteArray());
+
+    IncrementerTarget restoredSecond = new IncrementerTarget();
+    new MotionRuntime().restoreState(
+      snapshot, Collections.singletonMap("second", restoredSecond), registry);
+
+    assertThat(restoredSecond.addCounter).isEqualTo(5);
+  }
+
+  @Test
+  public void testRestoringChangesTheRuntimeStateAtMostOnce() throws IOException {
+    MotionRuntime runtime = new MotionRuntime();
+    Map<String, IncrementerTarget> targets = new LinkedHashMap<>();
+    targets.put("first", new IncrementerTarget());
+    targets.put("second", new IncrementerTarget());
+    for (IncrementerTarget target : targets.values()) {
+      runtime.addNamedPlan(new SettlingPlan(), "x", target);
+    }
+    RuntimeSnapshot snapshot = runtime.saveState(targets, registry);
+
+    MotionRuntime restoredRuntime = new MotionRuntime();
+    final List<Integer> states = new ArrayList<>();
+    restoredRuntime.addStateListener(new StateListener() {
+      @Override
+      public void onStateChange(MotionRuntime runtime, @State int newState) {
+        states.add(newState);
+      }
+    });
+    Map<String, IncrementerTarget> restoredTargets = new HashMap<>();
+    restoredTargets.put("first", new IncrementerTarget());
+    restoredTargets.put("second", new IncrementerTarget());
+    restoredRuntime.restoreState(snapshot, restoredTargets, registry);
+
+    // Each performer is active from its named plan until its state is restored.
+    assertThat(states).isEmpty();
+    assertThat(restoredRuntime.getState()).isEqualTo(MotionRuntime.IDLE);
+  }
+
+  public static class OffsetPlan extends NamedPlan<IncrementerTarget>
+    implements BinarySerializablePlan {
+
+    int offset;
+
+    public OffsetPlan() {
+    }
+
+    OffsetPlan(int offset) {
+      this.offset = offset;
+    }
+
+    @Override
+    public Class<? extends NamedPerformer<IncrementerTarget>> getPerformerClass() {
+      return OffsetPerformer.class;
+    }
+
+    @Override
+    public int getBinaryVersion() {
+      return 1;
+    }
+
+    @Override
+    public void toBinary(BinaryPlanWriter writer) {
+      writer.writeVarInt(offset);
+    }
+
+    @Override
+    public void fromBinary(BinaryPlanReader reader, int version) throws IOException {
+      offset = reader.readVarInt();
+    }
+  }
+
+  /**
+   * Sets the target's add counter to the sum of its named plans' offsets, and counts every named
+   * plan it has ever been given in the target's remove counter.
+   */
+  public static class OffsetPerformer extends NamedPerformer<IncrementerTarget>
+    implements StatefulPerforming {
+
+    private final Map<String, Integer> offsets = new HashMap<>();
+    private int addCount;
+
+    @Override
+    protected void addPlan(Plan<IncrementerTarget> plan) {
+    }
+
+    @Override
+    public void addPlan(NamedPlan<IncrementerTarget> plan, String name) {
+      offsets.put(name, ((OffsetPlan) plan).offset);
+      addCount++;
+      apply();
+    }
+
+    @Override
+    public void removePlan(String name) {
+      offsets.remove(name);
+      apply();
+    }
+
+    @Override
+    public void saveState(BinaryPlanWriter writer) {
+      writer.writeVarInt(addCount);
+    }
+
+    @Override
+    public void restoreState(BinaryPlanReader reader) throws IOException {
+      addCount += reader.readVarInt();
+      apply();
+    }
+
+    private void apply() {
+      IncrementerTarget target = getTarget();
+      int sum = 0;
+      for (int offset : offsets.values()) {
+        sum += offset;
+      }
+      target.addCounter = sum;
+      target.removeCounter = addCount;
+    }
+  }
+
+  public static class SettlingPlan extends OffsetPlan {
+
+    @Override
+    public Class<? extends NamedPerformer<IncrementerTarget>> getPerformerClass() {
+      return SettlingPerformer.class;
+    }
+  }
+
+  /**
+   * Stays active from its first named plan until its state is restored.
+   */
+  public static class SettlingPerformer extends OffsetPerformer implements ContinuousPerforming {
+
+    private IsActiveTokenGenerator isActiveTokenGenerator;
+    private IsActiveToken token;
+
+    @Override
+    public void setIsActiveTokenGenerator(IsActiveTokenGenerator isActiveTokenGenerator) {
+      this.isActiveTokenGenerator = isActiveTokenGenerator;
+    }
+
+    @Override
+    public void addPlan(NamedPlan<IncrementerTarget> plan, String name) {
+      super.addPlan(plan, name);
+      if (token == null) {
+        token = isActiveTokenGenerator.generate();
+      }
+    }
+
+    @Override
+    public void restoreState(BinaryPlanReader reader) throws IOException {
+      super.restoreState(reader);
+      token.terminate();
+    }
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2016 - present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.testing.StepChoreographer;
+
+/**
+ * Creates runtimes driven by a {@link StepChoreographer} for the tests of other packages, which
+ * can't set the choreographer of a runtime.
+ */
+public final class StepRuntimes {
+
+  private StepRuntimes() {
+  }
+
+  public static MotionRuntime create(StepChoreographer choreographer) {
+    MotionRuntime runtime = new MotionRuntime();
+    runtime.choreographer = choreographer;
+    return runtime;
+  }
+}
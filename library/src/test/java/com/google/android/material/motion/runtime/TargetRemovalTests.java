@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime;
+
+import com.google.android.material.motion.runtime.MotionRuntimeTests.StorageTracing;
+import com.google.android.material.motion.runtime.PerformerFeatures.ContinuousPerforming;
+import com.google.android.material.motion.runtime.PerformerFeatures.ManualPerforming;
+import com.google.android.material.motion.runtime.plans.CounterAlteringPlan;
+import com.google.android.material.motion.runtime.targets.IncrementerTarget;
+import com.google.android.material.motion.runtime.testing.StepChoreographer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class TargetRemovalTests {
+
+  private MotionRuntime runtime;
+  private StepChoreographer choreographer;
+  private StorageTracing tracer;
+  private IncrementerTarget target;
+
+  @Before
+  public void setUp() {
+    runtime = new MotionRuntime();
+    choreographer = new StepChoreographer();
+    runtime.choreographer = choreographer;
+    tracer = new StorageTracing();
+    runtime.addTracer(tracer);
+    target = new IncrementerTarget();
+    TokenPerformer.terminationCount = 0;
+    TokenPerformer.lastToken = null;
+    SelfRemovingPerformer.runtime = runtime;
+  }
+
+  @Test
+  public void testRemovingATargetTerminatesItsPerformers() {
+    runtime.addNamedPlan(new TokenPlan(), "token", target);
+
+    assertThat(runtime.removeTarget(target)).isTrue();
+
+    assertThat(TokenPerformer.terminationCount).isEqualTo(1);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+    assertThat(tracer.removedTargets).containsExactly(target);
+  }
+
+  @Test
+  public void testRemovingAnUnknownTargetDoesNothing() {
+    assertThat(runtime.removeTarget(target)).isFalse();
+    assertThat(tracer.removedTargets).isEmpty();
+  }
+
+  @Test
+  public void testTokensOfRemovedTargetsAreInert() {
+    runtime.addNamedPlan(new TokenPlan(), "token", target);
+    runtime.removeTarget(target);
+
+    TokenPerformer.lastToken.terminate();
+    TokenPerformer.lastToken.terminate();
+
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+  }
+
+  @Test
+  public void testRemovedTargetsStartOverWhenPlansAreAddedAgain() {
+    runtime.addNamedPlan(new CounterAlteringPlan(), "counter", target);
+    runtime.removeTarget(target);
+    runtime.removeNamedPlan("counter", target);
+    runtime.addPlan(new CounterAlteringPlan(), target);
+
+    assertThat(target.addCounter).isEqualTo(2);
+    assertThat(target.removeCounter).isEqualTo(0);
+    assertThat(tracer.performers).hasSize(2);
+  }
+
+  @Test
+  public void testRemovingTargetsInBulkChangesTheStateOnce() {
+    IncrementerTarget other = new IncrementerTarget();
+    runtime.addPlan(new TokenPlan(), target);
+    runtime.addPlan(new TokenPlan(), other);
+
+    runtime.removeTargets(Arrays.asList(target, other));
+
+    assertThat(TokenPerformer.terminationCount).isEqualTo(2);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+    assertThat(tracer.removedTargets).containsExactly(target, other);
+  }
+
+  @Test
+  public void testCancellingPerformersAffectsOnlyTheirClass() {
+    IncrementerTarget other = new IncrementerTarget();
+    runtime.addNamedPlan(new TokenPlan(), "token", target);
+    runtime.addPlan(new TokenPlan(), other);
+    runtime.addNamedPlan(new CounterAlteringPlan(), "counter", target);
+
+    runtime.cancelPerformers(TokenPerformer.class);
+
+    assertThat(TokenPerformer.terminationCount).isEqualTo(2);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+    assertThat(tracer.removedNamePlans).containsExactly("token");
+
+    // The counter performer survives and still holds its named plan.
+    runtime.removeNamedPlan("counter", target);
+    assertThat(target.removeCounter).isEqualTo(1);
+  }
+
+  @Test
+  public void testTargetsCanRemoveThemselvesWhileUpdating() {
+    runtime.addPlan(new SelfRemovingPlan(), target);
+    runtime.addPlan(new SelfRemovingPlan(), new IncrementerTarget());
+
+    choreographer.advance(StepChoreographer.FRAME_MS);
+
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+    assertThat(tracer.removedTargets).hasSize(2);
+  }
+
+  private static class TokenPlan extends NamedPlan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends NamedPerformer<IncrementerTarget>> getPerformerClass() {
+      return TokenPerformer.class;
+    }
+  }
+
+  private static class SelfRemovingPlan extends Plan<IncrementerTarget> {
+
+    @Override
+    public Class<? extends Performer<IncrementerTarget>> getPerformerClass() {
+      return SelfRemovingPerformer.class;
+    }
+  }
+
+  /**
+   * Holds an is-active token for every plan, and counts its terminations.
+   */
+  public static class TokenPerformer extends NamedPerformer<IncrementerTarget>
+    implements ContinuousPerforming {
+
+    private static int terminationCount;
+    private static IsActiveToken lastToken;
+
+    private IsActiveTokenGenerator isActiveTokenGenerator;
+
+    @Override
+    public void setIsActiveTokenGenerator(IsActiveTokenGenerator isActiveTokenGenerator) {
+      this.isActiveTokenGenerator = isActiveTokenGenerator;
+    }
+
+    @Override
+    protected void addPlan(Plan<IncrementerTarget> plan) {
+      lastToken = isActiveTokenGenerator.generate();
+    }
+
+    @Override
+    public void addPlan(NamedPlan<IncrementerTarget> plan, String name) {
+      addPlan(plan);
+    }
+
+    @Override
+    public void removePlan(String name) {
+    }
+
+    @Override
+    protected void onTerminate() {
+      terminationCount++;
+    }
+  }
+
+  public static class SelfRemovingPerformer extends Performer<IncrementerTarget>
+    implements ManualPerforming {
+
+    private static MotionRuntime runtime;
+
+    @Override
+    protected void addPlan(Plan<IncrementerTarget> plan) {
+    }
+
+    @Override
+    public int update(float deltaTimeMs) {
+      runtime.removeTarget(getTarget());
+      return MotionRuntime.ACTIVE;
+    }
+  }
+}
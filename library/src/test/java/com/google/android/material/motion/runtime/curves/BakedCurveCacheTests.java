@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import android.animation.TimeInterpolator;
+import android.content.ComponentCallbacks2;
+
+import com.google.android.material.motion.runtime.BuildConfig;
+import com.google.android.material.motion.runtime.FloatProperty;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class BakedCurveCacheTests {
+
+  private static final FloatProperty<float[]> VALUE = new FloatProperty<float[]>("value") {
+    @Override
+    public float get(float[] target) {
+      return target[0];
+    }
+
+    @Override
+    public void set(float[] target, float value) {
+      target[0] = value;
+    }
+  };
+
+  @Test
+  public void testEqualParametersShareOneCurve() {
+    BakedCurveCache cache = new BakedCurveCache(BakedCurveCache.DEFAULT_MAX_BYTES);
+
+    BakedCurve first = new TweenPlan<float[]>(VALUE, 1f).setCurveCache(cache).bake();
+    BakedCurve second = new TweenPlan<float[]>(VALUE, 2f)
+      .setInterpolator(new CubicBezierInterpolator(0.4f, 0f, 0.2f, 1f))
+      .setCurveCache(cache)
+      .bake();
+    BakedCurve other = new TweenPlan<float[]>(VALUE, 1f).setDuration(500f)
+      .setCurveCache(cache)
+      .bake();
+
+    assertThat(second).isSameAs(first);
+    assertThat(other).isNotSameAs(first);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(2);
+    assertThat(cache.getByteCount()).isEqualTo(first.getByteCount() + other.getByteCount());
+  }
+
+  @Test
+  public void testCacheIsBoundedByBytes() {
+    BakedCurve curve = BakedCurve.bake(CubicBezierInterpolator.FAST_OUT_SLOW_IN, 100f);
+    BakedCurveCache cache = new BakedCurveCache(curve.getByteCount() * 2);
+
+    cache.get(CurveKey.tween(CubicBezierInterpolator.FAST_OUT_SLOW_IN, 100f, 4f));
+    cache.get(CurveKey.tween(CubicBezierInterpolator.LINEAR_OUT_SLOW_IN, 100f, 4f));
+    cache.get(CurveKey.tween(CubicBezierInterpolator.FAST_OUT_LINEAR_IN, 100f, 4f));
+    assertThat(cache.getByteCount()).isEqualTo(curve.getByteCount() * 2);
+
+    // the least recently used curve was evicted
+    cache.get(CurveKey.tween(CubicBezierInterpolator.FAST_OUT_SLOW_IN, 100f, 4f));
+    assertThat(cache.getHitCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testTrimmingMemoryReleasesCurves() {
+    BakedCurveCache cache = new BakedCurveCache(BakedCurveCache.DEFAULT_MAX_BYTES);
+    cache.get(CurveKey.spring(400f, 20f, 0.001f, 4f));
+    assertThat(cache.getByteCount()).isGreaterThan(0);
+
+    cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+    assertThat(cache.getByteCount()).isGreaterThan(0);
+
+    cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+    assertThat(cache.getByteCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testStableHashesOnlyDependOnParameters() {
+    CurveKey key = CurveKey.tween(CubicBezierInterpolator.FAST_OUT_SLOW_IN, 300f, 4f);
+    CurveKey equal = CurveKey.tween(new CubicBezierInterpolator(0.4f, 0f, 0.2f, 1f), 300f, 4f);
+    CurveKey spring = CurveKey.spring(0.4f, 0f, 0.2f, 1f);
+
+    assertThat(key.isStable()).isTrue();
+    assertThat(equal.getStableHash()).isEqualTo(key.getStableHash());
+    assertThat(spring.getStableHash()).isNotEqualTo(key.getStableHash());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testKeysOfArbitraryInterpolatorsHaveNoStableHash() {
+    TimeInterpolator interpolator = new TimeInterpolator() {
+      @Override
+      public float getInterpolation(float input) {
+        return input;
+      }
+    };
+    CurveKey.tween(interpolator, 300f, 4f).getStableHash();
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import android.animation.TimeInterpolator;
+
+import com.google.android.material.motion.runtime.BuildConfig;
+import com.google.android.material.motion.runtime.MotionRuntime;
+import com.google.android.material.motion.runtime.StepRuntimes;
+import com.google.android.material.motion.runtime.physics.SpringSolution;
+import com.google.android.material.motion.runtime.targets.Point;
+import com.google.android.material.motion.runtime.testing.StepChoreographer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.android.material.motion.runtime.targets.Point.X;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class BakedCurveTests {
+
+  private static final TimeInterpolator SQUARE = new TimeInterpolator() {
+    @Override
+    public float getInterpolation(float input) {
+      return input * input;
+    }
+  };
+
+  private MotionRuntime runtime;
+  private StepChoreographer choreographer;
+
+  @Before
+  public void setUp() {
+    choreographer = new StepChoreographer();
+    runtime = StepRuntimes.create(choreographer);
+  }
+
+  @Test
+  public void testBakedCurvesInterpolateBetweenSamples() {
+    BakedCurve curve = BakedCurve.bake(SQUARE, 100f, 10f);
+
+    assertThat(curve.getSampleCount()).isEqualTo(11);
+    assertThat(curve.getValue(0f)).isEqualTo(0f);
+    assertThat(curve.getValue(50f)).isWithin(1e-6f).of(0.25f);
+    assertThat(curve.getValue(55f)).isWithin(1e-6f).of((0.25f + 0.36f) / 2f);
+    assertThat(curve.getValue(100f)).isEqualTo(1f);
+    assertThat(curve.getValue(-10f)).isEqualTo(0f);
+    assertThat(curve.getValue(200f)).isEqualTo(1f);
+  }
+
+  @Test
+  public void testCubicBezierInterpolatorsEase() {
+    CubicBezierInterpolator linear = new CubicBezierInterpolator(1f / 3f, 1f / 3f, 2f / 3f, 2f / 3f);
+    for (float input = 0f; input <= 1f; input += 0.05f) {
+      assertThat(linear.getInterpolation(input)).isWithin(1e-4f).of(input);
+    }
+
+    CubicBezierInterpolator standard = CubicBezierInterpolator.FAST_OUT_SLOW_IN;
+    float previous = 0f;
+    for (float input = 0.05f; input <= 1f; input += 0.05f) {
+      float output = standard.getInterpolation(input);
+      assertThat(output).isAtLeast(previous);
+      previous = output;
+    }
+    assertThat(standard.getInterpolation(0.5f)).isGreaterThan(0.5f);
+    assertThat(standard).isEqualTo(new CubicBezierInterpolator(0.4f, 0f, 0.2f, 1f));
+  }
+
+  @Test
+  public void testBakedSpringsEndAtRest() {
+    SpringSolution solution = new SpringSolution(1f, 0f, 0f, 400f, 20f, 0.001f);
+    BakedCurve curve = BakedCurve.bake(solution);
+
+    assertThat(curve.getDurationMs()).isWithin(1e-3f).of(solution.getSettleTime() * 1000f);
+    assertThat(curve.getValue(100f)).isWithin(1e-3f).of(solution.getPosition(0.1f));
+    assertThat(curve.getValue(curve.getDurationMs())).isEqualTo(1f);
+  }
+
+  @Test
+  public void testCommittedTweensShareOneBakedCurve() {
+    CountingInterpolator interpolator = new CountingInterpolator();
+    TweenPlan<Point> plan = new TweenPlan<Point>(X, 100f)
+      .setInterpolator(interpolator)
+      .setCurveCache(null);
+
+    runtime.addPlan(plan, new Point());
+    int bakedCount = interpolator.count;
+    runtime.addPlan(plan, new Point());
+    plan.bake();
+
+    assertThat(bakedCount).isGreaterThan(0);
+    assertThat(interpolator.count).isEqualTo(bakedCount);
+
+    runtime.addPlan(plan.setDuration(200f), new Point());
+    assertThat(interpolator.count).isGreaterThan(bakedCount);
+  }
+
+  @Test
+  public void testTweensPlayBackTheirCurves() {
+    List<Point> points = Arrays.asList(new Point(), new Point());
+    TweenPlan<Point> plan = new TweenPlan<Point>(X, 100f).setDuration(160f).setInterpolator(SQUARE);
+    runtime.addPlanToAll(plan, points);
+
+    // the first frame has no elapsed time
+    advance(6);
+
+    for (Point point : points) {
+      assertThat(point.x).isWithin(1e-3f).of(25f);
+    }
+    advance(5);
+    for (Point point : points) {
+      assertThat(point.x).isEqualTo(100f);
+    }
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+  }
+
+  @Test
+  public void testTweensStartAtTheCurrentValue() {
+    Point point = new Point();
+    point.x = 50f;
+    runtime.addPlan(new TweenPlan<Point>(X, 100f).setInterpolator(SQUARE), point);
+
+    advance(1);
+
+    assertThat(point.x).isEqualTo(50f);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveDurationThrows() {
+    new TweenPlan<Point>(X, 0f).setDuration(0f);
+  }
+
+  private void advance(int frames) {
+    for (int i = 0; i < frames; i++) {
+      choreographer.advance(StepChoreographer.FRAME_MS);
+    }
+  }
+
+  private static class CountingInterpolator implements TimeInterpolator {
+
+    private int count;
+
+    @Override
+    public float getInterpolation(float input) {
+      count++;
+      return input;
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import com.google.android.material.motion.runtime.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DiskCurveCacheTests {
+
+  private static final CurveKey TWEEN =
+    CurveKey.tween(CubicBezierInterpolator.FAST_OUT_SLOW_IN, 300f, 4f);
+  private static final CurveKey SPRING = CurveKey.spring(400f, 20f, 0.001f, 4f);
+
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("curves", ".mmbc");
+    file.deleteOnExit();
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+  }
+
+  @Test
+  public void testCurvesSurviveReopening() throws IOException {
+    DiskCurveCache cache = DiskCurveCache.open(file);
+    BakedCurve tween = TWEEN.bake();
+    cache.put(TWEEN, tween);
+    cache.put(SPRING, SPRING.bake());
+    cache.save();
+
+    DiskCurveCache reopened = DiskCurveCache.open(file);
+    BakedCurve read = reopened.get(TWEEN);
+
+    assertThat(reopened.size()).isEqualTo(2);
+    assertThat(read.getDurationMs()).isEqualTo(tween.getDurationMs());
+    assertThat(Arrays.equals(read.samples, tween.samples)).isTrue();
+    assertThat(reopened.get(SPRING)).isNotNull();
+  }
+
+  @Test
+  public void testSavingKeepsEarlierCurves() throws IOException {
+    DiskCurveCache cache = DiskCurveCache.open(file);
+    cache.put(TWEEN, TWEEN.bake());
+    cache.save();
+
+    DiskCurveCache reopened = DiskCurveCache.open(file);
+    reopened.put(SPRING, SPRING.bake());
+    reopened.save();
+
+    DiskCurveCache last = DiskCurveCache.open(file);
+    assertThat(last.size()).isEqualTo(2);
+    assertThat(last.get(TWEEN)).isNotNull();
+  }
+
+  @Test
+  public void testFilesOfAnotherVersionAreIgnored() throws IOException {
+    FileOutputStream out = new FileOutputStream(file);
+    try {
+      out.write(new byte[] {0x4D, 0x4D, 0x42, 0x43, 0, 0, 0, 0, 0, 0, 0, 1});
+    } finally {
+      out.close();
+    }
+
+    DiskCurveCache cache = DiskCurveCache.open(file);
+
+    assertThat(cache.size()).isEqualTo(0);
+    assertThat(cache.get(TWEEN)).isNull();
+  }
+
+  @Test
+  public void testFilesWithoutPositiveDurationsAreIgnored() throws IOException {
+    writeSingleCurveFile(Float.NaN);
+    assertThat(DiskCurveCache.open(file).size()).isEqualTo(0);
+
+    writeSingleCurveFile(0f);
+    assertThat(DiskCurveCache.open(file).size()).isEqualTo(0);
+
+    writeSingleCurveFile(100f);
+    assertThat(DiskCurveCache.open(file).size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testMemoryCacheMissesAreServedFromDisk() throws IOException {
+    DiskCurveCache diskCache = DiskCurveCache.open(file);
+    BakedCurveCache first = new BakedCurveCache(BakedCurveCache.DEFAULT_MAX_BYTES);
+    first.setDiskCache(diskCache);
+    first.get(TWEEN);
+    diskCache.save();
+
+    BakedCurveCache second = new BakedCurveCache(BakedCurveCache.DEFAULT_MAX_BYTES);
+    DiskCurveCache reopened = DiskCurveCache.open(file);
+    second.setDiskCache(reopened);
+    BakedCurve curve = second.get(TWEEN);
+
+    assertThat(Arrays.equals(curve.samples, TWEEN.bake().samples)).isTrue();
+    assertThat(reopened.size()).isEqualTo(1);
+  }
+
+  private void writeSingleCurveFile(float durationMs) throws IOException {
+    DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+    try {
+      out.writeInt(0x4D4D4243);
+      out.writeInt(DiskCurveCache.FORMAT_VERSION);
+      out.writeInt(1);
+      out.writeLong(TWEEN.getStableHash());
+      out.writeInt(32);
+      out.writeInt(2);
+      out.writeFloat(durationMs);
+      out.writeFloat(0f);
+      out.writeFloat(1f);
+    } finally {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.curves;
+
+import android.animation.TimeInterpolator;
+
+import com.google.android.material.motion.runtime.BuildConfig;
+import com.google.android.material.motion.runtime.MotionRuntime;
+import com.google.android.material.motion.runtime.NamedPlan;
+import com.google.android.material.motion.runtime.Performer;
+import com.google.android.material.motion.runtime.Plan;
+import com.google.android.material.motion.runtime.StepRuntimes;
+import com.google.android.material.motion.runtime.Tracing;
+import com.google.android.material.motion.runtime.targets.Point;
+import com.google.android.material.motion.runtime.testing.StepChoreographer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.android.material.motion.runtime.targets.Point.X;
+import static com.google.android.material.motion.runtime.targets.Point.Y;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class TimelineTests {
+
+  private static final TimeInterpolator SQUARE = new TimeInterpolator() {
+    @Override
+    public float getInterpolation(float input) {
+      return input * input;
+    }
+  };
+
+  private MotionRuntime runtime;
+  private StepChoreographer choreographer;
+  private Timeline<Point> timeline;
+
+  @Before
+  public void setUp() {
+    choreographer = new StepChoreographer();
+    runtime = StepRuntimes.create(choreographer);
+    timeline = new Timeline.Builder<Point>()
+      .addKeyframe(X, 0f, 0f)
+      .addKeyframe(X, 100f, 100f)
+      .addKeyframe(X, 200f, 0f)
+      .addKeyframe(Y, 80f, 10f)
+      .addKeyframe(Y, 160f, 20f, SQUARE)
+      .build();
+  }
+
+  @Test
+  public void testSegmentsAreFoundWithOrWithoutAHint() {
+    assertThat(timeline.getDurationMs()).isEqualTo(200f);
+    for (int hint = 0; hint < 2; hint++) {
+      assertThat(timeline.findSegment(0, -10f, hint)).isEqualTo(0);
+      assertThat(timeline.findSegment(0, 50f, hint)).isEqualTo(0);
+      assertThat(timeline.findSegment(0, 100f, hint)).isEqualTo(1);
+      assertThat(timeline.findSegment(0, 150f, hint)).isEqualTo(1);
+      assertThat(timeline.findSegment(0, 500f, hint)).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void testTracksInterpolateBetweenKeyframes() {
+    Point point = new Point();
+
+    timeline.seek(point, 50f);
+    assertThat(point.x).isWithin(1e-4f).of(50f);
+    assertThat(point.y).isEqualTo(10f);
+
+    timeline.seek(point, 150f);
+    assertThat(point.x).isWithin(1e-4f).of(50f);
+    assertThat(point.y).isWithin(1e-2f).of(10f + 10f * 0.875f * 0.875f);
+
+    timeline.seek(point, 1000f);
+    assertThat(point.x).isEqualTo(0f);
+    assertThat(point.y).isEqualTo(20f);
+  }
+
+  @Test
+  public void testPlaybackMatchesSeeking() {
+    Point played = new Point();
+    Point seeked = new Point();
+    runtime.addPlan(new TimelinePlan<>(timeline), played);
+
+    // the first frame has no elapsed time
+    advance(8);
+    timeline.seek(seeked, 7 * StepChoreographer.FRAME_MS);
+
+    assertThat(played.x).isEqualTo(seeked.x);
+    assertThat(played.y).isEqualTo(seeked.y);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.ACTIVE);
+
+    advance(20);
+    assertThat(played.x).isEqualTo(0f);
+    assertThat(played.y).isEqualTo(20f);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+  }
+
+  @Test
+  public void testPausedPlansScrub() {
+    Point point = new Point();
+    runtime.addPlan(new TimelinePlan<>(timeline).setStartTime(150f).setPaused(true), point);
+
+    advance(1);
+    assertThat(point.x).isWithin(1e-4f).of(50f);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+
+    runtime.addPlan(new TimelinePlan<>(timeline).setStartTime(25f).setPaused(true), point);
+    advance(3);
+    assertThat(point.x).isWithin(1e-4f).of(25f);
+  }
+
+  @Test
+  public void testScrubbingKeepsTheCursors() {
+    List<Performer> performers = new ArrayList<>();
+    runtime.addTracer(new CreationTracing(performers));
+    Point point = new Point();
+    runtime.addPlan(new TimelinePlan<>(timeline).setStartTime(150f).setPaused(true), point);
+    advance(1);
+    TimelinePerformer<?> performer = (TimelinePerformer<?>) performers.get(0);
+    assertThat(performer.cursors[0]).isEqualTo(1);
+
+    runtime.addPlan(new TimelinePlan<>(timeline).setStartTime(160f).setPaused(true), point);
+
+    assertThat(performer.cursors[0]).isEqualTo(1);
+    advance(1);
+    assertThat(point.x).isWithin(1e-4f).of(40f);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testEmptyTimelinesThrow() {
+    new Timeline.Builder<Point>().build();
+  }
+
+  private void advance(int frames) {
+    for (int i = 0; i < frames; i++) {
+      choreographer.advance(StepChoreographer.FRAME_MS);
+    }
+  }
+
+  private static class CreationTracing implements Tracing {
+
+    private final List<Performer> performers;
+
+    private CreationTracing(List<Performer> performers) {
+      this.performers = performers;
+    }
+
+    @Override
+    public <T> void onAddPlan(Plan<T> plan, T target) {
+    }
+
+    @Override
+    public <T> void onAddNamedPlan(NamedPlan<T> plan, String name, T target) {
+    }
+
+    @Override
+    public <T> void onRemoveNamedPlan(String name, T target) {
+    }
+
+    @Override
+    public <T> void onCreatePerformer(Performer<T> performer, T target) {
+      performers.add(performer);
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.physics;
+
+import com.google.android.material.motion.runtime.BuildConfig;
+import com.google.android.material.motion.runtime.MotionRuntime;
+import com.google.android.material.motion.runtime.NamedPlan;
+import com.google.android.material.motion.runtime.Performer;
+import com.google.android.material.motion.runtime.Plan;
+import com.google.android.material.motion.runtime.StepRuntimes;
+import com.google.android.material.motion.runtime.Tracing;
+import com.google.android.material.motion.runtime.targets.Point;
+import com.google.android.material.motion.runtime.testing.StepChoreographer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.android.material.motion.runtime.targets.Point.X;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class AnalyticPerformerTests {
+
+  private MotionRuntime runtime;
+  private StepChoreographer choreographer;
+  private List<Performer> performers;
+
+  @Before
+  public void setUp() {
+    choreographer = new StepChoreographer();
+    runtime = StepRuntimes.create(choreographer);
+    performers = new ArrayList<>();
+    runtime.addTracer(new CreationTracing(performers));
+  }
+
+  @Test
+  public void testSpringSolutionsMatchANumericIntegration() {
+    // under-damped, critically damped and over-damped
+    float[] dampings = {10f, 2 * (float) Math.sqrt(400f), 100f};
+    for (float damping : dampings) {
+      SpringSolution solution = new SpringSolution(10f, 0f, 20f, 400f, damping, 0.001f);
+
+      double position = 0;
+      double velocity = 20;
+      double stepS = 0.00001;
+      for (int i = 0; i < 50000; i++) {
+        velocity += (-400 * (position - 10) - damping * velocity) * stepS;
+        position += velocity * stepS;
+      }
+
+      assertThat(solution.getPosition(0f)).isWithin(1e-5f).of(0f);
+      assertThat(solution.getVelocity(0f)).isWithin(1e-4f).of(20f);
+      assertThat((double) solution.getPosition(0.5f)).isWithin(1e-3).of(position);
+      assertThat((double) solution.getVelocity(0.5f)).isWithin(1e-2).of(velocity);
+    }
+  }
+
+  @Test
+  public void testSolutionsStayAtRestFromTheirSettleTime() {
+    PhysicsSolution[] solutions = {
+      new SpringSolution(10f, 0f, 20f, 400f, 10f, 0.01f),
+      new SpringSolution(10f, 0f, -300f, 400f, 40f, 0.01f),
+      new SpringSolution(10f, 0f, 20f, 400f, 100f, 0.01f),
+      new DecaySolution(0f, 1000f, 4f, 0.01f),
+    };
+    for (PhysicsSolution solution : solutions) {
+      float settleTime = solution.getSettleTime();
+      assertThat(settleTime).isGreaterThan(0f);
+      assertThat(settleTime).isLessThan(10f);
+
+      for (float t = settleTime; t < settleTime + 2f; t += 0.001f) {
+        assertThat(Math.abs(solution.getPosition(t) - solution.getRestPosition()))
+          .isAtMost(0.01f + 1e-5f);
+        assertThat(Math.abs(solution.getVelocity(t))).isAtMost(0.01f + 1e-5f);
+      }
+    }
+  }
+
+  @Test
+  public void testDecayComesToRestAtItsProjectedPosition() {
+    DecaySolution solution = new DecaySolution(5f, 100f, 4f, 0.001f);
+
+    assertThat(solution.getRestPosition()).isEqualTo(30f);
+    assertThat(solution.getPosition(0f)).isWithin(1e-5f).of(5f);
+  }
+
+  @Test
+  public void testValuesDoNotDependOnTheFrameRate() {
+    StepChoreographer jankyChoreographer = new StepChoreographer();
+    MotionRuntime jankyRuntime = StepRuntimes.create(jankyChoreographer);
+    Point smooth = new Point();
+    Point janky = new Point();
+    runtime.addPlan(new AnalyticSpringPlan<Point>(X, 100f).setDamping(20f), smooth);
+    jankyRuntime.addPlan(new AnalyticSpringPlan<Point>(X, 100f).setDamping(20f), janky);
+
+    // the first frame of each runtime has no elapsed time
+    advance(5);
+    for (int i = 0; i < 3; i++) {
+      jankyChoreographer.advance(StepChoreographer.FRAME_MS * 2);
+    }
+
+    assertThat(smooth.x).isNotEqualTo(0f);
+    assertThat(janky.x).isWithin(1e-3f).of(smooth.x);
+  }
+
+  @Test
+  public void testPerformersBecomeIdleAtTheirSettleTime() {
+    Point point = new Point();
+    runtime.addPlan(new AnalyticSpringPlan<Point>(X, 100f), point);
+    float remainingMs = analytic().getRemainingTimeMs();
+    int frames = (int) Math.ceil(remainingMs / StepChoreographer.FRAME_MS);
+
+    // the first frame has no elapsed time
+    advance(frames);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.ACTIVE);
+
+    advance(1);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+    assertThat(point.x).isEqualTo(100f);
+  }
+
+  @Test
+  public void testMovingPropertiesAreRetargetedWithoutJumping() {
+    Point point = new Point();
+    runtime.addPlan(new AnalyticSpringPlan<Point>(X, 100f), point);
+    advance(5);
+    float position = point.x;
+    assertThat(position).isGreaterThan(0f);
+
+    runtime.addPlan(new AnalyticSpringPlan<Point>(X, -100f), point);
+    advance(1);
+
+    assertThat(Math.abs(point.x - position)).isLessThan(Math.abs(position));
+    advance(200);
+    assertThat(point.x).isEqualTo(-100f);
+  }
+
+  @Test
+  public void testFlingsReplaceSprings() {
+    Point point = new Point();
+    runtime.addPlan(new AnalyticSpringPlan<Point>(X, 100f), point);
+    runtime.addPlan(new DecayPlan<Point>(X, 400f).setFriction(4f), point);
+
+    advance(300);
+
+    assertThat(point.x).isEqualTo(100f);
+    assertThat(performers).hasSize(1);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveFrictionThrows() {
+    new DecayPlan<Point>(X, 0f).setFriction(0f);
+  }
+
+  private void advance(int frames) {
+    for (int i = 0; i < frames; i++) {
+      choreographer.advance(StepChoreographer.FRAME_MS);
+    }
+  }
+
+  private AnalyticPerformer analytic() {
+    return (AnalyticPerformer) performers.get(0);
+  }
+
+  private static class CreationTracing implements Tracing {
+
+    private final List<Performer> performers;
+
+    private CreationTracing(List<Performer> performers) {
+      this.performers = performers;
+    }
+
+    @Override
+    public <T> void onAddPlan(Plan<T> plan, T target) {
+    }
+
+    @Override
+    public <T> void onAddNamedPlan(NamedPlan<T> plan, String name, T target) {
+    }
+
+    @Override
+    public <T> void onRemoveNamedPlan(String name, T target) {
+    }
+
+    @Override
+    public <T> void onCreatePerformer(Performer<T> performer, T target) {
+      performers.add(performer);
+    }
+  }
+}
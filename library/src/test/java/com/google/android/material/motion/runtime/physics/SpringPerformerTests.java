@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.physics;
+
+import com.google.android.material.motion.runtime.BatchPerformer;
+import com.google.android.material.motion.runtime.BatchTracing;
+import com.google.android.material.motion.runtime.BuildConfig;
+import com.google.android.material.motion.runtime.MotionRuntime;
+import com.google.android.material.motion.runtime.NamedPlan;
+import com.google.android.material.motion.runtime.Performer;
+import com.google.android.material.motion.runtime.Plan;
+import com.google.android.material.motion.runtime.StepRuntimes;
+import com.google.android.material.motion.runtime.targets.Point;
+import com.google.android.material.motion.runtime.testing.StepChoreographer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.android.material.motion.runtime.targets.Point.X;
+import static com.google.android.material.motion.runtime.targets.Point.Y;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SpringPerformerTests {
+
+  private MotionRuntime runtime;
+  private StepChoreographer choreographer;
+  private List<BatchPerformer<?>> batchPerformers;
+
+  @Before
+  public void setUp() {
+    choreographer = new StepChoreographer();
+    runtime = StepRuntimes.create(choreographer);
+    batchPerformers = new ArrayList<>();
+    runtime.addTracer(new CreationTracing(batchPerformers));
+  }
+
+  @Test
+  public void testSpringsComeToRestAtTheirDestination() {
+    Point point = new Point();
+    runtime.addPlan(new SpringPlan<Point>(X, 100f), point);
+    runtime.addPlan(new SpringPlan<Point>(Y, -50f).setInitialVelocity(500f), point);
+
+    advance(120);
+
+    assertThat(point.x).isEqualTo(100f);
+    assertThat(point.y).isEqualTo(-50f);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+    assertThat(spring().getSpringCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testOneInstanceSimulatesEveryTarget() {
+    List<Point> points = Arrays.asList(new Point(), new Point(), new Point());
+    runtime.addPlanToAll(new SpringPlan<Point>(X, 10f), points);
+    runtime.addPlan(new SpringPlan<Point>(Y, 10f), points.get(0));
+
+    advance(1);
+
+    assertThat(batchPerformers).hasSize(1);
+    assertThat(spring().getSpringCount()).isEqualTo(4);
+  }
+
+  @Test
+  public void testMovingSpringsAreRetargetedWithoutJumping() {
+    Point point = new Point();
+    runtime.addPlan(new SpringPlan<Point>(X, 100f), point);
+    advance(5);
+    float position = point.x;
+    assertThat(position).isGreaterThan(0f);
+
+    runtime.addPlan(new SpringPlan<Point>(X, -100f), point);
+
+    assertThat(point.x).isEqualTo(position);
+    assertThat(spring().getSpringCount()).isEqualTo(1);
+    advance(120);
+    assertThat(point.x).isEqualTo(-100f);
+  }
+
+  @Test
+  public void testSpringsAreRetargetedAfterOtherSpringsComeToRest() {
+    List<Point> points = Arrays.asList(new Point(), new Point());
+    for (Point point : points) {
+      runtime.addPlan(new SpringPlan<Point>(X, 0f), point);
+      runtime.addPlan(new SpringPlan<Point>(Y, 100f), point);
+    }
+    advance(2);
+    assertThat(spring().getSpringCount()).isEqualTo(2);
+
+    for (Point point : points) {
+      runtime.addPlan(new SpringPlan<Point>(Y, -100f), point);
+    }
+
+    assertThat(spring().getSpringCount()).isEqualTo(2);
+    advance(120);
+    assertThat(points.get(0).y).isEqualTo(-100f);
+    assertThat(points.get(1).y).isEqualTo(-100f);
+  }
+
+  @Test
+  public void testSpringsAtRestAreNotWritten() {
+    Point point = new Point();
+    runtime.addPlan(new SpringPlan<Point>(X, 0f), point);
+
+    advance(2);
+
+    assertThat(point.writeCount).isEqualTo(1);
+    assertThat(runtime.getState()).isEqualTo(MotionRuntime.IDLE);
+  }
+
+  @Test
+  public void testRemovedTargetsStopMoving() {
+    Point point = new Point();
+    Point other = new Point();
+    runtime.addPlan(new SpringPlan<Point>(X, 100f), point);
+    runtime.addPlan(new SpringPlan<Point>(X, 100f), other);
+    advance(2);
+
+    runtime.removeTarget(point);
+    float position = point.x;
+    advance(2);
+
+    assertThat(point.x).isEqualTo(position);
+    assertThat(spring().getSpringCount()).isEqualTo(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveStiffnessThrows() {
+    new SpringPlan<Point>(X, 0f).setStiffness(0f);
+  }
+
+  private void advance(int frames) {
+    for (int i = 0; i < frames; i++) {
+      choreographer.advance(StepChoreographer.FRAME_MS);
+    }
+  }
+
+  private SpringPerformer spring() {
+    return (SpringPerformer) batchPerformers.get(0);
+  }
+
+  private static class CreationTracing implements BatchTracing {
+
+    private final List<BatchPerformer<?>> batchPerformers;
+
+    private CreationTracing(List<BatchPerformer<?>> batchPerformers) {
+      this.batchPerformers = batchPerformers;
+    }
+
+    @Override
+    public void onCreateBatchPerformer(BatchPerformer<?> batchPerformer) {
+      batchPerformers.add(batchPerformer);
+    }
+
+    @Override
+    public <T> void onAddPlan(Plan<T> plan, T target) {
+    }
+
+    @Override
+    public <T> void onAddNamedPlan(NamedPlan<T> plan, String name, T target) {
+    }
+
+    @Override
+    public <T> void onRemoveNamedPlan(String name, T target) {
+    }
+
+    @Override
+    public <T> void onCreatePerformer(Performer<T> performer, T target) {
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2016 - present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.runtime.targets;
+
+import com.google.android.material.motion.runtime.FloatProperty;
+
+/**
+ * A target with two float properties, for plans that animate a {@link FloatProperty}.
+ */
+public class Point {
+
+  public static final FloatProperty<Point> X = new FloatProperty<Point>("x") {
+    @Override
+    public float get(Point target) {
+      return target.x;
+    }
+
+    @Override
+    public void set(Point target, float value) {
+      target.x = value;
+      target.writeCount++;
+    }
+  };
+
+  public static final FloatProperty<Point> Y = new FloatProperty<Point>("y") {
+    @Override
+    public float get(Point target) {
+      return target.y;
+    }
+
+    @Override
+    public void set(Point target, float value) {
+      target.y = value;
+      target.writeCount++;
+    }
+  };
+
+  public float x;
+  public float y;
+  /**
+   * The number of times either property was set.
+   */
+  public int writeCount;
+}